@@ -0,0 +1,37 @@
+package sdk.client.dive.tv.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Recorded API responses and stream events used by the benchmarks, from src/test/resources/fixtures and the shared
+ * test fixtures of sdk-client (scene_start.json)
+ */
+public final class Fixtures {
+
+    public static final String CARD = "card.json";
+    public static final String TV_GRID = "tv_grid.json";
+    public static final String SCENE_START = "scene_start.json";
+    public static final String SCENE_UPDATE = "scene_update.json";
+    public static final String TIMELINE = "timeline.json";
+
+    private Fixtures() {
+    }
+
+    public static String read(String name) throws IOException {
+        InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+        if (in == null)
+            throw new IOException("Missing fixture " + name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package sdk.client.dive.tv.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.TvGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Gson deserialization of the REST responses and of the card array of the scene events, with the Gson instance of
+ * the generated ApiClient
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+    private static final Type CARD_LIST_TYPE = new TypeToken<List<Card>>() {
+    }.getType();
+
+    private Gson gson;
+    private String card;
+    private String tvGrid;
+    private String sceneCards;
+
+    @Setup
+    public void setUp() throws Exception {
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        card = Fixtures.read(Fixtures.CARD);
+        tvGrid = Fixtures.read(Fixtures.TV_GRID);
+        JsonObject scene = new JsonParser().parse(Fixtures.read(Fixtures.SCENE_START)).getAsJsonObject();
+        sceneCards = scene.get(Constants.JSON_KEY_CARDS).toString();
+    }
+
+    @Benchmark
+    public Card card() {
+        return gson.fromJson(card, Card.class);
+    }
+
+    @Benchmark
+    public TvGrid tvGrid() {
+        return gson.fromJson(tvGrid, TvGrid.class);
+    }
+
+    @Benchmark
+    public List<Card> sceneCards() {
+        return gson.fromJson(sceneCards, CARD_LIST_TYPE);
+    }
+}
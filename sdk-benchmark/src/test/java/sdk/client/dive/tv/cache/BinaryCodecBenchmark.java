@@ -0,0 +1,120 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.TvGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+import sdk.client.dive.tv.benchmark.Fixtures;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Encoding and decoding of the cached responses with the binary codec of the ResponseCache and with Gson JSON, which
+ * it replaced. The sizes of both forms, raw and deflated, are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Projection of a card with the fields of a card list item
+     */
+    static class CardHeader {
+        private String title;
+        private String subtitle;
+    }
+
+    private Gson gson;
+    private BinaryCodec codec;
+    private Card card;
+    private TvGrid tvGrid;
+    private byte[] cardJson;
+    private byte[] cardBinary;
+    private byte[] tvGridJson;
+    private byte[] tvGridBinary;
+
+    @Setup
+    public void setUp() throws Exception {
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        codec = new BinaryCodec(gson);
+        card = gson.fromJson(Fixtures.read(Fixtures.CARD), Card.class);
+        tvGrid = gson.fromJson(Fixtures.read(Fixtures.TV_GRID), TvGrid.class);
+        cardJson = gson.toJson(card).getBytes(UTF_8);
+        cardBinary = codec.encode(card);
+        tvGridJson = gson.toJson(tvGrid).getBytes(UTF_8);
+        tvGridBinary = codec.encode(tvGrid);
+        System.out.println();
+        System.out.println("card: json " + size(cardJson) + ", binary " + size(cardBinary));
+        System.out.println("tvGrid: json " + size(tvGridJson) + ", binary " + size(tvGridBinary));
+    }
+
+    @Benchmark
+    public byte[] encodeCardJson() {
+        return gson.toJson(card).getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeCardBinary() {
+        return codec.encode(card);
+    }
+
+    @Benchmark
+    public Card decodeCardJson() {
+        return gson.fromJson(new String(cardJson, UTF_8), Card.class);
+    }
+
+    @Benchmark
+    public Card decodeCardBinary() {
+        return codec.decode(cardBinary, Card.class);
+    }
+
+    @Benchmark
+    public CardHeader decodeCardHeaderJson() {
+        return gson.fromJson(new String(cardJson, UTF_8), CardHeader.class);
+    }
+
+    @Benchmark
+    public CardHeader decodeCardHeaderBinary() {
+        return codec.decode(cardBinary, CardHeader.class);
+    }
+
+    @Benchmark
+    public TvGrid decodeTvGridJson() {
+        return gson.fromJson(new String(tvGridJson, UTF_8), TvGrid.class);
+    }
+
+    @Benchmark
+    public TvGrid decodeTvGridBinary() {
+        return codec.decode(tvGridBinary, TvGrid.class);
+    }
+
+    private static String size(byte[] data) throws Exception {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        DeflaterOutputStream out = new DeflaterOutputStream(deflated);
+        out.write(data);
+        out.close();
+        return data.length + " bytes (" + deflated.size() + " deflated)";
+    }
+}
@@ -0,0 +1,106 @@
+package sdk.client.dive.tv.rest;
+
+import com.touchvie.sdk.ApiCallback;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.ApiException;
+import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.api.InterfaceApi;
+import com.touchvie.sdk.model.Card;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.rest.callbacks.ApiCallbackImpl;
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Cost of an API call through the DefaultApiWrapper proxy, with its dispatch table and with per-call reflective
+ * dispatch, against a direct call. The target only counts the calls, so that no request is sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultApiWrapperBenchmark {
+
+    private int calls;
+    private InterfaceApi target;
+    private InterfaceApi tableWrapper;
+    private InterfaceApi reflectiveWrapper;
+    private ApiCallbackImpl<Card> callback;
+
+    @Setup
+    public void setUp() {
+        target = (InterfaceApi) Proxy.newProxyInstance(InterfaceApi.class.getClassLoader(),
+                new Class[]{InterfaceApi.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        calls++;
+                        return null;
+                    }
+                });
+        Map<String, DefaultApiWrapper.ApiInvoker> invokers = Collections.<String, DefaultApiWrapper.ApiInvoker>singletonMap("getCardAsync",
+                new DefaultApiWrapper.ApiInvoker() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                        return target.getCardAsync((String) args[0], (String) args[1], (String) args[2], (Boolean) args[3],
+                                (Boolean) args[4], (String) args[5], (ApiCallback<Card>) args[6]);
+                    }
+                });
+        DefaultApi api = new DefaultApi(new ApiClient(Constants.DEFAULT_ENVIRONMENT));
+        tableWrapper = (InterfaceApi) Proxy.newProxyInstance(DefaultApi.class.getClassLoader(),
+                new Class[]{InterfaceApi.class}, new DefaultApiWrapper(api, null, invokers));
+        reflectiveWrapper = (InterfaceApi) Proxy.newProxyInstance(DefaultApi.class.getClassLoader(),
+                new Class[]{InterfaceApi.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        Method m = InterfaceApi.class.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                        return m.invoke(target, args);
+                    }
+                });
+        callback = new ApiCallbackImpl<>(Constants.GET_CARD_SERVICE_NAME, new ClientCallback<Card>() {
+            @Override
+            public void onFailure(RestAPIError message) {
+            }
+
+            @Override
+            public void onSuccess(Card result) {
+            }
+        });
+    }
+
+    @Benchmark
+    public Object direct() throws ApiException {
+        return target.getCardAsync("Bearer token", "cardId", "es-ES", null, null, null, callback);
+    }
+
+    @Benchmark
+    public Object dispatchTable() throws ApiException {
+        return tableWrapper.getCardAsync("Bearer token", "cardId", "es-ES", null, null, null, callback);
+    }
+
+    @Benchmark
+    public Object reflectiveDispatch() throws ApiException {
+        return reflectiveWrapper.getCardAsync("Bearer token", "cardId", "es-ES", null, null, null, callback);
+    }
+}
@@ -0,0 +1,182 @@
+package sdk.client.dive.tv.rest;
+
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.ApiException;
+import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.api.InterfaceApi;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import sdk.client.dive.tv.metrics.DefaultMetricsSink;
+import sdk.client.dive.tv.metrics.PayloadSizeStats;
+import sdk.client.dive.tv.rest.callbacks.ApiCallbackImpl;
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InMemorySharedPreferences;
+import sdk.client.dive.tv.utils.SharedPreferencesHelper;
+import sdk.client.dive.tv.utils.TokenStore;
+
+/**
+ * Payload size of the card and scene calls for each request profile, measured against the dive.tv API with the
+ * payload metrics of the SDK: the same requests are sent with every profile and the mean transferred bytes of each
+ * service and profile are printed, with their ratio to the full detail profile.
+ * <p>
+ * Run with ./gradlew :sdk-benchmark:payloadHarness -PharnessArgs="apiKey=... deviceId=... cards=id[:version],...
+ * [movie=clientMovieId timestamp=seconds] [channel=clientChannelId] [locale=es-ES] [environment=pre]"
+ */
+public class PayloadSizeHarness {
+
+    private static final long CALL_TIMEOUT = 30; // seconds
+
+    private final InterfaceApi restAPI;
+    private final TokenStore tokenStore;
+    private final DefaultMetricsSink metrics = new DefaultMetricsSink();
+
+    /**
+     * @param environment API environment: dev | pre | pro
+     * @param apiKey Basic authorization key provided by dive.tv
+     * @param deviceId Unique identifier of the device
+     */
+    public PayloadSizeHarness(String environment, String apiKey, String deviceId) {
+        this.tokenStore = new TokenStore(new SharedPreferencesHelper(new InMemorySharedPreferences().asContext()));
+        this.tokenStore.storeApiKey(apiKey);
+        this.tokenStore.storeDeviceId(deviceId);
+        DefaultApi api = new DefaultApi(new ApiClient(environment));
+        this.restAPI = DefaultApiWrapper.wrap(api, new TokenManager(api, this.tokenStore, this.metrics));
+    }
+
+    public void card(final String cardId, final String locale, final RequestProfile profile) throws Exception {
+        call(new Call() {
+            @Override
+            public void execute(ClientCallback<Object> callback) throws ApiException {
+                restAPI.getCardAsync(tokenStore.getAccessTokenWithPrefix(), cardId, locale, profile.getProducts(),
+                        profile.getUserData(), profile.getImageSize(),
+                        new ApiCallbackImpl(Constants.GET_CARD_SERVICE_NAME, profile.getName(), callback, metrics));
+            }
+        });
+    }
+
+    public void cardVersion(final String cardId, final String version, final String locale, final RequestProfile profile) throws Exception {
+        call(new Call() {
+            @Override
+            public void execute(ClientCallback<Object> callback) throws ApiException {
+                restAPI.getCardVersionAsync(tokenStore.getAccessTokenWithPrefix(), cardId, version, locale,
+                        profile.getProducts(), profile.getUserData(), profile.getRelations(), profile.getImageSize(),
+                        new ApiCallbackImpl(Constants.GET_CARD_VERSION_SERVICE_NAME, profile.getName(), callback, metrics));
+            }
+        });
+    }
+
+    public void staticMovieScene(final String movieId, final Float timestamp, final String locale, final RequestProfile profile) throws Exception {
+        call(new Call() {
+            @Override
+            public void execute(ClientCallback<Object> callback) throws ApiException {
+                restAPI.getStaticMovieSceneAsync(tokenStore.getAccessTokenWithPrefix(), movieId, timestamp, locale,
+                        profile.getRelations(), profile.getImageSize(),
+                        new ApiCallbackImpl(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, profile.getName(), callback, metrics));
+            }
+        });
+    }
+
+    public void staticChannelScene(final String channelId, final String locale, final RequestProfile profile) throws Exception {
+        call(new Call() {
+            @Override
+            public void execute(ClientCallback<Object> callback) throws ApiException {
+                restAPI.getStaticChannelSceneAsync(tokenStore.getAccessTokenWithPrefix(), channelId, locale,
+                        profile.getRelations(), profile.getImageSize(),
+                        new ApiCallbackImpl(Constants.GET_STATIC_CHANNEL_SCENE_SERVICE_NAME, profile.getName(), callback, metrics));
+            }
+        });
+    }
+
+    /**
+     * @return payload sizes by service name, then by request profile name
+     */
+    public Map<String, Map<String, PayloadSizeStats.Snapshot>> getPayload() {
+        return metrics.snapshot().getPayload();
+    }
+
+    /**
+     * Arguments: apiKey, deviceId and cards (comma-separated ids, with an optional ":version") are required;
+     * movie and timestamp, channel, locale and environment (pro by default) are optional.
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new TreeMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals > 0)
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        if (!options.containsKey("apiKey") || !options.containsKey("deviceId") || !options.containsKey("cards")) {
+            System.err.println("Usage: apiKey=... deviceId=... cards=id[:version],... [movie=... timestamp=...] "
+                    + "[channel=...] [locale=...] [environment=dev|pre|pro]");
+            System.exit(1);
+        }
+        PayloadSizeHarness harness = new PayloadSizeHarness(value(options, "environment", Constants.DEFAULT_ENVIRONMENT),
+                options.get("apiKey"), options.get("deviceId"));
+        String locale = options.get("locale");
+        List<RequestProfile> profiles = Arrays.asList(RequestProfile.FULL_DETAIL, RequestProfile.SCENE_STRIP);
+        for (RequestProfile profile : profiles) {
+            for (String card : options.get("cards").split(",")) {
+                int colon = card.indexOf(':');
+                if (colon < 0)
+                    harness.card(card, locale, profile);
+                else
+                    harness.cardVersion(card.substring(0, colon), card.substring(colon + 1), locale, profile);
+            }
+            if (options.containsKey("movie"))
+                harness.staticMovieScene(options.get("movie"), Float.valueOf(value(options, "timestamp", "0")), locale, profile);
+            if (options.containsKey("channel"))
+                harness.staticChannelScene(options.get("channel"), locale, profile);
+        }
+        for (Map.Entry<String, Map<String, PayloadSizeStats.Snapshot>> service : harness.getPayload().entrySet()) {
+            PayloadSizeStats.Snapshot full = service.getValue().get(RequestProfile.FULL_DETAIL.getName());
+            for (RequestProfile profile : profiles) {
+                PayloadSizeStats.Snapshot stats = service.getValue().get(profile.getName());
+                if (stats == null)
+                    continue;
+                String ratio = full != null && full != stats && full.getMeanBytes() > 0
+                        ? String.format(" (%.0f%% of %s)", 100d * stats.getMeanBytes() / full.getMeanBytes(), RequestProfile.FULL_DETAIL)
+                        : "";
+                System.out.println(service.getKey() + " " + profile + ": " + stats + ratio);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static String value(Map<String, String> options, String key, String defaultValue) {
+        return options.containsKey(key) ? options.get(key) : defaultValue;
+    }
+
+    private interface Call {
+        void execute(ClientCallback<Object> callback) throws ApiException;
+    }
+
+    private static void call(Call call) throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<RestAPIError> error = new AtomicReference<>();
+        call.execute(new ClientCallback<Object>() {
+            @Override
+            public void onSuccess(Object result) {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(RestAPIError message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        if (!done.await(CALL_TIMEOUT, TimeUnit.SECONDS))
+            throw new IllegalStateException("No response in " + CALL_TIMEOUT + " seconds");
+        if (error.get() != null)
+            System.err.println("Call failed: " + error.get());
+    }
+}
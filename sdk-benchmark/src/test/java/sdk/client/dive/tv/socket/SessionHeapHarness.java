@@ -0,0 +1,180 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
+
+/**
+ * Heap used by a replayed stream session, with and without the intern pools of the SDK client: the bytes allocated
+ * while the events are parsed and delivered, and the heap retained by the delivered cards when the app keeps them
+ * all, e.g. as the history of the scenes of the movie.
+ * <p>
+ * The session is a stream journal, or by default a synthetic two-hour movie, whose scenes all repeat the cards of the
+ * fixtures: its card pool figures are an upper bound, a recorded session gives the real ones.
+ */
+public class SessionHeapHarness {
+
+    /**
+     * Heap measured over one replay.
+     */
+    public static class Result {
+        private final int events;
+        private final long allocated;
+        private final long retained;
+
+        private Result(int events, long allocated, long retained) {
+            this.events = events;
+            this.allocated = allocated;
+            this.retained = retained;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        /**
+         * @return bytes allocated by the replay thread, or -1 if the JVM cannot measure it
+         */
+        public long getAllocated() {
+            return allocated;
+        }
+
+        /**
+         * @return bytes of heap retained by the delivered cards
+         */
+        public long getRetained() {
+            return retained;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events, allocated %.1f MB, retained %.1f MB (%d bytes per event)", events,
+                    allocated / 1048576d, retained / 1048576d, events != 0 ? retained / events : 0);
+        }
+    }
+
+    private final Gson gson;
+    private final byte[] journal;
+
+    /**
+     * @param journal Stream journal of the session
+     */
+    public SessionHeapHarness(byte[] journal) {
+        this.gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        this.journal = journal;
+    }
+
+    /**
+     * Replays the session without waiting, keeping every delivered card list
+     *
+     * @param strings Whether the strings of the cards go through an intern pool
+     * @param cards Whether the cards go through an intern pool
+     */
+    public Result run(boolean strings, boolean cards) throws Exception {
+        StreamJournalPlayer player = new StreamJournalPlayer(gson);
+        player.getSocketManager().setInternPools(strings ? new InternPool<String>(Constants.INTERN_POOL_STRING_CAPACITY) : null,
+                cards ? new InternPool<Card>(Constants.INTERN_POOL_CARD_CAPACITY) : null);
+        RetainingListener listener = new RetainingListener();
+        long heapBefore = usedHeap();
+        long allocatedBefore = allocatedBytes();
+        int events = player.play(new StreamJournalReader(new ByteArrayInputStream(journal)), listener, 0);
+        long allocatedAfter = allocatedBytes();
+        long retained = usedHeap() - heapBefore;
+        if (listener.scenes.isEmpty())
+            throw new IllegalStateException("No scene delivered");
+        return new Result(events, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore, retained);
+    }
+
+    /**
+     * Arguments, all optional: journal=&lt;.journal file&gt; (a synthetic movie by default), scenes=&lt;number of
+     * 10-second scenes of the synthetic movie&gt;
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new TreeMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals > 0)
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        byte[] journal;
+        if (options.containsKey("journal")) {
+            journal = Files.readAllBytes(new File(options.get("journal")).toPath());
+        } else {
+            int scenes = Integer.parseInt(options.containsKey("scenes") ? options.get("scenes") : "720");
+            journal = StreamTimeline.synthetic("m1", scenes, 10000).toJournal();
+        }
+        SessionHeapHarness harness = new SessionHeapHarness(journal);
+        harness.run(false, false); // warm-up
+        harness.run(true, true);
+        System.out.println("Without intern pools: " + harness.run(false, false));
+        System.out.println("With the string pool: " + harness.run(true, false));
+        System.out.println("With the string and card pools: " + harness.run(true, true));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static class RetainingListener implements SocketListener {
+        private final List<List<Card>> scenes = new ArrayList<>();
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+            scenes.add(cards);
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+            scenes.add(cards);
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.benchmark.Fixtures;
+import sdk.client.dive.tv.socket.model.SceneDelta;
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Handling of the scene events by the SocketManager, from the socket.io payload to the SocketListener call, with the
+ * listener called directly on the event thread. With "lazyCards", the cards are delivered as SceneCards that are only
+ * read in full when accessed. "readCardsFromString" is the previous path, where the card array was turned back into a
+ * String and parsed again with a new TypeToken.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SocketManagerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean lazyCards;
+
+    private Gson gson;
+    private SocketManager socketManager;
+    private SocketListener listener;
+    private JSONObject sceneStart;
+    private JSONObject sceneUpdate;
+    private boolean updated;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws Exception {
+        listener = new ConsumingListener(blackhole);
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        socketManager = new SocketManager(null, gson);
+        socketManager.setLazyCards(lazyCards);
+        sceneStart = new JSONObject(Fixtures.read(Fixtures.SCENE_START));
+        sceneUpdate = new JSONObject(Fixtures.read(Fixtures.SCENE_UPDATE));
+    }
+
+    @Benchmark
+    public List<Card> readCards() throws Exception {
+        return socketManager.readCards(sceneStart);
+    }
+
+    @Benchmark
+    public List<Card> readCardsFromString() throws Exception {
+        Type listCard = new TypeToken<List<Card>>() {
+        }.getType();
+        return gson.fromJson(sceneStart.get(Constants.JSON_KEY_CARDS).toString(), listCard);
+    }
+
+    @Benchmark
+    public void sceneStart() {
+        socketManager.handleEvent(listener, Constants.EVENT_SCENE_START, sceneStart);
+    }
+
+    /**
+     * Scene updates alternating between two versions of the scene, so that each one has a delta with the previous
+     */
+    @Benchmark
+    public void sceneUpdateDelta() {
+        updated = !updated;
+        socketManager.handleEvent(listener, Constants.EVENT_SCENE_UPDATE,
+                updated ? sceneUpdate : sceneStart);
+    }
+
+    @Benchmark
+    public void sceneEnd() {
+        socketManager.handleEvent(listener, Constants.EVENT_SCENE_END);
+    }
+
+    private static class ConsumingListener implements SceneDeltaListener {
+        private final Blackhole blackhole;
+
+        private ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onSceneDeltaReceived(SceneDelta delta) {
+            blackhole.consume(delta);
+        }
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+            blackhole.consume(movieId);
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+            blackhole.consume(cards);
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+            blackhole.consume(cards);
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+            blackhole.consume(error);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
+
+/**
+ * Replay of a stream journal through the SocketManager, as fast as possible, from the journal bytes to the
+ * SocketListener calls. The journal is a recorded session given with -p journal=&lt;file&gt;, or by default the
+ * synthetic movie of StreamTimeline. With "pooled", the cards and their strings go through the intern pools of the SDK
+ * client; run with -prof gc to compare the allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamJournalBenchmark {
+
+    @Param("")
+    public String journal;
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private byte[] bytes;
+    private StreamJournalPlayer player;
+    private SocketListener listener;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws Exception {
+        bytes = journal.isEmpty() ? StreamTimeline.synthetic("m1", 100, 10000).toJournal()
+                : Files.readAllBytes(new File(journal).toPath());
+        player = new StreamJournalPlayer(new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson());
+        listener = new ConsumingListener(blackhole);
+        if (pooled) {
+            player.getSocketManager().setInternPools(new InternPool<String>(Constants.INTERN_POOL_STRING_CAPACITY),
+                    new InternPool<Card>(Constants.INTERN_POOL_CARD_CAPACITY));
+        }
+    }
+
+    @Benchmark
+    public int replay() throws IOException {
+        return player.play(new StreamJournalReader(new ByteArrayInputStream(bytes)), listener, 0);
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        StreamJournalReader reader = new StreamJournalReader(new ByteArrayInputStream(bytes));
+        int count = 0;
+        while (reader.next() != null)
+            count++;
+        return count;
+    }
+
+    private static class ConsumingListener implements SocketListener {
+        private final Blackhole blackhole;
+
+        private ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+            blackhole.consume(movieId);
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+            blackhole.consume(cards);
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+            blackhole.consume(cards);
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+            blackhole.consume(error);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sdk.client.dive.tv.metrics.DefaultMetricsSink;
+import sdk.client.dive.tv.metrics.LatencyHistogram;
+import sdk.client.dive.tv.metrics.MetricsSnapshot;
+import sdk.client.dive.tv.rest.TokenManager;
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.socket.model.StreamMessage;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InMemorySharedPreferences;
+import sdk.client.dive.tv.utils.SharedPreferencesHelper;
+import sdk.client.dive.tv.utils.TokenStore;
+
+/**
+ * End-to-end load test of the stream path: a StreamApi connects to a StreamServerStandIn, which replays a timeline,
+ * and the latency of each event is measured from the moment the server writes it to the moment the SocketListener
+ * receives it. "findMaxRate" replays the events at increasing constant rates to find the highest rate the SDK sustains.
+ * <p>
+ * Run with ./gradlew :sdk-benchmark:streamHarness [-PharnessArgs="timeline=path speed=20 dispatch=BACKGROUND"]
+ */
+public class StreamLatencyHarness {
+
+    private static final String MOVIE_ID = "m1";
+    private static final String ACCESS_TOKEN = "access-token";
+    private static final String NAMESPACE = Constants.VOD_ENDPOINT;
+
+    /**
+     * Latencies and counts of a timeline replay
+     */
+    public static class Result {
+        private final long sent;
+        private final long delivered;
+        private final long skipped;
+        private final long errors;
+        private final long elapsedNanos;
+        private final LatencyHistogram.Snapshot latency;
+        private final Map<String, LatencyHistogram.Snapshot> latencyByEvent;
+        private final MetricsSnapshot metrics;
+
+        Result(long sent, long delivered, long skipped, long errors, long elapsedNanos, LatencyHistogram.Snapshot latency,
+               Map<String, LatencyHistogram.Snapshot> latencyByEvent, MetricsSnapshot metrics) {
+            this.sent = sent;
+            this.delivered = delivered;
+            this.skipped = skipped;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.latencyByEvent = latencyByEvent;
+            this.metrics = metrics;
+        }
+
+        public long getSent() {
+            return sent;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * @return events sent but never delivered to the listener, e.g. scene updates conflated by the dispatcher
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return events delivered per second, from the first event sent to the last one delivered
+         */
+        public double getDeliveryRate() {
+            return elapsedNanos > 0 ? delivered * 1e9 / elapsedNanos : 0;
+        }
+
+        public LatencyHistogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        public Map<String, LatencyHistogram.Snapshot> getLatencyByEvent() {
+            return latencyByEvent;
+        }
+
+        /**
+         * @return the SDK metrics of the replay, with the parse and dispatch times of each event
+         */
+        public MetricsSnapshot getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format(
+                    "sent %d, delivered %d, skipped %d, errors %d, %.0f events/s%n  latency: %s%n", sent, delivered,
+                    skipped, errors, getDeliveryRate(), latency));
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : latencyByEvent.entrySet())
+                builder.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+            return builder.toString();
+        }
+    }
+
+    private final StreamServerStandIn server;
+    private final Gson gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+    private ListenerDispatcher.Mode dispatchMode = ListenerDispatcher.Mode.DIRECT;
+    private long timeoutMillis = 30000;
+
+    /**
+     * @param server Started stream server stand-in
+     */
+    public StreamLatencyHarness(StreamServerStandIn server) {
+        this.server = server;
+    }
+
+    /**
+     * @param dispatchMode Thread where the listener receives the events
+     */
+    public void setDispatchMode(ListenerDispatcher.Mode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+    }
+
+    /**
+     * @param timeoutMillis Maximum time waited for the last event after the end of the replay
+     */
+    public void setTimeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a VOD stream with the stand-in server and measures the latency of the events of the timeline. The replay
+     * ends when every event has been received, on the first stream error or on timeout.
+     *
+     * @param timeline Events to replay, ending with movie_end
+     * @param speed Replay speed, 1 for the pace of the timeline
+     */
+    public Result run(StreamTimeline timeline, double speed) throws InterruptedException {
+        final Recorder recorder = new Recorder(timeline.size());
+        server.setTimeline(timeline, speed);
+        server.setEventSink(recorder);
+        DefaultMetricsSink metrics = new DefaultMetricsSink();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        StreamApi streamApi = StreamApi.forHost(server.getHost(), tokenManager(), gson, scheduler);
+        streamApi.setMetricsSink(metrics);
+        streamApi.getListenerDispatcher().setMode(dispatchMode);
+        try {
+            streamApi.connect(new StreamMessage(MOVIE_ID, 0), recorder);
+            long timeout = (long) (timeline.getDuration() / speed) + timeoutMillis;
+            recorder.done.await(timeout, TimeUnit.MILLISECONDS);
+        } finally {
+            streamApi.disconnect();
+            scheduler.shutdown();
+            server.setEventSink(null);
+        }
+        return recorder.result(metrics.snapshot());
+    }
+
+    /**
+     * Replays the events of a timeline at constant rates, doubling (or halving) the rate until a rate is sustained and
+     * the next one is not, and then bisecting between them. A rate is sustained when every event is delivered, the
+     * delivery keeps up with the rate and the 99th percentile latency stays under the limit.
+     *
+     * @param timeline Events to repeat
+     * @param startRate First rate tried, in events per second
+     * @param stepMillis Duration of the replay at each rate
+     * @param latencyLimitMillis Maximum 99th percentile latency
+     * @return the highest rate sustained, in events per second, or 0 if not even 1 event per second was
+     */
+    public long findMaxRate(StreamTimeline timeline, long startRate, long stepMillis, long latencyLimitMillis)
+            throws InterruptedException {
+        long sustained = 0;
+        long failed = 0;
+        long rate = startRate;
+        while (true) {
+            Result result = runAtRate(timeline, rate, stepMillis);
+            boolean ok = result.getDelivered() == result.getSent() && result.getSkipped() == 0
+                    && result.getDeliveryRate() >= rate * 0.95
+                    && result.getLatency().getPercentileNanos(0.99) <= latencyLimitMillis * 1000000;
+            System.out.println(String.format("%d events/s: %s, %s", rate, ok ? "sustained" : "not sustained", result));
+            if (ok)
+                sustained = rate;
+            else
+                failed = rate;
+            if (failed == 0)
+                rate *= 2;
+            else if (sustained == 0)
+                rate /= 2;
+            else if (failed - sustained <= Math.max(sustained / 10, 1))
+                return sustained;
+            else
+                rate = (sustained + failed) / 2;
+            if (rate == 0)
+                return 0;
+        }
+    }
+
+    private Result runAtRate(StreamTimeline timeline, long rate, long stepMillis) throws InterruptedException {
+        int count = (int) Math.max(100, rate * stepMillis / 1000);
+        return run(timeline.uniform(count, 1000000 / rate), 1);
+    }
+
+    /**
+     * @return a token manager with a valid access token, accepted by the stand-in
+     */
+    static TokenManager tokenManager() {
+        SharedPreferencesHelper helper = new SharedPreferencesHelper(new InMemorySharedPreferences().asContext());
+        long expiration = System.currentTimeMillis() + 3600 * 1000L;
+        helper.storeToken(ACCESS_TOKEN, expiration, "refresh-token", expiration + Constants.MONTH_TO_MILLISECONDS);
+        return new TokenManager(null, new TokenStore(helper));
+    }
+
+    /**
+     * Matches each event received by the listener with the oldest event of the same name sent to the stream and not
+     * received yet. Events sent before it and never received are counted as skipped.
+     */
+    private static class Recorder implements SocketListener, StreamServerStandIn.EventSink {
+
+        private final int expected;
+        private final ConcurrentLinkedQueue<Sent> sent = new ConcurrentLinkedQueue<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, LatencyHistogram> latencyByEvent = new ConcurrentHashMap<>();
+        private final AtomicLong sentCount = new AtomicLong();
+        private final AtomicLong deliveredCount = new AtomicLong();
+        private final AtomicLong skippedCount = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile long firstSent;
+        private volatile long lastDelivered;
+
+        private Recorder(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void onEventSent(String namespace, String event, long nanoTime) {
+            if (!NAMESPACE.equals(namespace))
+                return;
+            if (sentCount.getAndIncrement() == 0)
+                firstSent = nanoTime;
+            sent.add(new Sent(event, nanoTime));
+        }
+
+        private void received(String event) {
+            long now = System.nanoTime();
+            Sent head;
+            while ((head = sent.poll()) != null && !head.event.equals(event))
+                skippedCount.incrementAndGet();
+            if (head == null)
+                return;
+            lastDelivered = now;
+            latency.record(now - head.nanoTime);
+            LatencyHistogram histogram = latencyByEvent.get(event);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                latencyByEvent.put(event, histogram);
+            }
+            histogram.record(now - head.nanoTime);
+            if (deliveredCount.incrementAndGet() + skippedCount.get() >= expected)
+                done.countDown();
+        }
+
+        private Result result(MetricsSnapshot metrics) {
+            Map<String, LatencyHistogram.Snapshot> byEvent = new TreeMap<>();
+            for (Map.Entry<String, LatencyHistogram> entry : latencyByEvent.entrySet())
+                byEvent.put(entry.getKey(), entry.getValue().snapshot());
+            long skipped = skippedCount.get() + sent.size();
+            return new Result(sentCount.get(), deliveredCount.get(), skipped, errorCount.get(),
+                    lastDelivered - firstSent, latency.snapshot(), byEvent, metrics);
+        }
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+            received(Constants.EVENT_MOVIE_START);
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+            received(Constants.EVENT_MOVIE_END);
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+            received(Constants.EVENT_SCENE_START);
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+            received(Constants.EVENT_SCENE_UPDATE);
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+            received(Constants.EVENT_SCENE_END);
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+            received(Constants.EVENT_PAUSE_START);
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+            received(Constants.EVENT_PAUSE_END);
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+            errorCount.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+    private static class Sent {
+        private final String event;
+        private final long nanoTime;
+
+        private Sent(String event, long nanoTime) {
+            this.event = event;
+            this.nanoTime = nanoTime;
+        }
+    }
+
+    /**
+     * Arguments, all optional: timeline=&lt;JSON timeline or .journal file&gt; (a synthetic movie by default), speed=&lt;replay
+     * speed&gt;, dispatch=DIRECT|BACKGROUND, startRate=&lt;events/s&gt;, stepMillis=&lt;ms&gt;,
+     * latencyLimitMillis=&lt;ms&gt;
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new TreeMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals > 0)
+                options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        StreamTimeline timeline = options.containsKey("timeline") ? timeline(new File(options.get("timeline")))
+                : StreamTimeline.synthetic(MOVIE_ID, 100, 10000);
+        StreamServerStandIn server = new StreamServerStandIn();
+        server.start();
+        try {
+            StreamLatencyHarness harness = new StreamLatencyHarness(server);
+            if (options.containsKey("dispatch"))
+                harness.setDispatchMode(ListenerDispatcher.Mode.valueOf(options.get("dispatch")));
+            double speed = Double.parseDouble(value(options, "speed", "100"));
+            Result result = harness.run(timeline, speed);
+            System.out.println(String.format("Timeline of %d events at %sx: %s%s", timeline.size(), speed, result,
+                    result.getMetrics()));
+            long maxRate = harness.findMaxRate(timeline, Long.parseLong(value(options, "startRate", "500")),
+                    Long.parseLong(value(options, "stepMillis", "2000")),
+                    Long.parseLong(value(options, "latencyLimitMillis", "100")));
+            System.out.println("Maximum sustained rate: " + maxRate + " events/s");
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * @param file Stream journal (.journal) or JSON timeline
+     */
+    private static StreamTimeline timeline(File file) throws Exception {
+        if (file.getName().endsWith(".journal")) {
+            StreamJournalReader reader = StreamJournalReader.open(file);
+            try {
+                return StreamTimeline.read(reader);
+            } finally {
+                reader.close();
+            }
+        }
+        return StreamTimeline.parse(new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8")));
+    }
+
+    private static String value(Map<String, String> options, String key, String defaultValue) {
+        return options.containsKey(key) ? options.get(key) : defaultValue;
+    }
+}
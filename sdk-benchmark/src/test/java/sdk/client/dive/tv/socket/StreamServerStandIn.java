@@ -0,0 +1,343 @@
+package sdk.client.dive.tv.socket;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import sdk.client.dive.tv.socket.model.StreamMessage;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Local stand-in of the stream server, speaking the socket.io protocol over the websocket transport. A stream joins
+ * its namespace, authenticates with any token (or the one set with "setToken") and then receives the events of the
+ * timeline, replayed at "speed" times their recorded pace on a thread of its own. The messages sent by the clients
+ * (vod_set, vod_pause...) are kept, and every event sent is reported to the EventSink, for latency measurements.
+ */
+public class StreamServerStandIn {
+
+    /**
+     * Receives the events sent to the streams, right before they are written to the socket
+     */
+    public interface EventSink {
+        void onEventSent(String namespace, String event, long nanoTime);
+    }
+
+    private static final long CLOSE_WRITE_GRACE = 100; // milliseconds
+    private static final String HANDSHAKE = "{\"sid\":\"%s\",\"upgrades\":[],\"pingInterval\":25000,\"pingTimeout\":60000}";
+
+    private final MockWebServer server = new MockWebServer();
+    private final Set<Connection> connections = Collections.newSetFromMap(new ConcurrentHashMap<Connection, Boolean>());
+    private final List<String> clientMessages = new CopyOnWriteArrayList<>();
+    private final Map<String, String> queries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> joins = new ConcurrentHashMap<>();
+
+    private volatile StreamTimeline timeline = new StreamTimeline(Collections.<StreamTimeline.Event>emptyList());
+    private volatile double speed = 1;
+    private volatile String token;
+    private volatile EventSink sink;
+
+    public StreamServerStandIn() {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().startsWith(Constants.SOCKET_PATH + "/")
+                        && "websocket".equalsIgnoreCase(request.getHeader("Upgrade")))
+                    return new MockResponse().withWebSocketUpgrade(new Connection());
+                return new MockResponse().setResponseCode(404);
+            }
+        });
+    }
+
+    public void start() throws IOException {
+        server.start();
+    }
+
+    /**
+     * Closes the open connections and stops the server
+     */
+    public void shutdown() throws IOException {
+        disconnectAll();
+        server.shutdown();
+    }
+
+    /**
+     * @return the host to connect to, e.g. with StreamApi.forHost
+     */
+    public String getHost() {
+        return "http://" + server.getHostName() + ":" + server.getPort();
+    }
+
+    /**
+     * @param timeline Events replayed to each stream once it is authenticated
+     * @param speed Replay speed, 1 for the pace of the timeline
+     */
+    public void setTimeline(StreamTimeline timeline, double speed) {
+        this.timeline = timeline;
+        this.speed = speed;
+    }
+
+    /**
+     * @param token the only token accepted by "authenticate", or null to accept any
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public void setEventSink(EventSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @return the events sent by the clients, as "namespace event payload"
+     */
+    public List<String> getClientMessages() {
+        return new ArrayList<>(clientMessages);
+    }
+
+    /**
+     * @return the query of the last stream that joined a namespace
+     */
+    public String getQuery(String namespace) {
+        return queries.get(namespace);
+    }
+
+    /**
+     * @return the number of times a stream joined a namespace and authenticated, including the joins after a
+     * reconnection
+     */
+    public int getJoinCount(String namespace) {
+        AtomicInteger count = joins.get(namespace);
+        return count != null ? count.get() : 0;
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Closes every open connection from the server side. The clients see a transport close and reconnect.
+     */
+    public void disconnectAll() {
+        for (Connection connection : connections)
+            connection.close();
+    }
+
+    private class Connection extends WebSocketListener {
+
+        private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+        private volatile WebSocket webSocket;
+        private volatile boolean closing;
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            this.webSocket = webSocket;
+            connections.add(this);
+            webSocket.send("0" + String.format(HANDSHAKE, UUID.randomUUID()));
+            webSocket.send("40");
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            if (text.equals("2")) {
+                webSocket.send("3");
+            } else if (text.equals("1")) {
+                webSocket.close(1000, null);
+            } else if (text.startsWith("4") && text.length() > 1) {
+                try {
+                    onPacket(text.charAt(1), text.substring(2));
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        /**
+         * @param type socket.io packet type
+         * @param packet the packet after its type, "[/namespace[?query],][ack id]payload"
+         */
+        private void onPacket(char type, String packet) throws JSONException {
+            String namespace = Constants.SOCKET_DEFAULT_NAMESPACE;
+            String payload = packet;
+            if (packet.startsWith("/")) {
+                int comma = packet.indexOf(',');
+                namespace = comma < 0 ? packet : packet.substring(0, comma);
+                payload = comma < 0 ? "" : packet.substring(comma + 1);
+            }
+            String query = null;
+            int question = namespace.indexOf('?');
+            if (question >= 0) {
+                query = namespace.substring(question + 1);
+                namespace = namespace.substring(0, question);
+            }
+            switch (type) {
+                case '0':
+                    if (query != null)
+                        queries.put(namespace, query);
+                    webSocket.send(Constants.SOCKET_DEFAULT_NAMESPACE.equals(namespace) ? "40" : "40" + namespace);
+                    break;
+                case '1':
+                    stopReplay(namespace);
+                    break;
+                case '2':
+                    int start = 0;
+                    while (start < payload.length() && Character.isDigit(payload.charAt(start)))
+                        start++;
+                    onEvent(namespace, new JSONArray(payload.substring(start)));
+                    break;
+            }
+        }
+
+        private AtomicInteger joinCount(String namespace) {
+            AtomicInteger count = joins.get(namespace);
+            if (count == null) {
+                AtomicInteger created = new AtomicInteger();
+                count = joins.putIfAbsent(namespace, created);
+                if (count == null)
+                    count = created;
+            }
+            return count;
+        }
+
+        private void onEvent(String namespace, JSONArray event) throws JSONException {
+            String name = event.getString(0);
+            if (StreamMessage.Type.authenticate.name().equals(name)) {
+                JSONObject credentials = event.optJSONObject(1);
+                String received = credentials != null ? credentials.optString(Constants.SOCKET_HANDSHAKE_KEY) : null;
+                if (token != null && !token.equals(received)) {
+                    send(namespace, Constants.EVENT_UNAUTHORIZED, new JSONObject().put("message", "invalid token").toString());
+                    return;
+                }
+                joinCount(namespace).incrementAndGet();
+                send(namespace, Constants.EVENT_AUTHENTICATED, null);
+                startReplay(namespace);
+            } else {
+                clientMessages.add(namespace + " " + name + (event.length() > 1 ? " " + event.get(1) : ""));
+            }
+        }
+
+        private boolean send(String namespace, String event, String data) {
+            return webSocket.send(frame(namespace, event, data));
+        }
+
+        private void startReplay(String namespace) {
+            stopReplay(namespace);
+            Replay replay = new Replay(this, namespace, timeline, speed);
+            replays.put(namespace, replay);
+            replay.start();
+        }
+
+        private void stopReplay(String namespace) {
+            Replay replay = replays.remove(namespace);
+            if (replay != null)
+                replay.interrupt();
+        }
+
+        private void close() {
+            closing = true;
+            WebSocket socket = this.webSocket;
+            if (socket != null)
+                socket.close(1001, null);
+            closed();
+        }
+
+        private void closed() {
+            connections.remove(this);
+            for (String namespace : replays.keySet())
+                stopReplay(namespace);
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            if (closing) {
+                // MockWebServer closes the streams right after this call, and the writer may still be finishing the
+                // close frame of "close" when the client answers: the shared okio buffers are corrupted otherwise
+                try {
+                    Thread.sleep(CLOSE_WRITE_GRACE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            webSocket.close(1000, null);
+            closed();
+        }
+
+        @Override
+        public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+            closed();
+        }
+    }
+
+    /**
+     * Sends the events of a timeline to a stream at their time. The frames are encoded before the replay starts, so
+     * that the send times are not delayed by the encoding.
+     */
+    private class Replay extends Thread {
+
+        private final Connection connection;
+        private final String namespace;
+        private final StreamTimeline timeline;
+        private final double speed;
+
+        private Replay(Connection connection, String namespace, StreamTimeline timeline, double speed) {
+            super("stream-stand-in-replay" + namespace);
+            setDaemon(true);
+            this.connection = connection;
+            this.namespace = namespace;
+            this.timeline = timeline;
+            this.speed = speed;
+        }
+
+        @Override
+        public void run() {
+            List<StreamTimeline.Event> events = timeline.getEvents();
+            String[] frames = new String[events.size()];
+            for (int i = 0; i < frames.length; i++)
+                frames[i] = frame(namespace, events.get(i).getName(), events.get(i).getData());
+            long startTime = System.nanoTime();
+            for (int i = 0; i < frames.length && !isInterrupted(); i++) {
+                long sendTime = startTime + (long) (events.get(i).getAtMicros() * 1000 / speed);
+                long wait;
+                while ((wait = sendTime - System.nanoTime()) > 0 && !isInterrupted())
+                    LockSupport.parkNanos(wait);
+                // reported before the frame is queued, so that the client cannot receive it before it is known
+                EventSink sink = StreamServerStandIn.this.sink;
+                if (sink != null)
+                    sink.onEventSent(namespace, events.get(i).getName(), System.nanoTime());
+                if (!connection.webSocket.send(frames[i]))
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Encodes a socket.io event packet, "42[/namespace,][event, payload]"
+     */
+    private static String frame(String namespace, String event, String data) {
+        StringBuilder builder = new StringBuilder(32 + (data != null ? data.length() : 0)).append("42");
+        if (!Constants.SOCKET_DEFAULT_NAMESPACE.equals(namespace))
+            builder.append(namespace).append(',');
+        builder.append('[').append(JSONObject.quote(event));
+        if (data != null)
+            builder.append(',').append(data);
+        return builder.append(']').toString();
+    }
+}
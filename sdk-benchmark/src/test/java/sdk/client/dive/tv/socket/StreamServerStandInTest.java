@@ -0,0 +1,196 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import sdk.client.dive.tv.benchmark.Fixtures;
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.socket.model.StreamMessage;
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class StreamServerStandInTest {
+
+    private final Gson gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private StreamServerStandIn server;
+    private StreamLatencyHarness harness;
+    private StreamApi streamApi;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StreamServerStandIn();
+        server.start();
+        harness = new StreamLatencyHarness(server);
+        harness.setTimeout(5000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (streamApi != null)
+            streamApi.disconnect();
+        scheduler.shutdown();
+        server.shutdown();
+    }
+
+    private StreamApi streamApi() {
+        streamApi = StreamApi.forHost(server.getHost(), StreamLatencyHarness.tokenManager(), gson, scheduler);
+        // no coalescing and short reconnection delays, so that the messages reach the server right away
+        streamApi.getSeekCoalescer().setWindow(0);
+        streamApi.getSocketManager().setReconnectionBackoff(50, 200, 0);
+        return streamApi;
+    }
+
+    private void await(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.isMet() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertTrue(condition.isMet());
+    }
+
+    private int count(String message) {
+        int count = 0;
+        for (String received : server.getClientMessages()) {
+            if (received.startsWith(message))
+                count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void run_scriptedTimelineIsDeliveredInOrder() throws Exception {
+        StreamTimeline timeline = StreamTimeline.parse(Fixtures.read(Fixtures.TIMELINE));
+        assertEquals(9, timeline.size());
+
+        StreamLatencyHarness.Result result = harness.run(timeline, 100);
+
+        assertEquals(9, result.getSent());
+        assertEquals(9, result.getDelivered());
+        assertEquals(0, result.getSkipped());
+        assertEquals(0, result.getErrors());
+        assertEquals(2, result.getLatencyByEvent().get(Constants.EVENT_SCENE_START).getCount());
+        assertEquals(2, result.getMetrics().getParse().get(Constants.EVENT_SCENE_START).getCount());
+        assertEquals("movie_id=m1&timestamp=0", server.getQuery(Constants.VOD_ENDPOINT));
+    }
+
+    @Test
+    public void run_invalidTokenIsUnauthorized() throws Exception {
+        server.setToken("other-token");
+
+        StreamLatencyHarness.Result result = harness.run(StreamTimeline.parse(Fixtures.read(Fixtures.TIMELINE)), 100);
+
+        assertEquals(0, result.getSent());
+        assertEquals(0, result.getDelivered());
+        assertEquals(1, result.getErrors());
+    }
+
+    @Test
+    public void disconnectAll_vodStreamResumesAtPosition() throws Exception {
+        final StreamApi streamApi = streamApi();
+        streamApi.connect(new StreamMessage("m1", 0), new IgnoringListener());
+        await(new Condition() {
+            @Override
+            public boolean isMet() {
+                return server.getJoinCount(Constants.VOD_ENDPOINT) == 1;
+            }
+        });
+        streamApi.sendMessage(new StreamMessage(120, StreamMessage.Type.vod_set));
+        final String vodSet = Constants.VOD_ENDPOINT + " " + StreamMessage.Type.vod_set.name();
+        await(new Condition() {
+            @Override
+            public boolean isMet() {
+                return count(vodSet) == 1;
+            }
+        });
+
+        server.disconnectAll();
+        await(new Condition() {
+            @Override
+            public boolean isMet() {
+                return count(vodSet) == 2;
+            }
+        });
+
+        ReconnectStats stats = streamApi.getSocketManager().getReconnectStats();
+        assertEquals(1, stats.getDisconnectCount());
+        assertEquals(1, stats.getReconnectCount());
+        assertEquals(2, server.getJoinCount(Constants.VOD_ENDPOINT));
+        assertEquals("movie_id=m1&timestamp=0", server.getQuery(Constants.VOD_ENDPOINT));
+        List<String> messages = server.getClientMessages();
+        String resumed = messages.get(messages.size() - 1);
+        assertTrue(resumed, resumed.startsWith(vodSet + " {\"timestamp\":12"));
+    }
+
+    @Test
+    public void disconnectAll_channelStreamRejoins() throws Exception {
+        StreamApi streamApi = streamApi();
+        streamApi.connect(new StreamMessage("ch1"), new IgnoringListener());
+        await(new Condition() {
+            @Override
+            public boolean isMet() {
+                return server.getJoinCount(Constants.TV_CHANNEL_ENDPOINT) == 1;
+            }
+        });
+
+        server.disconnectAll();
+        await(new Condition() {
+            @Override
+            public boolean isMet() {
+                return server.getJoinCount(Constants.TV_CHANNEL_ENDPOINT) == 2;
+            }
+        });
+
+        assertEquals(1, streamApi.getSocketManager().getReconnectStats().getReconnectCount());
+        assertEquals("channel_id=ch1", server.getQuery(Constants.TV_CHANNEL_ENDPOINT));
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    private interface Condition {
+        boolean isMet();
+    }
+
+    private static class IgnoringListener implements SocketListener {
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package sdk.client.dive.tv.socket;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import sdk.client.dive.tv.benchmark.Fixtures;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Stream server events of a movie, with their time from the start of the stream, to be replayed by the
+ * StreamServerStandIn. A timeline is scripted or recorded as a JSON array of events:
+ * <pre>
+ * [{"at": 0, "event": "movie_start", "data": {"movie_id": "m1"}},
+ *  {"at": 1200, "event": "scene_start", "fixture": "scene_start.json"},
+ *  {"at": 9000, "event": "scene_end"}]
+ * </pre>
+ * where "at" is in milliseconds and the payload is either inline ("data") or a file of src/test/resources/fixtures
+ * ("fixture"). A stream journal recorded with a StreamJournalWriter can be read as a timeline too.
+ */
+public class StreamTimeline {
+
+    public static class Event {
+        private final long atMicros;
+        private final String name;
+        private final String data;
+
+        /**
+         * @param at Time of the event from the start of the stream, in milliseconds
+         * @param name Event name, e.g. scene_start
+         * @param data JSON payload, or null if the event has none
+         */
+        public Event(long at, String name, String data) {
+            this(name, data, at * 1000);
+        }
+
+        private Event(String name, String data, long atMicros) {
+            this.atMicros = atMicros;
+            this.name = name;
+            this.data = data;
+        }
+
+        public long getAt() {
+            return atMicros / 1000;
+        }
+
+        /**
+         * @return time of the event from the start of the stream, in microseconds
+         */
+        public long getAtMicros() {
+            return atMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getData() {
+            return data;
+        }
+    }
+
+    private final List<Event> events;
+
+    public StreamTimeline(List<Event> events) {
+        this.events = Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return time of the last event, in milliseconds
+     */
+    public long getDuration() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).getAt();
+    }
+
+    /**
+     * Parses a scripted or recorded timeline
+     *
+     * @param json JSON array of events
+     * @return the timeline, sorted by time
+     */
+    public static StreamTimeline parse(String json) throws JSONException, IOException {
+        JSONArray array = new JSONArray(json);
+        List<Event> events = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            String data = null;
+            if (item.has("data"))
+                data = item.get("data").toString();
+            else if (item.has("fixture"))
+                data = new JSONObject(Fixtures.read(item.getString("fixture"))).toString();
+            events.add(new Event(item.getLong("at"), item.getString("event"), data));
+        }
+        sort(events);
+        return new StreamTimeline(events);
+    }
+
+    /**
+     * Reads the events recorded in a stream journal, e.g. a session recorded in the field
+     *
+     * @param reader Journal to read, not closed
+     * @return the timeline, with the receive times of the events
+     */
+    public static StreamTimeline read(StreamJournalReader reader) throws IOException {
+        List<Event> events = new ArrayList<>();
+        StreamJournalReader.Record record;
+        while ((record = reader.next()) != null)
+            events.add(new Event(record.getEvent(), record.getPayload(), record.getTimeMicros()));
+        return new StreamTimeline(events);
+    }
+
+    /**
+     * Writes the events to a stream journal, with their payloads but not their times, to replay them without waiting
+     *
+     * @return the journal bytes
+     */
+    public byte[] toJournal() throws JSONException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamJournalWriter writer = new StreamJournalWriter(out);
+        for (Event event : events) {
+            if (event.getData() == null)
+                writer.record(event.getName());
+            else
+                writer.record(event.getName(), new JSONObject(event.getData()));
+        }
+        writer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Builds the timeline of a movie with a scene every "sceneMillis": scene_start, a scene_update half-way and
+     * scene_end, with a pause every ten scenes
+     *
+     * @param movieId Movie ID sent in movie_start
+     * @param scenes Number of scenes
+     * @param sceneMillis Duration of each scene, in milliseconds
+     */
+    public static StreamTimeline synthetic(String movieId, int scenes, long sceneMillis) throws JSONException, IOException {
+        String sceneStart = new JSONObject(Fixtures.read(Fixtures.SCENE_START)).toString();
+        String sceneUpdate = new JSONObject(Fixtures.read(Fixtures.SCENE_UPDATE)).toString();
+        List<Event> events = new ArrayList<>();
+        long at = 0;
+        events.add(new Event(at, Constants.EVENT_MOVIE_START, new JSONObject().put(Constants.JSON_KEY_MOVIE_ID, movieId).toString()));
+        for (int i = 0; i < scenes; i++) {
+            events.add(new Event(at, Constants.EVENT_SCENE_START, sceneStart));
+            events.add(new Event(at + sceneMillis / 2, Constants.EVENT_SCENE_UPDATE, sceneUpdate));
+            events.add(new Event(at + sceneMillis - 1, Constants.EVENT_SCENE_END, null));
+            if (i % 10 == 9) {
+                events.add(new Event(at + sceneMillis - 1, Constants.EVENT_PAUSE_START, null));
+                events.add(new Event(at + sceneMillis, Constants.EVENT_PAUSE_END, null));
+            }
+            at += sceneMillis;
+        }
+        events.add(new Event(at, Constants.EVENT_MOVIE_END, null));
+        return new StreamTimeline(events);
+    }
+
+    /**
+     * Repeats the events of this timeline, in order, one every "intervalMicros", to replay them at a constant rate
+     *
+     * @param count Number of events of the new timeline
+     * @param intervalMicros Time between consecutive events, in microseconds
+     */
+    public StreamTimeline uniform(int count, long intervalMicros) {
+        List<Event> uniform = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Event event = events.get(i % events.size());
+            uniform.add(new Event(event.getName(), event.getData(), i * intervalMicros));
+        }
+        return new StreamTimeline(uniform);
+    }
+
+    private static void sort(List<Event> events) {
+        Collections.sort(events, new Comparator<Event>() {
+            @Override
+            public int compare(Event e1, Event e2) {
+                return e1.atMicros < e2.atMicros ? -1 : (e1.atMicros == e2.atMicros ? 0 : 1);
+            }
+        });
+    }
+}
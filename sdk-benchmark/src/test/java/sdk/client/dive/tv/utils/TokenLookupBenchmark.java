@@ -0,0 +1,49 @@
+package sdk.client.dive.tv.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token lookup done on every API call: shared preferences path vs in-memory token store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenLookupBenchmark {
+
+    private SharedPreferencesHelper helper;
+    private TokenStore store;
+
+    @Setup
+    public void setUp() {
+        helper = new SharedPreferencesHelper(new InMemorySharedPreferences().asContext());
+        long expiration = System.currentTimeMillis() + 3600 * 1000L;
+        helper.storeToken("access-token", expiration, "refresh-token", expiration + Constants.MONTH_TO_MILLISECONDS);
+        helper.storeApiKey("api-key");
+        helper.storeDeviceId("device-id");
+        store = new TokenStore(helper);
+    }
+
+    @Benchmark
+    public String sharedPreferences() {
+        return helper.getAccessTokenWithPrefix();
+    }
+
+    @Benchmark
+    public String tokenStore() {
+        return store.getAccessTokenWithPrefix();
+    }
+}
@@ -10,17 +10,49 @@ import com.touchvie.sdk.model.Card;
 import com.touchvie.sdk.model.ChannelStatus;
 import com.touchvie.sdk.model.MovieStatus;
 
+import java.io.File;
+import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
+import com.google.gson.reflect.TypeToken;
+
+import sdk.client.dive.tv.cache.CardCache;
+import sdk.client.dive.tv.cache.CardCacheKey;
+import sdk.client.dive.tv.cache.CardPrefetcher;
+import sdk.client.dive.tv.cache.ChannelGridCache;
+import sdk.client.dive.tv.cache.ImageCache;
+import sdk.client.dive.tv.cache.ImagePrefetcher;
+import sdk.client.dive.tv.cache.DiskCache;
+import sdk.client.dive.tv.cache.ResponseCache;
+import sdk.client.dive.tv.metrics.DefaultMetricsSink;
+import sdk.client.dive.tv.metrics.ForwardingMetricsSink;
+import sdk.client.dive.tv.metrics.MetricsSink;
+import sdk.client.dive.tv.metrics.MetricsSnapshot;
 import sdk.client.dive.tv.rest.DefaultApiWrapper;
+import sdk.client.dive.tv.rest.ReadyStatusBatcher;
+import sdk.client.dive.tv.rest.RequestProfile;
+import sdk.client.dive.tv.rest.TokenManager;
 import sdk.client.dive.tv.rest.callbacks.ApiCallbackImpl;
+import sdk.client.dive.tv.rest.callbacks.CardCacheCallback;
 import sdk.client.dive.tv.rest.callbacks.ClientCallback;
 import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.socket.ListenerDispatcher;
+import sdk.client.dive.tv.socket.ReconnectStats;
+import sdk.client.dive.tv.socket.SceneTimeline;
+import sdk.client.dive.tv.socket.SeekCoalescer;
 import sdk.client.dive.tv.socket.SocketListener;
 import sdk.client.dive.tv.socket.StreamApi;
+import sdk.client.dive.tv.socket.StreamHandle;
+import sdk.client.dive.tv.socket.StreamJournalPlayer;
+import sdk.client.dive.tv.socket.StreamJournalWriter;
 import sdk.client.dive.tv.socket.model.StreamMessage;
 import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
 import sdk.client.dive.tv.utils.SharedPreferencesHelper;
+import sdk.client.dive.tv.utils.TokenStore;
+import com.touchvie.sdk.model.TvEvent;
 import com.touchvie.sdk.model.TvGrid;
 
 
@@ -28,9 +60,24 @@ public class SdkClient {
 
     private static volatile SdkClient instance;
 
-    private SharedPreferencesHelper sharedPreferences;
+    private static final Type CARD_LIST_TYPE = new TypeToken<List<Card>>() {
+    }.getType();
+
+    private TokenStore tokenStore;
     private InterfaceApi restAPI;
     private StreamApi streamAPI;
+    private CardCache cardCache;
+    private ResponseCache responseCache;
+    private ChannelGridCache channelGridCache;
+    private ReadyStatusBatcher<MovieStatus> readyMoviesBatcher;
+    private ReadyStatusBatcher<ChannelStatus> readyChannelsBatcher;
+    private CardPrefetcher cardPrefetcher;
+    private ImageCache imageCache;
+    private ImagePrefetcher imagePrefetcher;
+    private volatile SceneTimeline sceneTimeline;
+    private InternPool<String> stringPool;
+    private volatile InternPool<Card> cardPool;
+    private final ForwardingMetricsSink metrics = new ForwardingMetricsSink(new DefaultMetricsSink());
 
     /**
      * @param context Instance of application context.
@@ -68,29 +115,193 @@ public class SdkClient {
     }
 
     private SdkClient(Context context, String environment, String apiKey, String deviceId) {
-        this.sharedPreferences = new SharedPreferencesHelper(context);
-        this.sharedPreferences.storeApiKey(apiKey);
-        this.sharedPreferences.storeDeviceId(deviceId);
+        this.tokenStore = new TokenStore(new SharedPreferencesHelper(context));
+        this.tokenStore.storeApiKey(apiKey);
+        this.tokenStore.storeDeviceId(deviceId);
         ApiClient apiClient = new ApiClient(environment);
         DefaultApi restAPI = new DefaultApi(apiClient);
-        this.restAPI = DefaultApiWrapper.wrap(restAPI, this.sharedPreferences);
-        this.streamAPI = new StreamApi(environment, this.sharedPreferences, restAPI, apiClient.getJSON().getGson());
+        TokenManager tokenManager = new TokenManager(restAPI, this.tokenStore, this.metrics);
+        this.restAPI = DefaultApiWrapper.wrap(restAPI, tokenManager);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.streamAPI = new StreamApi(environment, tokenManager, apiClient.getJSON().getGson(), scheduler);
+        this.streamAPI.setMetricsSink(this.metrics);
+        this.stringPool = new InternPool<>(Constants.INTERN_POOL_STRING_CAPACITY);
+        this.streamAPI.setInternPools(this.stringPool, null);
+        this.cardCache = new CardCache(Constants.CARD_CACHE_MAX_SIZE);
+        DiskCache diskCache = new DiskCache(new File(context.getCacheDir(), Constants.DISK_CACHE_DIRECTORY), Constants.DISK_CACHE_MAX_SIZE);
+        this.responseCache = new ResponseCache(diskCache, apiClient.getJSON().getGson(), scheduler);
+        this.responseCache.setStringPool(this.stringPool);
+        this.readyMoviesBatcher = new ReadyStatusBatcher<>(scheduler, new ReadyStatusBatcher.BatchCall<MovieStatus>() {
+            @Override
+            public void execute(List<String> ids, ClientCallback<List<MovieStatus>> callback) throws ApiException {
+                ApiCallbackImpl<List<MovieStatus>> apiCallback = new ApiCallbackImpl<>(Constants.GET_READY_MOVIES_SERVICE_NAME, callback, SdkClient.this.metrics);
+                SdkClient.this.restAPI.getReadyMoviesAsync(tokenStore.getAccessTokenWithPrefix(), ids, null, apiCallback);
+            }
+        }, new ReadyStatusBatcher.IdExtractor<MovieStatus>() {
+            @Override
+            public String getId(MovieStatus status) {
+                return status.getMovieId();
+            }
+        });
+        this.readyChannelsBatcher = new ReadyStatusBatcher<>(scheduler, new ReadyStatusBatcher.BatchCall<ChannelStatus>() {
+            @Override
+            public void execute(List<String> ids, ClientCallback<List<ChannelStatus>> callback) throws ApiException {
+                ApiCallbackImpl<List<ChannelStatus>> apiCallback = new ApiCallbackImpl<>(Constants.GET_READY_CHANNELS_SERVICE_NAME, callback, SdkClient.this.metrics);
+                SdkClient.this.restAPI.getReadyChannelsAsync(tokenStore.getAccessTokenWithPrefix(), ids, null, apiCallback);
+            }
+        }, new ReadyStatusBatcher.IdExtractor<ChannelStatus>() {
+            @Override
+            public String getId(ChannelStatus status) {
+                return status.getChannelId();
+            }
+        });
+        this.channelGridCache = new ChannelGridCache(scheduler, new ChannelGridCache.GridFetcher() {
+            @Override
+            public void fetch(String channelId, String acceptLanguage, ClientCallback<TvGrid> callback) {
+                try {
+                    ApiCallbackImpl<TvGrid> apiCallback = new ApiCallbackImpl(Constants.GET_CHANNEL_GRID_SERVICE_NAME, callback, SdkClient.this.metrics);
+                    SdkClient.this.restAPI.getChannelGridAsync(tokenStore.getAccessTokenWithPrefix(), channelId, acceptLanguage, null,
+                            apiCallback);
+                } catch (ApiException e) {
+                    e.printStackTrace();
+                    callback.onFailure(RestAPIError.INTERNAL_ERROR);
+                }
+            }
+        }, Constants.CHANNEL_GRID_CACHE_MAX_ENTRIES);
+        this.cardPrefetcher = new CardPrefetcher(new CardPrefetcher.CardFetcher() {
+            @Override
+            public boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
+                // looked up without counting, so that prefetches do not skew the card cache hit rate
+                CardCacheKey key = new CardCacheKey(cardId, version, acceptLanguage, RequestProfile.FULL_DETAIL.getName());
+                if (cardCache.contains(key))
+                    return false;
+                loadCardVersion(key, RequestProfile.FULL_DETAIL, callback);
+                return true;
+            }
+        });
+        this.streamAPI.addSceneObserver(this.cardPrefetcher);
+        DiskCache imageDiskCache = new DiskCache(new File(context.getCacheDir(), Constants.IMAGE_DISK_CACHE_DIRECTORY), Constants.IMAGE_DISK_CACHE_MAX_SIZE);
+        this.imageCache = new ImageCache(imageDiskCache, Constants.IMAGE_MEMORY_CACHE_MAX_SIZE);
+        this.imagePrefetcher = new ImagePrefetcher(this.imageCache);
+        this.streamAPI.addSceneObserver(this.imagePrefetcher);
+    }
+
+    /**
+     * Returns the in-memory cache used by "getCard" and "getCardVersion", exposing its hit, miss and eviction counters
+     *
+     * @return the card cache
+     */
+    public CardCache getCardCache() {
+        return this.cardCache;
+    }
+
+    /**
+     * Returns the persistent cache of card and scene responses, which allows to tune the time to live of each service.
+     * Responses carrying card user data are keyed by device ID, so that they are not served to another user.
+     *
+     * @return the response cache
+     */
+    public ResponseCache getResponseCache() {
+        return this.responseCache;
+    }
+
+    /**
+     * Returns the in-memory cache used by "getChannelGrid" and "getChannelOnAir", which refreshes the grids just before
+     * the end of their event on air
+     *
+     * @return the channel grid cache
+     */
+    public ChannelGridCache getChannelGridCache() {
+        return this.channelGridCache;
+    }
+
+    /**
+     * Removes every cached version of a card, whose user data is no longer valid
+     *
+     * @param cardId Unique identifier of card
+     */
+    private void invalidateCard(final String cardId) {
+        this.cardCache.invalidate(cardId);
+        InternPool<Card> cardPool = this.cardPool;
+        if (cardPool != null) {
+            cardPool.remove(new InternPool.KeyFilter() {
+                @Override
+                public boolean matches(Object key) {
+                    return cardId.equals(((CardCacheKey) key).getCardId());
+                }
+            });
+        }
+        this.responseCache.invalidate(ResponseCache.key(Constants.GET_CARD_SERVICE_NAME, cardId) + "|");
+        this.responseCache.invalidate(ResponseCache.key(Constants.GET_CARD_VERSION_SERVICE_NAME, cardId) + "|");
+    }
+
+    /**
+     * Returns the prefetcher of the cards of the current stream scene, which fills the card cache used by
+     * "getCardVersion" and allows to tune its concurrency, card type priority and locale. It is disabled by default,
+     * since it requests the detail of every scene card
+     *
+     * @return the card prefetcher
+     */
+    public CardPrefetcher getCardPrefetcher() {
+        return this.cardPrefetcher;
+    }
+
+    /**
+     * Returns the cache of card image bytes, exposing its hit rate and saved bytes
+     *
+     * @return the image cache
+     */
+    public ImageCache getImageCache() {
+        return this.imageCache;
+    }
+
+    /**
+     * Returns the prefetcher of the thumbnails of the cards of the current stream scene. It is disabled by default,
+     * since it downloads the thumbnail of every scene card
+     *
+     * @return the image prefetcher
+     */
+    public ImagePrefetcher getImagePrefetcher() {
+        return this.imagePrefetcher;
+    }
+
+    /**
+     * Retrieves the bytes of a card image (ImageData thumb or full URL), from the image cache when possible
+     *
+     * @param url Image URL
+     * @param callback Instance of client callback. "onSuccess" method expects to receive the image bytes
+     */
+    public void getImage(String url, ClientCallback<byte[]> callback) {
+        this.imageCache.get(url, callback);
+    }
+
+    /**
+     * Returns the batcher of "getReadyMovies" requests, which allows to tune its batch window
+     *
+     * @return the ready movies batcher
+     */
+    public ReadyStatusBatcher<MovieStatus> getReadyMoviesBatcher() {
+        return this.readyMoviesBatcher;
+    }
+
+    /**
+     * Returns the batcher of "getReadyChannels" requests, which allows to tune its batch window
+     *
+     * @return the ready channels batcher
+     */
+    public ReadyStatusBatcher<ChannelStatus> getReadyChannelsBatcher() {
+        return this.readyChannelsBatcher;
     }
 
     /**
-     * Checks whether a list of client movie identifiers (Video On Demand) are available to be synchronized using the Dive API
+     * Checks whether a list of client movie identifiers (Video On Demand) are available to be synchronized using the Dive API.
+     * Requests made within the batch window are sent together, see {@link #getReadyMoviesBatcher()}
      *
      * @param clientMovieIds List of client movie IDs
      * @param callback Instance of client callback. "onSuccess" method expects to receive a list of movie status
      */
     public void getReadyMovies(List<String> clientMovieIds, ClientCallback<List<MovieStatus>> callback) {
-        try {
-            ApiCallbackImpl<List<MovieStatus>> apiCallback = new ApiCallbackImpl(Constants.GET_READY_MOVIES_SERVICE_NAME, callback);
-            this.restAPI.getReadyMoviesAsync(sharedPreferences.getAccessTokenWithPrefix(), clientMovieIds, null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
-        }
+        this.readyMoviesBatcher.request(clientMovieIds, callback);
     }
 
     /**
@@ -106,7 +317,8 @@ public class SdkClient {
     }
 
     /**
-     * Client message, sets a new playback timestamp for the current VOD contextual stream.
+     * Client message, sets a new playback timestamp for the current VOD contextual stream. Calls made within the seek
+     * coalesce window are sent as a single message with the last timestamp, see {@link #getSeekCoalescer()}
      *
      * @param timestamp New playback timestamp, in seconds
      */
@@ -115,6 +327,16 @@ public class SdkClient {
         this.streamAPI.sendMessage(message);
     }
 
+    /**
+     * Returns the coalescer of "vodStreamSetMessage" and "vodStreamContinueMessage" calls, which allows to tune its
+     * window and exposes the number of suppressed messages
+     *
+     * @return the seek coalescer
+     */
+    public SeekCoalescer getSeekCoalescer() {
+        return this.streamAPI.getSeekCoalescer();
+    }
+
     /**
      * Client message, signals a VOD playback resume after a pause.
      *
@@ -143,19 +365,14 @@ public class SdkClient {
     }
 
     /**
-     * Checks if a list of client channel identifiers are currently broadcasting synchronizable content
+     * Checks if a list of client channel identifiers are currently broadcasting synchronizable content.
+     * Requests made within the batch window are sent together, see {@link #getReadyChannelsBatcher()}
      *
      * @param channelId List of client channel IDs
      * @param callback Instance of client callback. "onSuccess" method expects to receive a list of channel status
      */
     public void getReadyChannels(List<String> channelId, final ClientCallback<List<ChannelStatus>> callback){
-        try {
-            ApiCallbackImpl<List<ChannelStatus>> apiCallback = new ApiCallbackImpl(Constants.GET_READY_CHANNELS_SERVICE_NAME,callback);
-            this.restAPI.getReadyChannelsAsync(sharedPreferences.getAccessTokenWithPrefix(), channelId, null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
-        }
+        this.readyChannelsBatcher.request(channelId, callback);
     }
 
     /**
@@ -169,6 +386,186 @@ public class SdkClient {
         this.streamAPI.connect(message, listener);
     }
 
+    /**
+     * Opens a VOD stream alongside the one opened by "vodStreamConnect" or "tvChannelStreamConnect", sharing its
+     * connection with the stream API server. Messages are sent and the stream is closed through the returned handle.
+     *
+     * @param movieId Movie ID for the requested VOD
+     * @param timestamp Current playback timestamp in seconds
+     * @param listener Instance of socket listener of the new stream
+     * @return the new stream
+     */
+    public StreamHandle openVodStream(String movieId, int timestamp, SocketListener listener) {
+        return this.streamAPI.openStream(new StreamMessage(movieId, timestamp), listener);
+    }
+
+    /**
+     * Opens a TV channel stream alongside the other open streams, e.g. for a picture-in-picture channel, sharing their
+     * connection with the stream API server. Messages are sent and the stream is closed through the returned handle.
+     *
+     * @param channelId Channel ID for the requested linear TV channel
+     * @param listener Instance of socket listener of the new stream
+     * @return the new stream
+     */
+    public StreamHandle openTvChannelStream(String channelId, SocketListener listener) {
+        return this.streamAPI.openStream(new StreamMessage(channelId), listener);
+    }
+
+    /**
+     * Sets the thread where the SocketListener events are delivered: the socket.io event thread (default), a single SDK
+     * thread or the Android main thread. When events are queued, superseded scene updates are dropped before delivery.
+     *
+     * @param mode the dispatch mode
+     */
+    public void setStreamDispatchMode(ListenerDispatcher.Mode mode) {
+        this.streamAPI.getListenerDispatcher().setMode(mode);
+    }
+
+    /**
+     * Returns the dispatcher of the SocketListener events, exposing its queue depth and dropped events
+     *
+     * @return the listener dispatcher
+     */
+    public ListenerDispatcher getStreamDispatcher() {
+        return this.streamAPI.getListenerDispatcher();
+    }
+
+    /**
+     * Enables or disables the local resolution of VOD seeks. When enabled, the scenes observed on VOD streams and the
+     * ones returned by "getStaticMovieScene" are kept in a scene timeline, and "vodStreamSetMessage" delivers the scene
+     * of the new timestamp immediately when it is known, while the stream catches up.
+     *
+     * @param enabled true to enable the scene timeline
+     */
+    public void setSceneTimelineEnabled(boolean enabled) {
+        if (enabled && this.sceneTimeline == null)
+            this.sceneTimeline = new SceneTimeline(Constants.SCENE_TIMELINE_MAX_MOVIES);
+        else if (!enabled)
+            this.sceneTimeline = null;
+        this.streamAPI.setSceneTimeline(this.sceneTimeline);
+    }
+
+    /**
+     * Enables or disables lightweight scene cards. When enabled, the cards of the scene events are delivered as
+     * SceneCards, which read the card header (id, type, title, image...) with the event and the info, products,
+     * relations and user data of the card only when they are accessed, saving their parsing for the cards that are
+     * only shown as a title and a thumbnail.
+     *
+     * @param enabled true to deliver SceneCards
+     */
+    public void setLazySceneCardsEnabled(boolean enabled) {
+        this.streamAPI.setLazyCards(enabled);
+    }
+
+    /**
+     * Enables or disables the sharing of the cards repeated by the scene events, e.g. by the scene_update events of a
+     * scene or by the scenes of a movie. When enabled, the streams deliver the same Card instance for each id, version
+     * and locale, so the delivered cards must not be modified, and the user data of a card is the one of its first
+     * event until its likes are changed with "postLikes" or "deleteLikes". It is disabled by default.
+     *
+     * @param enabled true to share the cards of the scene events
+     */
+    public void setCardInterningEnabled(boolean enabled) {
+        if (enabled && this.cardPool == null)
+            this.cardPool = new InternPool<>(Constants.INTERN_POOL_CARD_CAPACITY);
+        else if (!enabled)
+            this.cardPool = null;
+        this.streamAPI.setInternPools(this.stringPool, this.cardPool);
+    }
+
+    /**
+     * Returns the scene timeline used to resolve VOD seeks locally
+     *
+     * @return the scene timeline, or null if it is not enabled
+     */
+    public SceneTimeline getSceneTimeline() {
+        return this.sceneTimeline;
+    }
+
+    /**
+     * Sets the exponential backoff between the reconnection attempts of the stream socket, applied to the streams
+     * connected afterwards. After a reconnection the stream is resumed at the current playback position.
+     *
+     * @param delay Initial delay in milliseconds, doubled on each attempt
+     * @param delayMax Maximum delay in milliseconds
+     * @param randomizationFactor Jitter applied to each delay, between 0 and 1
+     */
+    public void setStreamReconnectionBackoff(long delay, long delayMax, double randomizationFactor) {
+        this.streamAPI.getSocketManager().setReconnectionBackoff(delay, delayMax, randomizationFactor);
+    }
+
+    /**
+     * Returns the counters of stream disconnections and reconnections, with the time to the first scene received
+     * after each reconnection
+     *
+     * @return the reconnection stats
+     */
+    public ReconnectStats getStreamReconnectStats() {
+        return this.streamAPI.getSocketManager().getReconnectStats();
+    }
+
+    /**
+     * Replaces the sink of the SDK measurements: REST call latencies and errors by service, access token requests,
+     * stream socket connection and authentication durations, reconnections, and stream event parse and dispatch times.
+     * By default they are collected by a DefaultMetricsSink, see {@link #getMetricsSnapshot()}
+     *
+     * @param sink the metrics sink, or null to stop collecting metrics
+     */
+    public void setMetricsSink(MetricsSink sink) {
+        this.metrics.setDelegate(sink);
+    }
+
+    public MetricsSink getMetricsSink() {
+        return this.metrics.getDelegate();
+    }
+
+    /**
+     * Returns a copy of the metrics collected by the default metrics sink
+     *
+     * @return the metrics snapshot, or null if the default sink has been replaced
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        MetricsSink sink = this.metrics.getDelegate();
+        return sink instanceof DefaultMetricsSink ? ((DefaultMetricsSink) sink).snapshot() : null;
+    }
+
+    /**
+     * Records the events of the VOD or TV channel stream into a journal, e.g. to reproduce a performance problem
+     * later. The events received from now on are recorded until the journal is replaced or set to null; closing the
+     * journal is up to the caller.
+     *
+     * @param journal the journal writer, or null to stop recording
+     */
+    public void setStreamJournal(StreamJournalWriter journal) {
+        this.streamAPI.setJournal(journal);
+    }
+
+    /**
+     * Creates a player of stream journals, which replays the recorded events into a SocketListener without a
+     * connection, e.g. for an offline demo
+     *
+     * @return the journal player
+     */
+    public StreamJournalPlayer createStreamJournalPlayer() {
+        return this.streamAPI.createJournalPlayer();
+    }
+
+    /**
+     * Opens the connection with the stream API server ahead of time, e.g. when the player screen is shown, and
+     * refreshes the access token if needed. The next "vodStreamConnect" or "tvChannelStreamConnect" reuses that
+     * connection and only authenticates its stream; it is kept open across channel zaps until it is released.
+     */
+    public void streamPrewarm() {
+        this.streamAPI.prewarm();
+    }
+
+    /**
+     * Closes every stream and the connection opened by "streamPrewarm"
+     */
+    public void streamRelease() {
+        this.streamAPI.releasePrewarmed();
+    }
+
     /**
      * Disconnect method that closes the open socket with stream API server
      */
@@ -177,24 +574,53 @@ public class SdkClient {
     }
 
     /**
-     * Retrieves a full card detail, without relations or context
+     * Retrieves a full card detail, without relations or context. Cards already in the card cache are returned
+     * immediately on the calling thread, before this method returns; other cards are returned asynchronously, on a
+     * background thread, once read from the disk cache or the network.
      *
      * @param cardId Unique identifier of card
      * @param acceptLanguage Client locale, as language-country
      * @param callback Instance of client callback. "onSuccess" method expects to receive a card
      */
-    public void getCard(String cardId, String acceptLanguage, final ClientCallback<Card> callback) {
-        try {
-            ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CARD_SERVICE_NAME, callback);
-            this.restAPI.getCardAsync(sharedPreferences.getAccessTokenWithPrefix(), cardId, acceptLanguage, null,null, null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
+    public void getCard(String cardId, String acceptLanguage, ClientCallback<Card> callback) {
+        getCard(cardId, acceptLanguage, RequestProfile.FULL_DETAIL, callback);
+    }
+
+    /**
+     * Retrieves a card detail, without relations or context, with the products, user data and image size of a request
+     * profile. Cards already in the card cache are returned immediately on the calling thread, before this method
+     * returns; other cards are returned asynchronously, on a background thread, once read from the disk cache or the
+     * network.
+     *
+     * @param cardId Unique identifier of card
+     * @param acceptLanguage Client locale, as language-country
+     * @param profile Request profile, e.g. "RequestProfile.SCENE_STRIP" for list views
+     * @param callback Instance of client callback. "onSuccess" method expects to receive a card
+     */
+    public void getCard(final String cardId, final String acceptLanguage, final RequestProfile profile, final ClientCallback<Card> callback) {
+        CardCacheKey key = new CardCacheKey(cardId, null, acceptLanguage, profile.getName());
+        Card cached = this.cardCache.get(key);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
         }
+        String diskKey = ResponseCache.key(Constants.GET_CARD_SERVICE_NAME, cardId, acceptLanguage, profile.getName(),
+                tokenStore.getDeviceId());
+        this.responseCache.get(Constants.GET_CARD_SERVICE_NAME, diskKey, Card.class, new CardCacheCallback(this.cardCache, key, callback),
+                new ResponseCache.NetworkCall<Card>() {
+                    @Override
+                    public void execute(ClientCallback<Card> cacheCallback) throws ApiException {
+                        ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CARD_SERVICE_NAME, profile.getName(), cacheCallback, metrics);
+                        restAPI.getCardAsync(tokenStore.getAccessTokenWithPrefix(), cardId, acceptLanguage, profile.getProducts(),
+                                profile.getUserData(), profile.getImageSize(), apiCallback);
+                    }
+                }, new CardCacheCallback(this.cardCache, key));
     }
 
     /**
-     * Retrieves a full card detail, and its relations to other cards in a given context (card version)
+     * Retrieves a full card detail, and its relations to other cards in a given context (card version). Cards already in
+     * the card cache are returned immediately on the calling thread, before this method returns; other cards are
+     * returned asynchronously, on a background thread, once read from the disk cache or the network.
      *
      * @param cardId Unique identifier of card
      * @param version Version identifier, indicates the context where the card is being requested
@@ -202,13 +628,50 @@ public class SdkClient {
      * @param callback Instance of client callback. "onSuccess" method expects to receive a card
      */
     public void getCardVersion(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
-        try {
-            ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CARD_VERSION_SERVICE_NAME, callback);
-            this.restAPI.getCardVersionAsync(sharedPreferences.getAccessTokenWithPrefix(), cardId, version, acceptLanguage, null, null, null, null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
+        getCardVersion(cardId, version, acceptLanguage, RequestProfile.FULL_DETAIL, callback);
+    }
+
+    /**
+     * Retrieves a card detail in a given context (card version), with the products, user data, relations and image
+     * size of a request profile. Cards already in the card cache are returned immediately on the calling thread, before
+     * this method returns; other cards are returned asynchronously, on a background thread, once read from the disk
+     * cache or the network.
+     *
+     * @param cardId Unique identifier of card
+     * @param version Version identifier, indicates the context where the card is being requested
+     * @param acceptLanguage Client locale, as language-country
+     * @param profile Request profile, e.g. "RequestProfile.SCENE_STRIP" for list views
+     * @param callback Instance of client callback. "onSuccess" method expects to receive a card
+     */
+    public void getCardVersion(String cardId, String version, String acceptLanguage, RequestProfile profile,
+                               ClientCallback<Card> callback) {
+        CardCacheKey key = new CardCacheKey(cardId, version, acceptLanguage, profile.getName());
+        Card cached = this.cardCache.get(key);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
         }
+        loadCardVersion(key, profile, callback);
+    }
+
+    /**
+     * Retrieves a card version from the disk cache or the network, storing it in the card cache
+     */
+    private void loadCardVersion(CardCacheKey key, final RequestProfile profile, ClientCallback<Card> callback) {
+        final String cardId = key.getCardId();
+        final String version = key.getVersion();
+        final String acceptLanguage = key.getLocale();
+        String diskKey = ResponseCache.key(Constants.GET_CARD_VERSION_SERVICE_NAME, cardId, version, acceptLanguage, profile.getName(),
+                tokenStore.getDeviceId());
+        this.responseCache.get(Constants.GET_CARD_VERSION_SERVICE_NAME, diskKey, Card.class, new CardCacheCallback(this.cardCache, key, callback),
+                new ResponseCache.NetworkCall<Card>() {
+                    @Override
+                    public void execute(ClientCallback<Card> cacheCallback) throws ApiException {
+                        ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CARD_VERSION_SERVICE_NAME, profile.getName(), cacheCallback, metrics);
+                        restAPI.getCardVersionAsync(tokenStore.getAccessTokenWithPrefix(), cardId, version, acceptLanguage,
+                                profile.getProducts(), profile.getUserData(), profile.getRelations(), profile.getImageSize(), apiCallback);
+                    }
+                }, new CardCacheCallback(this.cardCache, key));
     }
 
     /**
@@ -221,8 +684,8 @@ public class SdkClient {
      */
     public void getlikes(String acceptLanguage, String paginateKey, String size, ClientCallback<List<Card>> callback) {
         try {
-            ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_LIKES_SERVICE_NAME, callback);
-            this.restAPI.getLikesAsync(sharedPreferences.getAccessTokenWithPrefix(), acceptLanguage, null, paginateKey,
+            ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_LIKES_SERVICE_NAME, callback, this.metrics);
+            this.restAPI.getLikesAsync(tokenStore.getAccessTokenWithPrefix(), acceptLanguage, null, paginateKey,
                     size, apiCallback);
         } catch (ApiException e) {
             e.printStackTrace();
@@ -237,9 +700,10 @@ public class SdkClient {
      * @param callback Instance of client callback. "onSuccess" method expects to receive a "java.lang.Void" object
      */
     public void postLikes(String cardId, ClientCallback<Void> callback) {
+        invalidateCard(cardId);
         try {
-            ApiCallbackImpl<Void> apiCallback = new ApiCallbackImpl(Constants.ADD_LIKE_SERVICE_NAME, callback);
-            this.restAPI.postLikesAsync(sharedPreferences.getAccessTokenWithPrefix(), cardId, null,
+            ApiCallbackImpl<Void> apiCallback = new ApiCallbackImpl(Constants.ADD_LIKE_SERVICE_NAME, callback, this.metrics);
+            this.restAPI.postLikesAsync(tokenStore.getAccessTokenWithPrefix(), cardId, null,
             apiCallback);
         } catch (ApiException e) {
             e.printStackTrace();
@@ -254,9 +718,10 @@ public class SdkClient {
      * @param callback Instance of client callback. "onSuccess" method expects to receive a "java.lang.Void" object
      */
     public void deleteLikes(String cardId, ClientCallback<Void> callback) {
+        invalidateCard(cardId);
         try {
-            ApiCallbackImpl<Void> apiCallback = new ApiCallbackImpl(Constants.DELETE_LIKE_SERVICE_NAME, callback);
-            this.restAPI.deleteLikesAsync(sharedPreferences.getAccessTokenWithPrefix(), cardId, null, apiCallback);
+            ApiCallbackImpl<Void> apiCallback = new ApiCallbackImpl(Constants.DELETE_LIKE_SERVICE_NAME, callback, this.metrics);
+            this.restAPI.deleteLikesAsync(tokenStore.getAccessTokenWithPrefix(), cardId, null, apiCallback);
         } catch (ApiException e) {
             e.printStackTrace();
             callback.onFailure(RestAPIError.INTERNAL_ERROR);
@@ -270,15 +735,16 @@ public class SdkClient {
      * @param acceptLanguage Client locale, as language-country
      * @param callback Instance of client callback. "onSuccess" method expects to receive a card
      */
-    public void getCatalogMovie(String clientMovieId, String acceptLanguage, ClientCallback<Card> callback) {
-        try {
-            ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CATALOG_MOVIE_SERVICE_NAME, callback);
-            this.restAPI.getCatalogMovieAsync(sharedPreferences.getAccessTokenWithPrefix(), clientMovieId, acceptLanguage,
-                    null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
-        }
+    public void getCatalogMovie(final String clientMovieId, final String acceptLanguage, ClientCallback<Card> callback) {
+        String key = ResponseCache.key(Constants.GET_CATALOG_MOVIE_SERVICE_NAME, clientMovieId, acceptLanguage, tokenStore.getDeviceId());
+        this.responseCache.get(Constants.GET_CATALOG_MOVIE_SERVICE_NAME, key, Card.class, callback, new ResponseCache.NetworkCall<Card>() {
+            @Override
+            public void execute(ClientCallback<Card> cacheCallback) throws ApiException {
+                ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CATALOG_MOVIE_SERVICE_NAME, cacheCallback, metrics);
+                restAPI.getCatalogMovieAsync(tokenStore.getAccessTokenWithPrefix(), clientMovieId, acceptLanguage,
+                        null, apiCallback);
+            }
+        });
     }
 
     /**
@@ -290,32 +756,72 @@ public class SdkClient {
      * @param callback Instance of client callback. "onSuccess" method expects to receive a list of cards
      */
     public void getStaticMovieScene(String clientMovieId, Float timestamp, String acceptLanguage, ClientCallback<List<Card>> callback) {
-        try {
-            ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, callback);
-            this.restAPI.getStaticMovieSceneAsync(sharedPreferences.getAccessTokenWithPrefix(), clientMovieId, timestamp,
-                    acceptLanguage, null, null, apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
+        getStaticMovieScene(clientMovieId, timestamp, acceptLanguage, RequestProfile.FULL_DETAIL, callback);
+    }
+
+    /**
+     * Retrieves the current list of cards related to the given movie scene, with the relations and image size of a
+     * request profile. Only the scenes of the full detail profile are kept in the scene timeline.
+     *
+     * @param clientMovieId Client movie ID being played
+     * @param timestamp Current movie timestamp in seconds
+     * @param acceptLanguage Client locale, as language-country
+     * @param profile Request profile, e.g. "RequestProfile.SCENE_STRIP" for list views
+     * @param callback Instance of client callback. "onSuccess" method expects to receive a list of cards
+     */
+    public void getStaticMovieScene(final String clientMovieId, final Float timestamp, final String acceptLanguage,
+                                    final RequestProfile profile, ClientCallback<List<Card>> callback) {
+        final SceneTimeline timeline = this.sceneTimeline;
+        if (timeline != null && timestamp != null && profile == RequestProfile.FULL_DETAIL) {
+            final ClientCallback<List<Card>> clientCallback = callback;
+            callback = new ClientCallback<List<Card>>() {
+                @Override
+                public void onFailure(RestAPIError message) {
+                    clientCallback.onFailure(message);
+                }
+
+                @Override
+                public void onSuccess(List<Card> result) {
+                    long position = (long) (timestamp * 1000);
+                    timeline.put(clientMovieId, position, position + Constants.SCENE_TIMELINE_SAMPLE_DURATION, result);
+                    clientCallback.onSuccess(result);
+                }
+            };
         }
+        String key = ResponseCache.key(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, clientMovieId, timestamp, acceptLanguage, profile.getName(),
+                tokenStore.getDeviceId());
+        this.responseCache.get(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, key, CARD_LIST_TYPE, callback, new ResponseCache.NetworkCall<List<Card>>() {
+            @Override
+            public void execute(ClientCallback<List<Card>> cacheCallback) throws ApiException {
+                ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, profile.getName(), cacheCallback, metrics);
+                restAPI.getStaticMovieSceneAsync(tokenStore.getAccessTokenWithPrefix(), clientMovieId, timestamp,
+                        acceptLanguage, profile.getRelations(), profile.getImageSize(), apiCallback);
+            }
+        });
     }
 
     /**
-     * Returns the current and upcoming grid of TV events for the given channel
+     * Returns the current and upcoming grid of TV events for the given channel. Grids cached until the end of their event
+     * on air are returned immediately on the calling thread.
      *
      * @param clientChannelId Client channel ID
      * @param acceptLanguage Client locale, as language-country
      * @param callback Instance of client callback. "onSuccess" method expects to receive a tv grid
      */
     public void getChannelGrid(String clientChannelId, String acceptLanguage, ClientCallback<TvGrid> callback) {
-        try {
-            ApiCallbackImpl<TvGrid> apiCallback = new ApiCallbackImpl(Constants.GET_CHANNEL_GRID_SERVICE_NAME, callback);
-            this.restAPI.getChannelGridAsync(sharedPreferences.getAccessTokenWithPrefix(), clientChannelId, acceptLanguage, null,
-                    apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
-        }
+        this.channelGridCache.get(clientChannelId, acceptLanguage, callback);
+    }
+
+    /**
+     * Returns the TV event currently being broadcasted on the given channel from the channel grid cache, without a
+     * round trip
+     *
+     * @param clientChannelId Client channel ID
+     * @param acceptLanguage Client locale, as language-country
+     * @return the event on air, or null if the grid of the channel is not cached: call "getChannelGrid"
+     */
+    public TvEvent getChannelOnAir(String clientChannelId, String acceptLanguage) {
+        return this.channelGridCache.getOnAir(clientChannelId, acceptLanguage);
     }
 
     /**
@@ -325,15 +831,16 @@ public class SdkClient {
      * @param acceptLanguage Client locale, as language-country
      * @param callback Instance of client callback. "onSuccess" method expects to receive a card
      */
-    public void getChannelMovie(String clientChannelId, String acceptLanguage, ClientCallback<Card> callback) {
-        try {
-            ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CHANNEL_MOVIE_SERVICE_NAME, callback);
-            this.restAPI.getChannelMovieAsync(sharedPreferences.getAccessTokenWithPrefix(), clientChannelId, acceptLanguage, null,
-            apiCallback);
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
-        }
+    public void getChannelMovie(final String clientChannelId, final String acceptLanguage, ClientCallback<Card> callback) {
+        String key = ResponseCache.key(Constants.GET_CHANNEL_MOVIE_SERVICE_NAME, clientChannelId, acceptLanguage, tokenStore.getDeviceId());
+        this.responseCache.get(Constants.GET_CHANNEL_MOVIE_SERVICE_NAME, key, Card.class, callback, new ResponseCache.NetworkCall<Card>() {
+            @Override
+            public void execute(ClientCallback<Card> cacheCallback) throws ApiException {
+                ApiCallbackImpl<Card> apiCallback = new ApiCallbackImpl(Constants.GET_CHANNEL_MOVIE_SERVICE_NAME, cacheCallback, metrics);
+                restAPI.getChannelMovieAsync(tokenStore.getAccessTokenWithPrefix(), clientChannelId, acceptLanguage, null,
+                        apiCallback);
+            }
+        });
     }
 
     /**
@@ -344,10 +851,23 @@ public class SdkClient {
      * @param callback Instance of client callback. "onSuccess" method expects to receive a list of cards
      */
     public void getStaticChannelScene(String clientChannelId, String acceptLanguage, ClientCallback<List<Card>> callback) {
+        getStaticChannelScene(clientChannelId, acceptLanguage, RequestProfile.FULL_DETAIL, callback);
+    }
+
+    /**
+     * Retrieves the list of cards related to the content currently being broadcasted in the provided channel, with the
+     * relations and image size of a request profile
+     *
+     * @param clientChannelId Client channel ID
+     * @param acceptLanguage Client locale, as language-country
+     * @param profile Request profile, e.g. "RequestProfile.SCENE_STRIP" for list views
+     * @param callback Instance of client callback. "onSuccess" method expects to receive a list of cards
+     */
+    public void getStaticChannelScene(String clientChannelId, String acceptLanguage, RequestProfile profile, ClientCallback<List<Card>> callback) {
         try {
-            ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_STATIC_CHANNEL_SCENE_SERVICE_NAME, callback);
-            this.restAPI.getStaticChannelSceneAsync(sharedPreferences.getAccessTokenWithPrefix(), clientChannelId, acceptLanguage,
-                    null, null, apiCallback);
+            ApiCallbackImpl<List<Card>> apiCallback = new ApiCallbackImpl(Constants.GET_STATIC_CHANNEL_SCENE_SERVICE_NAME, profile.getName(), callback, this.metrics);
+            this.restAPI.getStaticChannelSceneAsync(tokenStore.getAccessTokenWithPrefix(), clientChannelId, acceptLanguage,
+                    profile.getRelations(), profile.getImageSize(), apiCallback);
         } catch (ApiException e) {
             e.printStackTrace();
             callback.onFailure(RestAPIError.INTERNAL_ERROR);
@@ -0,0 +1,101 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import sdk.client.dive.tv.utils.InternPool;
+
+/**
+ * Versioned binary encoding of the objects that Gson serializes, e.g. the "com.touchvie.sdk.model" types, used to
+ * persist them without paying for JSON text parsing when they are read back.
+ * <p>
+ * The objects are written and read by the type adapters of the given Gson instance, so the binary form holds the same
+ * fields as the JSON one. A document is a header (magic number, version), a table of the distinct names and string
+ * values, and the values, where strings are indexes in the table and objects and arrays are prefixed by their length
+ * in bytes. Reading a document into a type that declares only some of the fields skips the other ones without reading
+ * them, e.g. the "info", "products" and "relations" of a Card.
+ * <p>
+ * Type adapters must use the public JsonReader and JsonWriter methods: Gson's map adapter and "jsonValue" are not
+ * supported.
+ */
+public class BinaryCodec {
+
+    private final Gson gson;
+    private InternPool<String> stringPool;
+
+    /**
+     * @param gson Gson instance whose type adapters write and read the objects
+     */
+    public BinaryCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * @param stringPool Pool shared by the strings of the decoded objects, or null
+     */
+    public void setStringPool(InternPool<String> stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * @param src Object to encode, written with the adapter of its runtime type as "Gson.toJson(Object)" does
+     * @return the binary document
+     */
+    public byte[] encode(Object src) {
+        return encode(src, src.getClass());
+    }
+
+    /**
+     * @param src Object to encode
+     * @param type Type of the object
+     * @return the binary document
+     */
+    public byte[] encode(Object src, Type type) {
+        BinaryJsonWriter writer = new BinaryJsonWriter();
+        gson.toJson(src, type, writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param data Binary document
+     * @param type Type of the object, or of a projection of it that declares only the needed fields
+     * @param <T> The return type
+     * @return the decoded object
+     * @throws JsonSyntaxException if the data is not a binary document of a supported version or cannot be read as the
+     *                             given type
+     */
+    public <T> T decode(byte[] data, Type type) {
+        try {
+            return gson.fromJson(newReader(data), type);
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * @param data Binary document
+     * @param type Class of the object, or of a projection of it that declares only the needed fields
+     * @param <T> The return type
+     * @return the decoded object
+     * @throws JsonSyntaxException if the data is not a binary document of a supported version or cannot be read as the
+     *                             given type
+     */
+    public <T> T decode(byte[] data, Class<T> type) {
+        return this.<T>decode(data, (Type) type);
+    }
+
+    /**
+     * Opens a binary document for reading with the JsonReader methods, e.g. to read a single field and skip the rest
+     *
+     * @param data Binary document
+     * @return the reader, positioned before the first value
+     * @throws IOException if the data is not a binary document of a supported version
+     */
+    public JsonReader newReader(byte[] data) throws IOException {
+        return new BinaryJsonReader(data, this.stringPool);
+    }
+}
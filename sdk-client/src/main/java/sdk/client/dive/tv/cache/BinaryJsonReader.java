@@ -0,0 +1,420 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
+
+/**
+ * JsonReader that reads the binary format written by a {@link BinaryJsonWriter}, so that any Gson type adapter
+ * built on the public JsonReader methods can read it.
+ * <p>
+ * The strings of the string table are decoded the first time they are read, and "skipValue" jumps over objects and
+ * arrays without reading them, so the fields a type does not declare cost next to nothing.
+ */
+class BinaryJsonReader extends JsonReader {
+
+    private static final int SCOPE_ARRAY = 0;
+    private static final int SCOPE_NAME = 1; // object, before a name
+    private static final int SCOPE_VALUE = 2; // object, after a name
+
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final byte[] data;
+    private final InternPool<String> stringPool;
+    private final int[] stringOffsets;
+    private final int[] stringLengths;
+    private final String[] strings;
+    private int pos;
+    private final int limit;
+    private int[] ends = new int[32]; // end offsets of the open objects and arrays
+    private int[] scopes = new int[32];
+    private int depth;
+
+    /**
+     * @param data Document written by a BinaryJsonWriter
+     * @param stringPool Pool of the strings read, or null
+     * @throws IOException if the data is not a document of a supported version
+     */
+    BinaryJsonReader(byte[] data, InternPool<String> stringPool) throws IOException {
+        super(UNREADABLE_READER);
+        this.data = data;
+        this.stringPool = stringPool;
+        this.limit = data.length;
+        if (limit < 5 || readInt() != Constants.BINARY_CODEC_MAGIC)
+            throw new MalformedJsonException("Not a binary document");
+        int version = data[pos++] & 0xFF;
+        if (version != Constants.BINARY_CODEC_VERSION)
+            throw new MalformedJsonException("Unsupported binary document version " + version);
+        int count = readVarInt();
+        this.stringOffsets = new int[count];
+        this.stringLengths = new int[count];
+        this.strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            stringLengths[i] = readVarInt();
+            stringOffsets[i] = pos;
+            pos += stringLengths[i];
+        }
+        if (pos > limit)
+            throw new MalformedJsonException("Truncated binary document");
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        open(BinaryJsonWriter.TAG_ARRAY, JsonToken.BEGIN_ARRAY, SCOPE_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        close(JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        open(BinaryJsonWriter.TAG_OBJECT, JsonToken.BEGIN_OBJECT, SCOPE_NAME);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        close(JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        return pos < end();
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (pos >= end()) {
+            if (depth == 0)
+                return JsonToken.END_DOCUMENT;
+            return scopes[depth - 1] == SCOPE_ARRAY ? JsonToken.END_ARRAY : JsonToken.END_OBJECT;
+        }
+        if (depth > 0 && scopes[depth - 1] == SCOPE_NAME)
+            return JsonToken.NAME;
+        switch (data[pos]) {
+            case BinaryJsonWriter.TAG_NULL:
+                return JsonToken.NULL;
+            case BinaryJsonWriter.TAG_FALSE:
+            case BinaryJsonWriter.TAG_TRUE:
+                return JsonToken.BOOLEAN;
+            case BinaryJsonWriter.TAG_LONG:
+            case BinaryJsonWriter.TAG_DOUBLE:
+            case BinaryJsonWriter.TAG_NUMBER:
+                return JsonToken.NUMBER;
+            case BinaryJsonWriter.TAG_STRING:
+                return JsonToken.STRING;
+            case BinaryJsonWriter.TAG_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case BinaryJsonWriter.TAG_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            default:
+                throw new MalformedJsonException("Unknown tag " + data[pos] + " at " + pos);
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        if (depth == 0 || scopes[depth - 1] != SCOPE_NAME || pos >= end())
+            throw unexpected(JsonToken.NAME);
+        String name = string(readVarInt());
+        scopes[depth - 1] = SCOPE_VALUE;
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        String result;
+        switch (valueTag()) {
+            case BinaryJsonWriter.TAG_STRING:
+            case BinaryJsonWriter.TAG_NUMBER:
+                pos++;
+                result = string(readVarInt());
+                break;
+            case BinaryJsonWriter.TAG_LONG:
+                pos++;
+                result = Long.toString(readZigzag());
+                break;
+            case BinaryJsonWriter.TAG_DOUBLE:
+                pos++;
+                result = Double.toString(readDouble());
+                break;
+            default:
+                throw unexpected(JsonToken.STRING);
+        }
+        consumed();
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        int tag = valueTag();
+        if (tag != BinaryJsonWriter.TAG_TRUE && tag != BinaryJsonWriter.TAG_FALSE)
+            throw unexpected(JsonToken.BOOLEAN);
+        pos++;
+        consumed();
+        return tag == BinaryJsonWriter.TAG_TRUE;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        if (valueTag() != BinaryJsonWriter.TAG_NULL)
+            throw unexpected(JsonToken.NULL);
+        pos++;
+        consumed();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        double result;
+        switch (valueTag()) {
+            case BinaryJsonWriter.TAG_LONG:
+                pos++;
+                result = readZigzag();
+                break;
+            case BinaryJsonWriter.TAG_DOUBLE:
+                pos++;
+                result = readDouble();
+                break;
+            case BinaryJsonWriter.TAG_STRING:
+            case BinaryJsonWriter.TAG_NUMBER:
+                result = Double.parseDouble(string(peekVarInt()));
+                pos++;
+                readVarInt();
+                break;
+            default:
+                throw unexpected(JsonToken.NUMBER);
+        }
+        if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result)))
+            throw new MalformedJsonException("JSON forbids NaN and infinities: " + result);
+        consumed();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        long result = readLong();
+        consumed();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        int start = pos;
+        long result = readLong();
+        if (result != (int) result) {
+            pos = start;
+            throw new NumberFormatException("Expected an int but was " + result);
+        }
+        consumed();
+        return (int) result;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (depth > 0 && scopes[depth - 1] == SCOPE_NAME && pos < end()) {
+            nextName();
+            return;
+        }
+        int tag = valueTag();
+        pos++;
+        switch (tag) {
+            case BinaryJsonWriter.TAG_ARRAY:
+            case BinaryJsonWriter.TAG_OBJECT:
+                int length = readInt();
+                pos += length;
+                break;
+            case BinaryJsonWriter.TAG_LONG:
+            case BinaryJsonWriter.TAG_STRING:
+            case BinaryJsonWriter.TAG_NUMBER:
+                readVarLong();
+                break;
+            case BinaryJsonWriter.TAG_DOUBLE:
+                pos += 8;
+                break;
+            default:
+                break;
+        }
+        consumed();
+    }
+
+    @Override
+    public void close() {
+        depth = 0;
+        pos = limit;
+    }
+
+    @Override
+    public String getPath() {
+        return "$";
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " at " + pos;
+    }
+
+    private void open(int tag, JsonToken token, int scope) throws IOException {
+        if (valueTag() != tag)
+            throw unexpected(token);
+        pos++;
+        int length = readInt();
+        if (depth == ends.length) {
+            ends = Arrays.copyOf(ends, depth * 2);
+            scopes = Arrays.copyOf(scopes, depth * 2);
+        }
+        ends[depth] = pos + length;
+        scopes[depth++] = scope;
+    }
+
+    private void close(JsonToken token) throws IOException {
+        if (peek() != token)
+            throw unexpected(token);
+        depth--;
+        consumed();
+    }
+
+    /**
+     * @return the end offset of the current object or array, or of the document
+     */
+    private int end() {
+        return depth > 0 ? ends[depth - 1] : limit;
+    }
+
+    /**
+     * @return the tag of the next value, which must not be a name nor the end of an object or array
+     */
+    private int valueTag() throws IOException {
+        if (pos >= end() || (depth > 0 && scopes[depth - 1] == SCOPE_NAME))
+            throw new IllegalStateException("Expected a value but was " + peek() + " at " + pos);
+        return data[pos];
+    }
+
+    /**
+     * Marks the value of the current name as read
+     */
+    private void consumed() {
+        if (depth > 0 && scopes[depth - 1] == SCOPE_VALUE)
+            scopes[depth - 1] = SCOPE_NAME;
+    }
+
+    private IllegalStateException unexpected(JsonToken expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek() + " at " + pos);
+    }
+
+    private String string(int index) throws IOException {
+        if (index < 0 || index >= strings.length)
+            throw new MalformedJsonException("Unknown string " + index + " at " + pos);
+        String value = strings[index];
+        if (value == null) {
+            value = new String(data, stringOffsets[index], stringLengths[index], BinaryJsonWriter.UTF_8);
+            if (stringPool != null)
+                value = stringPool.intern(value);
+            strings[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Reads an integral number, or leaves it unread if it is not one
+     */
+    private long readLong() throws IOException {
+        long result;
+        switch (valueTag()) {
+            case BinaryJsonWriter.TAG_LONG:
+                pos++;
+                result = readZigzag();
+                break;
+            case BinaryJsonWriter.TAG_DOUBLE:
+                result = toLong(Double.longBitsToDouble(peekLong()));
+                pos += 9;
+                break;
+            case BinaryJsonWriter.TAG_STRING:
+            case BinaryJsonWriter.TAG_NUMBER:
+                String text = string(peekVarInt());
+                try {
+                    result = Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    result = toLong(Double.parseDouble(text));
+                }
+                pos++;
+                readVarInt();
+                break;
+            default:
+                throw unexpected(JsonToken.NUMBER);
+        }
+        return result;
+    }
+
+    private static long toLong(double value) {
+        long result = (long) value;
+        if (result != value)
+            throw new NumberFormatException("Expected a long but was " + value);
+        return result;
+    }
+
+    private int readInt() {
+        int value = (data[pos] & 0xFF) << 24 | (data[pos + 1] & 0xFF) << 16 | (data[pos + 2] & 0xFF) << 8
+                | (data[pos + 3] & 0xFF);
+        pos += 4;
+        return value;
+    }
+
+    private long peekLong() {
+        int start = pos++;
+        long value = (long) readInt() << 32 | (readInt() & 0xFFFFFFFFL);
+        pos = start;
+        return value;
+    }
+
+    private double readDouble() {
+        return Double.longBitsToDouble((long) readInt() << 32 | (readInt() & 0xFFFFFFFFL));
+    }
+
+    private int peekVarInt() throws IOException {
+        int start = pos++;
+        int value = readVarInt();
+        pos = start;
+        return value;
+    }
+
+    private int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE)
+            throw new MalformedJsonException("Malformed binary document at " + pos);
+        return (int) value;
+    }
+
+    private long readZigzag() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new MalformedJsonException("Malformed binary document at " + pos);
+    }
+}
@@ -0,0 +1,290 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * JsonWriter that writes the binary format of {@link BinaryCodec} instead of JSON text, so that any Gson type adapter
+ * can write it.
+ * <p>
+ * Names and string values go to a string table, written once and referenced by index. Objects and arrays are written
+ * as a tag and the length in bytes of their content, so that a reader can skip them without reading them.
+ */
+class BinaryJsonWriter extends JsonWriter {
+
+    static final int TAG_NULL = 0;
+    static final int TAG_FALSE = 1;
+    static final int TAG_TRUE = 2;
+    static final int TAG_LONG = 3;
+    static final int TAG_DOUBLE = 4;
+    static final int TAG_STRING = 5;
+    static final int TAG_NUMBER = 6;
+    static final int TAG_ARRAY = 7;
+    static final int TAG_OBJECT = 8;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final Writer UNWRITABLE_WRITER = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int count) {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void flush() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() {
+            throw new AssertionError();
+        }
+    };
+
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final Buffer strings = new Buffer(Constants.BINARY_CODEC_BUFFER_SIZE);
+    private final Buffer values = new Buffer(Constants.BINARY_CODEC_BUFFER_SIZE);
+    private int[] starts = new int[32]; // offsets of the lengths of the open objects and arrays
+    private int depth;
+    private String deferredName;
+
+    BinaryJsonWriter() {
+        super(UNWRITABLE_WRITER);
+    }
+
+    /**
+     * @return the written document: header, string table and values
+     */
+    byte[] toByteArray() {
+        if (depth != 0)
+            throw new IllegalStateException("Incomplete document");
+        Buffer out = new Buffer(10 + strings.count + values.count);
+        out.writeInt(Constants.BINARY_CODEC_MAGIC);
+        out.write(Constants.BINARY_CODEC_VERSION);
+        out.writeVarLong(stringIndex.size());
+        out.write(strings.bytes, 0, strings.count);
+        out.write(values.bytes, 0, values.count);
+        return out.count == out.bytes.length ? out.bytes : Arrays.copyOf(out.bytes, out.count);
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        return open(TAG_ARRAY);
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        return close(TAG_ARRAY);
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        return open(TAG_OBJECT);
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        return close(TAG_OBJECT);
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null)
+            throw new NullPointerException("name == null");
+        if (deferredName != null || depth == 0)
+            throw new IllegalStateException();
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null)
+            return nullValue();
+        writeDeferredName();
+        values.write(TAG_STRING);
+        values.writeVarLong(string(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        throw new UnsupportedOperationException("Raw JSON values are not supported");
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null && !getSerializeNulls()) {
+            deferredName = null;
+            return this;
+        }
+        writeDeferredName();
+        values.write(TAG_NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        values.write(value ? TAG_TRUE : TAG_FALSE);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null)
+            return nullValue();
+        return value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value)))
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        writeDeferredName();
+        values.write(TAG_DOUBLE);
+        values.writeLong(Double.doubleToRawLongBits(value));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        values.write(TAG_LONG);
+        values.writeVarLong((value << 1) ^ (value >> 63)); // zigzag, small negative values stay short
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null)
+            return nullValue();
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+            return value(value.longValue());
+        if (value instanceof Double)
+            return value(value.doubleValue());
+        // BigDecimal, Float, lazily parsed numbers...: kept as the text JsonWriter would write
+        String text = value.toString();
+        if (!isLenient() && (text.equals("-Infinity") || text.equals("Infinity") || text.equals("NaN")))
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        writeDeferredName();
+        values.write(TAG_NUMBER);
+        values.writeVarLong(string(text));
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (depth != 0)
+            throw new IOException("Incomplete document");
+    }
+
+    private JsonWriter open(int tag) throws IOException {
+        writeDeferredName();
+        values.write(tag);
+        if (depth == starts.length)
+            starts = Arrays.copyOf(starts, depth * 2);
+        starts[depth++] = values.count;
+        values.writeInt(0); // replaced by the length of the content when it is closed
+        return this;
+    }
+
+    private JsonWriter close(int tag) throws IOException {
+        if (depth == 0 || deferredName != null)
+            throw new IllegalStateException("Nesting problem.");
+        int start = starts[--depth];
+        if (values.bytes[start - 1] != tag)
+            throw new IllegalStateException("Nesting problem.");
+        values.setInt(start, values.count - start - 4);
+        return this;
+    }
+
+    private void writeDeferredName() {
+        if (deferredName != null) {
+            values.writeVarLong(string(deferredName));
+            deferredName = null;
+        }
+    }
+
+    /**
+     * @return the index of a string in the string table, adding it if it is new
+     */
+    private int string(String value) {
+        Integer index = stringIndex.get(value);
+        if (index != null)
+            return index;
+        index = stringIndex.size();
+        stringIndex.put(value, index);
+        byte[] bytes = value.getBytes(UTF_8);
+        strings.writeVarLong(bytes.length);
+        strings.write(bytes, 0, bytes.length);
+        return index;
+    }
+
+    /**
+     * Growable byte array.
+     */
+    private static class Buffer {
+        private byte[] bytes;
+        private int count;
+
+        private Buffer(int size) {
+            this.bytes = new byte[size];
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + extra));
+        }
+
+        private void write(int b) {
+            ensure(1);
+            bytes[count++] = (byte) b;
+        }
+
+        private void write(byte[] b, int offset, int length) {
+            ensure(length);
+            System.arraycopy(b, offset, bytes, count, length);
+            count += length;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            setInt(count, value);
+            count += 4;
+        }
+
+        private void setInt(int offset, int value) {
+            bytes[offset] = (byte) (value >>> 24);
+            bytes[offset + 1] = (byte) (value >>> 16);
+            bytes[offset + 2] = (byte) (value >>> 8);
+            bytes[offset + 3] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[count++] = (byte) value;
+        }
+    }
+}
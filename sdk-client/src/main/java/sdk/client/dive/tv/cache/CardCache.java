@@ -0,0 +1,190 @@
+package sdk.client.dive.tv.cache;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * In-memory LRU cache of card detail responses, bounded by the estimated size in bytes of the cached cards.
+ * Cached cards are shared between callers and must be treated as read-only.
+ */
+public class CardCache {
+
+    private final long maxSize;
+    private final LinkedHashMap<CardCacheKey, Entry> entries;
+
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long evictionCount;
+
+    /**
+     * @param maxSize Maximum estimated size in bytes of all the cached cards
+     */
+    public CardCache(long maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retrieves a cached card and marks it as the most recently used one
+     *
+     * @param key the card cache key
+     * @return the cached card, or null if it is not cached
+     */
+    public synchronized Card get(CardCacheKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.card;
+    }
+
+    /**
+     * Checks whether a card is cached, without counting a hit or a miss and without changing its recency, for the
+     * lookups that are not made on behalf of the client, such as prefetches
+     *
+     * @param key the card cache key
+     * @return true if the card is cached
+     */
+    public synchronized boolean contains(CardCacheKey key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Stores a card, evicting the least recently used cards until the cache fits its maximum size.
+     * Cards bigger than the whole cache are not stored.
+     *
+     * @param key the card cache key
+     * @param card the card to store
+     */
+    public void put(CardCacheKey key, Card card) {
+        if (key == null || card == null)
+            return;
+        int cardSize = estimateSize(card);
+        if (cardSize > maxSize)
+            return;
+        synchronized (this) {
+            putCount++;
+            Entry previous = entries.put(key, new Entry(card, cardSize));
+            if (previous != null)
+                size -= previous.size;
+            size += cardSize;
+            trimToSize(maxSize);
+        }
+    }
+
+    /**
+     * Removes every cached version of a card, in any locale and image size
+     *
+     * @param cardId Unique identifier of card
+     */
+    public synchronized void invalidate(String cardId) {
+        Iterator<Map.Entry<CardCacheKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CardCacheKey, Entry> entry = iterator.next();
+            if (entry.getKey().getCardId() != null && entry.getKey().getCardId().equals(cardId)) {
+                size -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached cards
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getPutCount() {
+        return putCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (int) (100 * hitCount / accesses) : 0;
+        return "CardCache[size=" + size + ",maxSize=" + maxSize + ",entries=" + entries.size() + ",hits=" + hitCount
+                + ",misses=" + missCount + ",evictions=" + evictionCount + ",hitRate=" + hitPercent + "%]";
+    }
+
+    private void trimToSize(long targetSize) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.size;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Estimates the retained size of a card without serializing it: two bytes per char of its own strings, plus an
+     * average size for each info container, product and relation module
+     *
+     * @param card the card to measure
+     * @return the estimated size in bytes
+     */
+    private static int estimateSize(Card card) {
+        int length = length(card.getCardId()) + length(card.getVersion()) + length(card.getLocale())
+                + length(card.getTitle()) + length(card.getSubtitle());
+        if (card.getImage() != null)
+            length += length(card.getImage().getThumb()) + length(card.getImage().getFull());
+        return Constants.CARD_CACHE_ENTRY_OVERHEAD + length * 2
+                + count(card.getInfo()) * Constants.CARD_CACHE_CONTAINER_SIZE
+                + count(card.getProducts()) * Constants.CARD_CACHE_PRODUCT_SIZE
+                + count(card.getRelations()) * Constants.CARD_CACHE_RELATION_SIZE;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static int count(List<?> items) {
+        return items != null ? items.size() : 0;
+    }
+
+    private static class Entry {
+        private final Card card;
+        private final int size;
+
+        private Entry(Card card, int size) {
+            this.card = card;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package sdk.client.dive.tv.cache;
+
+/**
+ * Identifies a card response in the card cache: the same card requested with a different version, locale or request
+ * profile is a different entry.
+ */
+public class CardCacheKey {
+
+    private final String cardId;
+    private final String version;
+    private final String locale;
+    private final String profile;
+    private final int hash;
+
+    /**
+     * @param cardId Unique identifier of card
+     * @param version Version identifier, or null
+     * @param locale Client locale, or null
+     * @param profile Name of the request profile, or null
+     */
+    public CardCacheKey(String cardId, String version, String locale, String profile) {
+        this.cardId = cardId;
+        this.version = version;
+        this.locale = locale;
+        this.profile = profile;
+        int result = hashOf(cardId);
+        result = 31 * result + hashOf(version);
+        result = 31 * result + hashOf(locale);
+        result = 31 * result + hashOf(profile);
+        this.hash = result;
+    }
+
+    public String getCardId() {
+        return cardId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CardCacheKey))
+            return false;
+        CardCacheKey other = (CardCacheKey) o;
+        return hash == other.hash && equalsOf(cardId, other.cardId) && equalsOf(version, other.version)
+                && equalsOf(locale, other.locale) && equalsOf(profile, other.profile);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return cardId + "/" + version + "/" + locale + "/" + profile;
+    }
+
+    private static int hashOf(String value) {
+        return value == null ? 0 : value.hashCode();
+    }
+
+    private static boolean equalsOf(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
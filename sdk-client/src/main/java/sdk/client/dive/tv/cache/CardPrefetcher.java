@@ -0,0 +1,268 @@
+package sdk.client.dive.tv.cache;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.socket.SceneObserver;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Prefetches the full detail of the cards of the current scene, so that opening a card does not wait for a round trip.
+ * Cards are fetched with bounded concurrency, ordered by card type priority and then by arrival order. Queued prefetches
+ * are cancelled when the scene ends; the ones already in flight are left to complete and fill the cache.
+ * It is disabled until enabled with {@link #setEnabled(boolean)}, since it requests the detail of every scene card.
+ */
+public class CardPrefetcher implements SceneObserver {
+
+    /**
+     * Fetches the detail of a card, storing it in the card cache
+     */
+    public interface CardFetcher {
+        /**
+         * @return false if the card is already cached, in which case the callback is not called
+         */
+        boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback);
+    }
+
+    private final CardFetcher fetcher;
+    private final Object lock = new Object();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final Set<String> pending = new HashSet<>();
+
+    private volatile boolean enabled;
+    private volatile String acceptLanguage;
+    private volatile int maxConcurrent = Constants.PREFETCH_MAX_CONCURRENT;
+    private volatile List<String> typePriority = Arrays.asList(Constants.PREFETCH_TYPE_PRIORITY);
+
+    private int inFlight;
+    private int generation;
+    private long sequence;
+    private long requestCount;
+    private long fetchCount;
+    private long cachedCount;
+    private long failureCount;
+    private long cancelCount;
+
+    public CardPrefetcher(CardFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled)
+            cancel();
+    }
+
+    /**
+     * @param acceptLanguage Client locale used to prefetch the cards, as language-country. If null, the locale of each
+     *                       scene card is used
+     */
+    public void setAcceptLanguage(String acceptLanguage) {
+        this.acceptLanguage = acceptLanguage;
+    }
+
+    /**
+     * @param maxConcurrent Maximum number of prefetch requests in flight at the same time
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * @param types Card types in prefetch order, types not in the list are prefetched last
+     */
+    public void setTypePriority(List<String> types) {
+        this.typePriority = types;
+    }
+
+    @Override
+    public void onSceneCards(List<Card> cards) {
+        prefetch(cards);
+    }
+
+    @Override
+    public void onSceneCleared() {
+        cancel();
+    }
+
+    /**
+     * Queues the detail of the given cards for prefetch, ignoring the ones already queued or in flight
+     *
+     * @param cards the scene cards
+     */
+    public void prefetch(List<Card> cards) {
+        if (!enabled || cards == null)
+            return;
+        synchronized (lock) {
+            for (Card card : cards) {
+                if (card == null || card.getCardId() == null)
+                    continue;
+                Task task = new Task(card, priority(card), sequence++, generation);
+                if (pending.add(task.key)) {
+                    queue.add(task);
+                    requestCount++;
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Discards the queued prefetches
+     */
+    public void cancel() {
+        synchronized (lock) {
+            cancelCount += queue.size();
+            queue.clear();
+            pending.clear();
+            generation++;
+        }
+    }
+
+    private int priority(Card card) {
+        if (card.getType() == null)
+            return Integer.MAX_VALUE;
+        int index = typePriority.indexOf(card.getType().toString());
+        return index < 0 ? Integer.MAX_VALUE : index;
+    }
+
+    private void drain() {
+        while (true) {
+            final Task task;
+            synchronized (lock) {
+                if (inFlight >= maxConcurrent || queue.isEmpty())
+                    return;
+                task = queue.poll();
+                inFlight++;
+            }
+            String language = acceptLanguage != null ? acceptLanguage : task.locale;
+            boolean fetching;
+            try {
+                fetching = fetcher.fetch(task.cardId, task.version, language, new ClientCallback<Card>() {
+                    @Override
+                    public void onFailure(RestAPIError message) {
+                        complete(task, false);
+                    }
+
+                    @Override
+                    public void onSuccess(Card result) {
+                        complete(task, true);
+                    }
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+                complete(task, false);
+                continue;
+            }
+            if (!fetching) {
+                // completed here rather than through "complete", which would drain the queue recursively
+                synchronized (lock) {
+                    inFlight--;
+                    if (task.generation == generation)
+                        pending.remove(task.key);
+                    cachedCount++;
+                }
+            }
+        }
+    }
+
+    private void complete(Task task, boolean success) {
+        synchronized (lock) {
+            inFlight--;
+            if (task.generation == generation)
+                pending.remove(task.key);
+            if (success)
+                fetchCount++;
+            else
+                failureCount++;
+        }
+        drain();
+    }
+
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requestCount;
+        }
+    }
+
+    public long getFetchCount() {
+        synchronized (lock) {
+            return fetchCount;
+        }
+    }
+
+    /**
+     * @return the number of prefetches skipped because the card was already cached
+     */
+    public long getCachedCount() {
+        synchronized (lock) {
+            return cachedCount;
+        }
+    }
+
+    public long getFailureCount() {
+        synchronized (lock) {
+            return failureCount;
+        }
+    }
+
+    public long getCancelCount() {
+        synchronized (lock) {
+            return cancelCount;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "CardPrefetcher{queued=" + queue.size() + ", inFlight=" + inFlight + ", requests=" + requestCount
+                    + ", fetched=" + fetchCount + ", cached=" + cachedCount + ", failures=" + failureCount + ", cancelled=" + cancelCount + "}";
+        }
+    }
+
+    private static class Task implements Comparable<Task> {
+        private final String cardId;
+        private final String version;
+        private final String locale;
+        private final String key;
+        private final int priority;
+        private final long sequence;
+        private final int generation;
+
+        private Task(Card card, int priority, long sequence, int generation) {
+            this.cardId = card.getCardId();
+            this.version = card.getVersion();
+            this.locale = card.getLocale();
+            this.key = cardId + "|" + version;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.generation = generation;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority)
+                return priority < other.priority ? -1 : 1;
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package sdk.client.dive.tv.cache;
+
+import com.touchvie.sdk.model.TvEvent;
+import com.touchvie.sdk.model.TvGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * In-memory LRU cache of channel grids, that knows when each grid goes stale: when the event on air ends. Until then
+ * the grid of a channel, and its event on air, are answered from memory, so zapping does not wait for a round trip.
+ * <p>
+ * The grid of a channel that was read since it was fetched is refreshed in background just before the event on air
+ * ends. The refreshed grid still has that event on air and the next one upcoming: from the boundary on, the returned
+ * grid is shifted, so that its broadcast and upcoming events are the ones at the time of the call.
+ * Concurrent requests of the same grid share a single call. Cached grids must be treated as read-only.
+ */
+public class ChannelGridCache {
+
+    /**
+     * Fetches the grid of a channel from the API
+     */
+    public interface GridFetcher {
+        void fetch(String channelId, String acceptLanguage, ClientCallback<TvGrid> callback);
+    }
+
+    private static final Comparator<TvEvent> START_ORDER = new Comparator<TvEvent>() {
+        @Override
+        public int compare(TvEvent a, TvEvent b) {
+            long startA = a.getStartDate() != null ? a.getStartDate() : Long.MIN_VALUE;
+            long startB = b.getStartDate() != null ? b.getStartDate() : Long.MIN_VALUE;
+            return startA < startB ? -1 : (startA == startB ? 0 : 1);
+        }
+    };
+
+    private final ScheduledExecutorService scheduler;
+    private final GridFetcher fetcher;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private final Map<String, List<ClientCallback<TvGrid>>> pending = new HashMap<>();
+
+    private volatile boolean refreshEnabled = true;
+    private long hitCount;
+    private long missCount;
+    private long refreshCount;
+    private long evictionCount;
+
+    /**
+     * @param scheduler Scheduler of the boundary refreshes
+     * @param fetcher Fetcher of the grids
+     * @param maxEntries Maximum number of cached grids, one per channel and locale
+     */
+    public ChannelGridCache(ScheduledExecutorService scheduler, GridFetcher fetcher, int maxEntries) {
+        this.scheduler = scheduler;
+        this.fetcher = fetcher;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @param refreshEnabled false to let the grids go stale at the end of their event on air, and fetch them on the
+     *                       next request, instead of refreshing them before
+     */
+    public void setRefreshEnabled(boolean refreshEnabled) {
+        this.refreshEnabled = refreshEnabled;
+    }
+
+    /**
+     * Retrieves the grid of a channel. Fresh grids are returned immediately on the calling thread.
+     *
+     * @param channelId Client channel ID
+     * @param acceptLanguage Client locale, as language-country
+     * @param callback Instance of client callback. "onSuccess" method expects to receive a tv grid
+     */
+    public void get(String channelId, String acceptLanguage, ClientCallback<TvGrid> callback) {
+        String key = key(channelId, acceptLanguage);
+        long now = now();
+        TvGrid grid;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            grid = entry != null && now < entry.staleAt ? entry.view(now) : null;
+            if (grid != null) {
+                hitCount++;
+                entry.read = true;
+            } else {
+                missCount++;
+                List<ClientCallback<TvGrid>> callbacks = pending.get(key);
+                if (callbacks != null) {
+                    callbacks.add(callback);
+                    return;
+                }
+                callbacks = new ArrayList<>();
+                callbacks.add(callback);
+                pending.put(key, callbacks);
+            }
+        }
+        if (grid != null)
+            callback.onSuccess(grid);
+        else
+            fetch(key, channelId, acceptLanguage, false);
+    }
+
+    /**
+     * Answers "what's on now" from memory
+     *
+     * @param channelId Client channel ID
+     * @param acceptLanguage Client locale, as language-country
+     * @return the event on air on the channel, or null if its grid is not cached or is stale
+     */
+    public TvEvent getOnAir(String channelId, String acceptLanguage) {
+        long now = now();
+        synchronized (this) {
+            Entry entry = entries.get(key(channelId, acceptLanguage));
+            if (entry == null || now >= entry.staleAt) {
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            entry.read = true;
+            return entry.onAir(now);
+        }
+    }
+
+    /**
+     * Removes the cached grid of a channel, in every locale
+     *
+     * @param channelId Client channel ID
+     */
+    public synchronized void invalidate(String channelId) {
+        String prefix = channelId + "|";
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                entry.getValue().cancelRefresh();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all the cached grids
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values())
+            entry.cancelRefresh();
+        entries.clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return number of grids refreshed before the end of their event on air
+     */
+    public synchronized long getRefreshCount() {
+        return refreshCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (int) (100 * hitCount / accesses) : 0;
+        return "ChannelGridCache[entries=" + entries.size() + ",hits=" + hitCount + ",misses=" + missCount
+                + ",refreshes=" + refreshCount + ",evictions=" + evictionCount + ",hitRate=" + hitPercent + "%]";
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Time at which a grid fetched at a given time goes stale: the end of the event on air once the refresh lead has
+     * passed, so that a grid refreshed just before a boundary is valid until the end of the next event
+     *
+     * @param events Events of the grid, by start date
+     * @param fetchedAt Time the grid was fetched
+     * @return the stale time, in milliseconds since EPOCH
+     */
+    static long staleAt(List<TvEvent> events, long fetchedAt) {
+        TvEvent onAir = onAir(events, fetchedAt + Constants.CHANNEL_GRID_REFRESH_LEAD);
+        if (onAir == null)
+            return fetchedAt + Constants.CHANNEL_GRID_DEFAULT_TTL;
+        return onAir.getEndDate();
+    }
+
+    private static TvEvent onAir(List<TvEvent> events, long time) {
+        TvEvent result = null;
+        for (TvEvent event : events) {
+            if (event.getStartDate() == null || event.getEndDate() == null || event.getStartDate() > time)
+                continue;
+            if (time < event.getEndDate() && (result == null || event.getEndDate() < result.getEndDate()))
+                result = event;
+        }
+        return result;
+    }
+
+    private void fetch(final String key, final String channelId, final String acceptLanguage, final boolean refresh) {
+        try {
+            fetcher.fetch(channelId, acceptLanguage, new ClientCallback<TvGrid>() {
+                @Override
+                public void onFailure(RestAPIError message) {
+                    complete(key, null, message);
+                }
+
+                @Override
+                public void onSuccess(TvGrid result) {
+                    TvGrid grid = result;
+                    if (grid != null)
+                        grid = store(key, channelId, acceptLanguage, grid, !refresh);
+                    complete(key, grid, null);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            complete(key, null, RestAPIError.INTERNAL_ERROR);
+        }
+    }
+
+    private void complete(String key, TvGrid grid, RestAPIError error) {
+        List<ClientCallback<TvGrid>> callbacks;
+        synchronized (this) {
+            callbacks = pending.remove(key);
+        }
+        if (callbacks == null)
+            return;
+        for (ClientCallback<TvGrid> callback : callbacks) {
+            if (error != null)
+                callback.onFailure(error);
+            else
+                callback.onSuccess(grid);
+        }
+    }
+
+    /**
+     * Stores a fetched grid and schedules its refresh
+     *
+     * @param read Whether the grid is read by the callers that requested it, false for a refresh
+     * @return the grid at the current time
+     */
+    private TvGrid store(String key, final String channelId, final String acceptLanguage, TvGrid grid, boolean read) {
+        long now = now();
+        final Entry entry = new Entry(grid, now);
+        synchronized (this) {
+            List<ClientCallback<TvGrid>> callbacks = pending.get(key);
+            entry.read = read || (callbacks != null && !callbacks.isEmpty());
+            Entry previous = entries.put(key, entry);
+            if (previous != null)
+                previous.cancelRefresh();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                iterator.next().cancelRefresh();
+                iterator.remove();
+                evictionCount++;
+            }
+            if (refreshEnabled && entries.get(key) == entry) {
+                long delay = Math.max(0, entry.staleAt - Constants.CHANNEL_GRID_REFRESH_LEAD - now);
+                entry.refresh = scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh(entry, channelId, acceptLanguage);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            return entry.view(now);
+        }
+    }
+
+    private void refresh(Entry entry, String channelId, String acceptLanguage) {
+        String key = key(channelId, acceptLanguage);
+        synchronized (this) {
+            // grids nobody read since they were fetched are left to go stale
+            if (entries.get(key) != entry || !entry.read || pending.containsKey(key))
+                return;
+            refreshCount++;
+            pending.put(key, new ArrayList<ClientCallback<TvGrid>>());
+        }
+        fetch(key, channelId, acceptLanguage, true);
+    }
+
+    private static String key(String channelId, String acceptLanguage) {
+        return channelId + "|" + acceptLanguage;
+    }
+
+    private static class Entry {
+        private final TvGrid grid;
+        private final List<TvEvent> events;
+        private final long staleAt;
+        private final long shiftAt;
+        private boolean read;
+        private ScheduledFuture<?> refresh;
+
+        private Entry(TvGrid grid, long fetchedAt) {
+            this.grid = grid;
+            this.events = new ArrayList<>();
+            if (grid.getBroadcast() != null)
+                this.events.addAll(grid.getBroadcast());
+            if (grid.getUpcoming() != null)
+                this.events.addAll(grid.getUpcoming());
+            this.events.removeAll(Collections.singleton(null));
+            Collections.sort(this.events, START_ORDER);
+            this.staleAt = staleAt(this.events, fetchedAt);
+            // the grid is returned as is until an event of the grid ends or starts
+            long shift = Long.MAX_VALUE;
+            if (grid.getBroadcast() != null) {
+                for (TvEvent event : grid.getBroadcast()) {
+                    if (event != null && event.getEndDate() != null)
+                        shift = Math.min(shift, event.getEndDate());
+                }
+            }
+            if (grid.getUpcoming() != null) {
+                for (TvEvent event : grid.getUpcoming()) {
+                    if (event != null && event.getStartDate() != null)
+                        shift = Math.min(shift, event.getStartDate());
+                }
+            }
+            this.shiftAt = shift;
+        }
+
+        /**
+         * @return the grid, with its broadcast and upcoming events at the given time
+         */
+        private TvGrid view(long now) {
+            if (now < shiftAt)
+                return grid;
+            List<TvEvent> broadcast = new ArrayList<>();
+            List<TvEvent> upcoming = new ArrayList<>();
+            for (TvEvent event : events) {
+                if (event.getStartDate() != null && event.getStartDate() > now)
+                    upcoming.add(event);
+                else if (event.getEndDate() == null || now < event.getEndDate())
+                    broadcast.add(event);
+            }
+            TvGrid shifted = new TvGrid();
+            shifted.setBroadcast(broadcast);
+            shifted.setUpcoming(upcoming);
+            return shifted;
+        }
+
+        private TvEvent onAir(long now) {
+            return ChannelGridCache.onAir(events, now);
+        }
+
+        private void cancelRefresh() {
+            if (refresh != null)
+                refresh.cancel(false);
+        }
+    }
+}
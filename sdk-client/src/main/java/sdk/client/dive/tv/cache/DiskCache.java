@@ -0,0 +1,332 @@
+package sdk.client.dive.tv.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Persistent LRU cache that stores one file per entry in a directory, bounded by the total size of the files.
+ * The LRU index is kept in memory and rebuilt from the file modification dates when the cache is first used after a
+ * process restart. The keys of the entries are kept in memory as well once written or read, so that removing entries by
+ * key prefix only reads the files whose key is not known yet.
+ */
+public class DiskCache {
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxSize;
+    private final LinkedHashMap<String, Long> index; // file name -> file length
+    private final Map<String, String> keys; // file name -> entry key, once known
+
+    private boolean initialized;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * @param directory Directory where the entries are stored. It is created if it does not exist
+     * @param maxSize Maximum size in bytes of all the stored entries
+     */
+    public DiskCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        this.keys = new HashMap<>();
+    }
+
+    /**
+     * Reads a stored entry and marks it as the most recently used one
+     *
+     * @param key the entry key
+     * @return the stored entry, or null if there is no readable entry for the key
+     */
+    public synchronized Entry get(String key) {
+        initialize();
+        String fileName = fileName(key);
+        if (index.get(fileName) == null) {
+            missCount++;
+            return null;
+        }
+        File file = new File(directory, fileName);
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != Constants.DISK_CACHE_FORMAT_VERSION || !key.equals(in.readUTF())) {
+                closeQuietly(in);
+                in = null;
+                removeFile(fileName);
+                missCount++;
+                return null;
+            }
+            keys.put(fileName, key);
+            String serviceName = in.readUTF();
+            long storedAt = in.readLong();
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            file.setLastModified(System.currentTimeMillis()); // keeps the LRU order across restarts
+            hitCount++;
+            return new Entry(key, serviceName, storedAt, payload);
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeQuietly(in);
+            in = null;
+            removeFile(fileName);
+            missCount++;
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Stores an entry, replacing the previous one with the same key, and evicts the least recently used entries until
+     * the cache fits its maximum size
+     *
+     * @param key the entry key
+     * @param serviceName the name of the service that returned the payload
+     * @param payload the serialized response
+     */
+    public synchronized void put(String key, String serviceName, byte[] payload) {
+        initialize();
+        String fileName = fileName(key);
+        File temp = new File(directory, fileName + TEMP_FILE_SUFFIX);
+        File file = new File(directory, fileName);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(Constants.DISK_CACHE_FORMAT_VERSION);
+            out.writeUTF(key);
+            out.writeUTF(serviceName);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.close();
+            out = null;
+            removeFile(fileName);
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                return;
+            }
+            index.put(fileName, file.length());
+            keys.put(fileName, key);
+            size += file.length();
+            trimToSize(maxSize);
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeQuietly(out);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Removes the entry stored for a key
+     *
+     * @param key the entry key
+     */
+    public synchronized void remove(String key) {
+        initialize();
+        removeFile(fileName(key));
+    }
+
+    /**
+     * Removes the stored entries whose key starts with the given prefix. Only the entries whose key is not known yet,
+     * i.e. the ones stored before a process restart and not read since, have their header read
+     *
+     * @param keyPrefix the key prefix
+     */
+    public synchronized void removeByPrefix(String keyPrefix) {
+        initialize();
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            String key = keys.get(entry.getKey());
+            if (key == null) {
+                key = readKey(entry.getKey());
+                if (key != null)
+                    keys.put(entry.getKey(), key);
+            }
+            if (key != null && !key.startsWith(keyPrefix))
+                continue;
+            size -= entry.getValue();
+            iterator.remove();
+            keys.remove(entry.getKey());
+            new File(directory, entry.getKey()).delete();
+        }
+    }
+
+    /**
+     * Removes all the stored entries
+     */
+    public synchronized void clear() {
+        initialize();
+        for (String fileName : index.keySet())
+            new File(directory, fileName).delete();
+        index.clear();
+        keys.clear();
+        size = 0;
+    }
+
+    public synchronized long getSize() {
+        initialize();
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void initialize() {
+        if (initialized)
+            return;
+        initialized = true;
+        if (!directory.exists() && !directory.mkdirs())
+            return;
+        File[] files = directory.listFiles();
+        if (files == null)
+            return;
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = a.lastModified() - b.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                file.delete();
+            } else if (file.isFile()) {
+                index.put(file.getName(), file.length());
+                size += file.length();
+            }
+        }
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Reads the key from the header of a stored entry
+     *
+     * @param fileName the entry file name
+     * @return the entry key, or null if the file is not readable or has another format version
+     */
+    private String readKey(String fileName) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(directory, fileName))));
+            return in.readInt() == Constants.DISK_CACHE_FORMAT_VERSION ? in.readUTF() : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private void removeFile(String fileName) {
+        keys.remove(fileName);
+        Long length = index.remove(fileName);
+        if (length != null)
+            size -= length;
+        new File(directory, fileName).delete();
+    }
+
+    private void trimToSize(long targetSize) {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            keys.remove(eldest.getKey());
+            size -= eldest.getValue();
+            evictionCount++;
+            new File(directory, eldest.getKey()).delete();
+        }
+    }
+
+    private static String fileName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+                builder.append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null)
+            return;
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // TO IGNORE
+        }
+    }
+
+    /**
+     * Entry read from the disk cache.
+     */
+    public static class Entry {
+
+        private final String key;
+        private final String serviceName;
+        private final long storedAt;
+        private final byte[] payload;
+
+        Entry(String key, String serviceName, long storedAt, byte[] payload) {
+            this.key = key;
+            this.serviceName = serviceName;
+            this.storedAt = storedAt;
+            this.payload = payload;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
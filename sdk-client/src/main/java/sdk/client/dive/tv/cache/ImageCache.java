@@ -0,0 +1,329 @@
+package sdk.client.dive.tv.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Two-tier cache of card image bytes (ImageData thumb and full URLs): a memory LRU bounded by size in bytes, backed by
+ * a DiskCache. Concurrent requests of the same URL share a single download, and requests made by the app are downloaded
+ * before pending prefetches.
+ */
+public class ImageCache {
+
+    /**
+     * Downloads the bytes of an image
+     */
+    public interface Downloader {
+        byte[] download(String url) throws IOException;
+    }
+
+    private final DiskCache diskCache;
+    private final long memoryMaxSize;
+    private final Downloader downloader;
+    private final ThreadPoolExecutor executor;
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Load> loads = new HashMap<>();
+
+    private long memorySize;
+    private long sequence;
+    private long requestCount;
+    private long memoryHitCount;
+    private long diskHitCount;
+    private long downloadCount;
+    private long downloadedBytes;
+    private long savedBytes;
+    private long prefetchCount;
+    private long prefetchCancelCount;
+    private long failureCount;
+
+    /**
+     * @param diskCache Disk tier of the cache
+     * @param memoryMaxSize Maximum size in bytes of the images kept in memory
+     */
+    public ImageCache(DiskCache diskCache, long memoryMaxSize) {
+        this(diskCache, memoryMaxSize, Constants.IMAGE_MAX_CONCURRENT, new HttpDownloader());
+    }
+
+    /**
+     * @param diskCache Disk tier of the cache
+     * @param memoryMaxSize Maximum size in bytes of the images kept in memory
+     * @param maxConcurrent Maximum number of simultaneous downloads
+     * @param downloader Downloader of the images not found in the cache
+     */
+    public ImageCache(DiskCache diskCache, long memoryMaxSize, int maxConcurrent, Downloader downloader) {
+        this.diskCache = diskCache;
+        this.memoryMaxSize = memoryMaxSize;
+        this.downloader = downloader;
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>());
+    }
+
+    /**
+     * Retrieves the bytes of an image. Images in the memory tier are returned immediately on the calling thread,
+     * otherwise the callback is called from a download thread.
+     *
+     * @param url the image URL
+     * @param callback Instance of client callback. "onSuccess" method expects to receive the image bytes
+     */
+    public void get(String url, ClientCallback<byte[]> callback) {
+        byte[] cached;
+        synchronized (this) {
+            requestCount++;
+            cached = memory.get(url);
+            if (cached != null) {
+                memoryHitCount++;
+                savedBytes += cached.length;
+            } else {
+                Load load = loads.get(url);
+                if (load == null) {
+                    load = new Load(url, true);
+                    loads.put(url, load);
+                    load.callbacks.add(callback);
+                    executor.execute(load);
+                } else {
+                    load.callbacks.add(callback);
+                    if (!load.urgent && executor.remove(load)) {
+                        load.urgent = true;
+                        executor.execute(load);
+                    }
+                }
+            }
+        }
+        if (cached != null)
+            callback.onSuccess(cached);
+    }
+
+    /**
+     * Loads an image into the cache, after the images requested with "get"
+     *
+     * @param url the image URL
+     * @return true if the image was queued, false if it is already cached or being loaded
+     */
+    public boolean prefetch(String url) {
+        return prefetch(url, null);
+    }
+
+    /**
+     * Loads an image into the cache, after the images requested with "get"
+     *
+     * @param url the image URL
+     * @param callback Callback called from a download thread once the image is loaded or failed to load, or null. It is
+     *                 not called if the prefetch is cancelled
+     * @return true if the image was queued, false if it is already cached or being loaded
+     */
+    public synchronized boolean prefetch(String url, ClientCallback<byte[]> callback) {
+        if (url == null || memory.containsKey(url) || loads.containsKey(url))
+            return false;
+        Load load = new Load(url, false);
+        load.prefetchCallback = callback;
+        loads.put(url, load);
+        prefetchCount++;
+        executor.execute(load);
+        return true;
+    }
+
+    /**
+     * Cancels the prefetch of an image if it has not started and no caller is waiting for it
+     *
+     * @param url the image URL
+     */
+    public synchronized void cancelPrefetch(String url) {
+        Load load = loads.get(url);
+        if (load != null && !load.urgent && load.callbacks.isEmpty() && executor.remove(load)) {
+            loads.remove(url);
+            prefetchCancelCount++;
+        }
+    }
+
+    public synchronized void clearMemory() {
+        memory.clear();
+        memorySize = 0;
+    }
+
+    private void load(Load load) {
+        byte[] bytes = null;
+        boolean fromCache = false;
+        DiskCache.Entry entry = diskCache.get(load.url);
+        if (entry != null) {
+            bytes = entry.getPayload();
+            fromCache = true;
+        } else {
+            try {
+                bytes = downloader.download(load.url);
+                diskCache.put(load.url, Constants.IMAGE_SERVICE_NAME, bytes);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        List<ClientCallback<byte[]>> callbacks;
+        synchronized (this) {
+            loads.remove(load.url);
+            callbacks = new ArrayList<>(load.callbacks);
+            if (bytes == null) {
+                failureCount++;
+            } else {
+                if (fromCache) {
+                    diskHitCount += callbacks.size();
+                    savedBytes += (long) bytes.length * callbacks.size();
+                } else {
+                    downloadCount++;
+                    downloadedBytes += bytes.length;
+                }
+                putInMemory(load.url, bytes);
+            }
+            if (load.prefetchCallback != null)
+                callbacks.add(load.prefetchCallback);
+        }
+        for (ClientCallback<byte[]> callback : callbacks) {
+            if (bytes == null)
+                callback.onFailure(RestAPIError.INTERNAL_ERROR);
+            else
+                callback.onSuccess(bytes);
+        }
+    }
+
+    private void putInMemory(String url, byte[] bytes) {
+        if (bytes.length > memoryMaxSize)
+            return;
+        byte[] previous = memory.put(url, bytes);
+        if (previous != null)
+            memorySize -= previous.length;
+        memorySize += bytes.length;
+        Iterator<Map.Entry<String, byte[]>> iterator = memory.entrySet().iterator();
+        while (memorySize > memoryMaxSize && iterator.hasNext()) {
+            memorySize -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+    }
+
+    public synchronized long getMemorySize() {
+        return memorySize;
+    }
+
+    public long getMemoryMaxSize() {
+        return memoryMaxSize;
+    }
+
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized long getMemoryHitCount() {
+        return memoryHitCount;
+    }
+
+    public synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    public synchronized long getDownloadCount() {
+        return downloadCount;
+    }
+
+    public synchronized long getDownloadedBytes() {
+        return downloadedBytes;
+    }
+
+    /**
+     * @return bytes served to "get" from the memory or disk tier, which were not downloaded again
+     */
+    public synchronized long getSavedBytes() {
+        return savedBytes;
+    }
+
+    /**
+     * @return ratio of "get" requests served from the memory or disk tier
+     */
+    public synchronized double getHitRate() {
+        return requestCount == 0 ? 0 : (double) (memoryHitCount + diskHitCount) / requestCount;
+    }
+
+    public synchronized long getPrefetchCount() {
+        return prefetchCount;
+    }
+
+    public synchronized long getPrefetchCancelCount() {
+        return prefetchCancelCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ImageCache{memorySize=" + memorySize + ", requests=" + requestCount + ", memoryHits=" + memoryHitCount
+                + ", diskHits=" + diskHitCount + ", downloads=" + downloadCount + ", downloadedBytes=" + downloadedBytes
+                + ", savedBytes=" + savedBytes + ", prefetches=" + prefetchCount + ", failures=" + failureCount + "}";
+    }
+
+    private class Load implements Runnable, Comparable<Load> {
+        private final String url;
+        private final long sequence;
+        private final List<ClientCallback<byte[]>> callbacks = new ArrayList<>();
+        private ClientCallback<byte[]> prefetchCallback;
+        private boolean urgent;
+
+        private Load(String url, boolean urgent) {
+            this.url = url;
+            this.urgent = urgent;
+            this.sequence = ImageCache.this.sequence++;
+        }
+
+        @Override
+        public void run() {
+            load(this);
+        }
+
+        @Override
+        public int compareTo(Load other) {
+            if (urgent != other.urgent)
+                return urgent ? -1 : 1;
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    private static class HttpDownloader implements Downloader {
+        @Override
+        public byte[] download(String url) throws IOException {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            try {
+                connection.setConnectTimeout(Constants.IMAGE_CONNECT_TIMEOUT);
+                connection.setReadTimeout(Constants.IMAGE_READ_TIMEOUT);
+                int status = connection.getResponseCode();
+                if (status != HttpURLConnection.HTTP_OK)
+                    throw new IOException("Unexpected status " + status + " downloading " + url);
+                InputStream in = connection.getInputStream();
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(connection.getContentLength(), 1024));
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1)
+                        out.write(buffer, 0, read);
+                    return out.toByteArray();
+                } finally {
+                    in.close();
+                }
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package sdk.client.dive.tv.cache;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.socket.SceneObserver;
+
+/**
+ * Loads the thumbnails of the cards of the current scene into the image cache before the app renders them.
+ * Prefetches that did not start are cancelled when the scene ends. It is disabled until enabled with
+ * {@link #setEnabled(boolean)}, since it downloads the thumbnail of every scene card.
+ */
+public class ImagePrefetcher implements SceneObserver {
+
+    private final ImageCache imageCache;
+    private final Set<String> pending = new HashSet<>();
+
+    private volatile boolean enabled;
+
+    public ImagePrefetcher(ImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled)
+            onSceneCleared();
+    }
+
+    @Override
+    public synchronized void onSceneCards(List<Card> cards) {
+        if (!enabled)
+            return;
+        for (Card card : cards) {
+            if (card == null || card.getImage() == null)
+                continue;
+            final String url = card.getImage().getThumb();
+            if (url != null && imageCache.prefetch(url, new ClientCallback<byte[]>() {
+                @Override
+                public void onFailure(RestAPIError message) {
+                    complete(url);
+                }
+
+                @Override
+                public void onSuccess(byte[] result) {
+                    complete(url);
+                }
+            }))
+                pending.add(url);
+        }
+    }
+
+    @Override
+    public synchronized void onSceneCleared() {
+        for (String url : pending)
+            imageCache.cancelPrefetch(url);
+        pending.clear();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized void complete(String url) {
+        pending.remove(url);
+    }
+}
@@ -0,0 +1,329 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiException;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
+
+/**
+ * Persistent cache of REST responses on top of a {@link DiskCache}, with a time to live for each service name.
+ * Entries older than their time to live, but not older than the max stale period of the service, are served immediately while a
+ * background call refreshes them. Responses are stored in the binary form of a {@link BinaryCodec}, which is smaller and
+ * faster to read back than JSON. Responses are encoded when they are received, before the client can modify them, and
+ * disk access and decoding run on a dedicated thread. The API calls of the misses and revalidations are handed back to
+ * the executor of the caller.
+ */
+public class ResponseCache {
+
+    /**
+     * REST call that fills the cache on a miss or a revalidation.
+     *
+     * @param <T> The return type
+     */
+    public interface NetworkCall<T> {
+
+        /**
+         * Executes the asynchronous API call.
+         *
+         * @param callback Instance of client callback that receives the response
+         * @throws ApiException If fail to call the API
+         */
+        void execute(ClientCallback<T> callback) throws ApiException;
+    }
+
+    private final DiskCache diskCache;
+    private final BinaryCodec codec;
+    private final Executor executor;
+    private final Executor networkExecutor;
+    private final Map<String, Policy> policies;
+    private final Set<String> revalidating;
+
+    private final AtomicLong freshHitCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param diskCache Disk cache where the responses are stored
+     * @param gson Gson instance of the API client, used to encode the responses
+     * @param networkExecutor Executor on which the API calls are made, so that the disk thread never makes them
+     */
+    public ResponseCache(DiskCache diskCache, Gson gson, Executor networkExecutor) {
+        this(diskCache, gson, Executors.newSingleThreadExecutor(), networkExecutor);
+    }
+
+    /**
+     * @param diskCache Disk cache where the responses are stored
+     * @param gson Gson instance of the API client, used to encode the responses
+     * @param diskExecutor Executor of the disk access
+     * @param networkExecutor Executor on which the API calls are made
+     */
+    ResponseCache(DiskCache diskCache, Gson gson, Executor diskExecutor, Executor networkExecutor) {
+        this.diskCache = diskCache;
+        this.codec = new BinaryCodec(gson);
+        this.executor = diskExecutor;
+        this.networkExecutor = networkExecutor;
+        this.policies = new ConcurrentHashMap<>();
+        this.revalidating = Collections.synchronizedSet(new HashSet<String>());
+        setPolicy(Constants.GET_CARD_SERVICE_NAME, Constants.DISK_CACHE_CARD_TTL, Constants.DISK_CACHE_MAX_STALE);
+        setPolicy(Constants.GET_CARD_VERSION_SERVICE_NAME, Constants.DISK_CACHE_CARD_TTL, Constants.DISK_CACHE_MAX_STALE);
+        setPolicy(Constants.GET_CATALOG_MOVIE_SERVICE_NAME, Constants.DISK_CACHE_CATALOG_MOVIE_TTL, Constants.DISK_CACHE_MAX_STALE);
+        setPolicy(Constants.GET_STATIC_MOVIE_SCENE_SERVICE_NAME, Constants.DISK_CACHE_STATIC_MOVIE_SCENE_TTL, Constants.DISK_CACHE_MAX_STALE);
+        setPolicy(Constants.GET_CHANNEL_MOVIE_SERVICE_NAME, Constants.DISK_CACHE_CHANNEL_MOVIE_TTL, 0);
+    }
+
+    /**
+     * Sets how long the responses of a service are cached
+     *
+     * @param serviceName One of the "Constants.*_SERVICE_NAME" values
+     * @param timeToLive Time in milliseconds during which a response is served without revalidation. Zero or negative
+     *                   values disable the cache for the service
+     * @param maxStale Time in milliseconds after the expiration of a response during which it is still served while it
+     *                 is revalidated in background
+     */
+    public void setPolicy(String serviceName, long timeToLive, long maxStale) {
+        if (timeToLive > 0)
+            this.policies.put(serviceName, new Policy(timeToLive, Math.max(0, maxStale)));
+        else
+            this.policies.remove(serviceName);
+    }
+
+    /**
+     * @param stringPool Pool shared by the strings of the responses read from disk, or null
+     */
+    public void setStringPool(InternPool<String> stringPool) {
+        this.codec.setStringPool(stringPool);
+    }
+
+    public DiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    public long getFreshHitCount() {
+        return freshHitCount.get();
+    }
+
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Builds a cache key from the service name and the request parameters that identify the response
+     *
+     * @param serviceName One of the "Constants.*_SERVICE_NAME" values
+     * @param params Request parameters
+     * @return the cache key
+     */
+    public static String key(String serviceName, Object... params) {
+        StringBuilder builder = new StringBuilder(serviceName);
+        for (Object param : params)
+            builder.append('|').append(param);
+        return builder.toString();
+    }
+
+    /**
+     * Serves a response from the cache, calling the API on a miss and revalidating stale entries in background
+     *
+     * @param serviceName One of the "Constants.*_SERVICE_NAME" values
+     * @param key Cache key, see {@link #key(String, Object...)}
+     * @param type Type of the response
+     * @param callback Instance of client callback
+     * @param networkCall API call that retrieves the response
+     * @param <T> The return type
+     */
+    public <T> void get(String serviceName, String key, Type type, ClientCallback<T> callback, NetworkCall<T> networkCall) {
+        get(serviceName, key, type, callback, networkCall, null);
+    }
+
+    /**
+     * Serves a response from the cache, calling the API on a miss and revalidating stale entries in background
+     *
+     * @param serviceName One of the "Constants.*_SERVICE_NAME" values
+     * @param key Cache key, see {@link #key(String, Object...)}
+     * @param type Type of the response
+     * @param callback Instance of client callback
+     * @param networkCall API call that retrieves the response
+     * @param revalidation Callback that receives the response of a background revalidation, e.g. to replace the stale
+     *                     response kept in memory by the caller, or null
+     * @param <T> The return type
+     */
+    public <T> void get(final String serviceName, final String key, final Type type, final ClientCallback<T> callback,
+                        final NetworkCall<T> networkCall, final ClientCallback<T> revalidation) {
+        final Policy policy = policies.get(serviceName);
+        if (policy == null) {
+            execute(networkCall, callback);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                DiskCache.Entry entry = diskCache.get(key);
+                T cached = entry != null ? ResponseCache.this.<T>decode(entry, type) : null;
+                if (cached != null) {
+                    long age = now() - entry.getStoredAt();
+                    if (age <= policy.timeToLive) {
+                        freshHitCount.incrementAndGet();
+                        callback.onSuccess(cached);
+                        return;
+                    }
+                    if (age <= policy.timeToLive + policy.maxStale) {
+                        staleHitCount.incrementAndGet();
+                        callback.onSuccess(cached);
+                        revalidate(serviceName, key, networkCall, revalidation);
+                        return;
+                    }
+                }
+                missCount.incrementAndGet();
+                executeLater(networkCall, new StoreCallback<>(serviceName, key, callback));
+            }
+        });
+    }
+
+    /**
+     * Removes the cached responses whose key starts with the given prefix
+     *
+     * @param keyPrefix Key prefix, see {@link #key(String, Object...)}
+     */
+    public void invalidate(final String keyPrefix) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                diskCache.removeByPrefix(keyPrefix);
+            }
+        });
+    }
+
+    /**
+     * Removes all the cached responses
+     */
+    public void clear() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                diskCache.clear();
+            }
+        });
+    }
+
+    private <T> void revalidate(String serviceName, final String key, NetworkCall<T> networkCall,
+                                final ClientCallback<T> revalidation) {
+        if (!revalidating.add(key))
+            return;
+        executeLater(networkCall, new StoreCallback<>(serviceName, key, new ClientCallback<T>() {
+            @Override
+            public void onFailure(RestAPIError message) {
+                revalidating.remove(key);
+            }
+
+            @Override
+            public void onSuccess(T result) {
+                revalidating.remove(key);
+                if (revalidation != null && result != null)
+                    revalidation.onSuccess(result);
+            }
+        }));
+    }
+
+    long now() {
+        return System.currentTimeMillis();
+    }
+
+    private <T> void executeLater(final NetworkCall<T> networkCall, final ClientCallback<T> callback) {
+        networkExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                execute(networkCall, callback);
+            }
+        });
+    }
+
+    private <T> void execute(NetworkCall<T> networkCall, ClientCallback<T> callback) {
+        try {
+            networkCall.execute(callback);
+        } catch (ApiException e) {
+            e.printStackTrace();
+            callback.onFailure(RestAPIError.INTERNAL_ERROR);
+        }
+    }
+
+    private <T> T decode(DiskCache.Entry entry, Type type) {
+        try {
+            return codec.decode(entry.getPayload(), type);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            diskCache.remove(entry.getKey());
+            return null;
+        }
+    }
+
+    private byte[] encode(Object response) {
+        try {
+            return codec.encode(response);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static class Policy {
+        private final long timeToLive;
+        private final long maxStale;
+
+        private Policy(long timeToLive, long maxStale) {
+            this.timeToLive = timeToLive;
+            this.maxStale = maxStale;
+        }
+    }
+
+    /**
+     * ClientCallback decorator that encodes successful responses before handing them to the client callback, and stores
+     * them on disk in background.
+     */
+    private class StoreCallback<T> implements ClientCallback<T> {
+
+        private final String serviceName;
+        private final String key;
+        private final ClientCallback<T> callback;
+
+        private StoreCallback(String serviceName, String key, ClientCallback<T> callback) {
+            this.serviceName = serviceName;
+            this.key = key;
+            this.callback = callback;
+        }
+
+        @Override
+        public void onFailure(RestAPIError message) {
+            callback.onFailure(message);
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            final byte[] payload = result != null ? encode(result) : null;
+            if (payload != null) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        diskCache.put(key, serviceName, payload);
+                    }
+                });
+            }
+            callback.onSuccess(result);
+        }
+    }
+}
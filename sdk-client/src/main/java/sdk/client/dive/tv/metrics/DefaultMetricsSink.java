@@ -0,0 +1,132 @@
+package sdk.client.dive.tv.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory MetricsSink, keeping a LatencyHistogram per REST service, token grant, socket phase and stream event, and
+ * PayloadSizeStats per REST service and request profile. Recording is lock-free and, once the histogram of a name
+ * exists, does not allocate. The collected metrics are read with "snapshot".
+ */
+public class DefaultMetricsSink implements MetricsSink {
+
+    private final ConcurrentMap<String, LatencyHistogram> rest = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> parse = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> dispatch = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, PayloadSizeStats>> payload = new ConcurrentHashMap<>();
+    private final LatencyHistogram tokenFetch = new LatencyHistogram();
+    private final LatencyHistogram tokenRefresh = new LatencyHistogram();
+    private final LatencyHistogram socketConnect = new LatencyHistogram();
+    private final LatencyHistogram socketAuthenticate = new LatencyHistogram();
+    private final AtomicLong reconnectCount = new AtomicLong();
+    private final AtomicLong reconnectFailedCount = new AtomicLong();
+
+    @Override
+    public void onRestCall(String service, long durationNanos, int statusCode, boolean success) {
+        LatencyHistogram histogram = histogram(rest, service);
+        histogram.record(durationNanos);
+        if (!success)
+            histogram.recordError();
+    }
+
+    @Override
+    public void onRestPayload(String service, String profile, long bytes) {
+        ConcurrentMap<String, PayloadSizeStats> profiles = payload.get(service);
+        if (profiles == null) {
+            ConcurrentMap<String, PayloadSizeStats> created = new ConcurrentHashMap<>();
+            profiles = payload.putIfAbsent(service, created);
+            if (profiles == null)
+                profiles = created;
+        }
+        // ConcurrentHashMap does not allow null keys
+        String name = profile != null ? profile : "";
+        PayloadSizeStats stats = profiles.get(name);
+        if (stats == null) {
+            PayloadSizeStats created = new PayloadSizeStats();
+            stats = profiles.putIfAbsent(name, created);
+            if (stats == null)
+                stats = created;
+        }
+        stats.record(bytes);
+    }
+
+    @Override
+    public void onTokenRequest(boolean refresh, long durationNanos, boolean success) {
+        LatencyHistogram histogram = refresh ? tokenRefresh : tokenFetch;
+        histogram.record(durationNanos);
+        if (!success)
+            histogram.recordError();
+    }
+
+    @Override
+    public void onSocketConnect(long durationNanos) {
+        socketConnect.record(durationNanos);
+    }
+
+    @Override
+    public void onSocketAuthenticate(long durationNanos) {
+        socketAuthenticate.record(durationNanos);
+    }
+
+    @Override
+    public void onReconnect() {
+        reconnectCount.incrementAndGet();
+    }
+
+    @Override
+    public void onReconnectFailed() {
+        reconnectFailedCount.incrementAndGet();
+    }
+
+    @Override
+    public void onStreamEventParsed(String event, long durationNanos) {
+        histogram(parse, event).record(durationNanos);
+    }
+
+    @Override
+    public void onStreamEventDispatched(String event, long durationNanos) {
+        histogram(dispatch, event).record(durationNanos);
+    }
+
+    private static LatencyHistogram histogram(ConcurrentMap<String, LatencyHistogram> histograms, String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(name, created);
+            if (histogram == null)
+                histogram = created;
+        }
+        return histogram;
+    }
+
+    /**
+     * @return a copy of the metrics collected so far
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(snapshot(rest), tokenFetch.snapshot(), tokenRefresh.snapshot(),
+                socketConnect.snapshot(), socketAuthenticate.snapshot(), reconnectCount.get(),
+                reconnectFailedCount.get(), snapshot(parse), snapshot(dispatch), payloadSnapshot());
+    }
+
+    private Map<String, Map<String, PayloadSizeStats.Snapshot>> payloadSnapshot() {
+        Map<String, Map<String, PayloadSizeStats.Snapshot>> snapshots = new TreeMap<>();
+        for (Map.Entry<String, ConcurrentMap<String, PayloadSizeStats>> service : payload.entrySet()) {
+            Map<String, PayloadSizeStats.Snapshot> profiles = new TreeMap<>();
+            for (Map.Entry<String, PayloadSizeStats> entry : service.getValue().entrySet())
+                profiles.put(entry.getKey(), entry.getValue().snapshot());
+            snapshots.put(service.getKey(), Collections.unmodifiableMap(profiles));
+        }
+        return snapshots;
+    }
+
+    private static Map<String, LatencyHistogram.Snapshot> snapshot(Map<String, LatencyHistogram> histograms) {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet())
+            snapshots.put(entry.getKey(), entry.getValue().snapshot());
+        return snapshots;
+    }
+}
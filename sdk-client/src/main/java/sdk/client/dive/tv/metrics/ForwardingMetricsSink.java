@@ -0,0 +1,85 @@
+package sdk.client.dive.tv.metrics;
+
+/**
+ * MetricsSink that forwards the measurements to a replaceable sink, so that the sink can be changed after the SDK
+ * components have been created. Measurements are dropped while there is no sink.
+ */
+public class ForwardingMetricsSink implements MetricsSink {
+
+    private volatile MetricsSink delegate;
+
+    public ForwardingMetricsSink(MetricsSink delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setDelegate(MetricsSink delegate) {
+        this.delegate = delegate;
+    }
+
+    public MetricsSink getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void onRestCall(String service, long durationNanos, int statusCode, boolean success) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onRestCall(service, durationNanos, statusCode, success);
+    }
+
+    @Override
+    public void onRestPayload(String service, String profile, long bytes) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onRestPayload(service, profile, bytes);
+    }
+
+    @Override
+    public void onTokenRequest(boolean refresh, long durationNanos, boolean success) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onTokenRequest(refresh, durationNanos, success);
+    }
+
+    @Override
+    public void onSocketConnect(long durationNanos) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onSocketConnect(durationNanos);
+    }
+
+    @Override
+    public void onSocketAuthenticate(long durationNanos) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onSocketAuthenticate(durationNanos);
+    }
+
+    @Override
+    public void onReconnect() {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onReconnect();
+    }
+
+    @Override
+    public void onReconnectFailed() {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onReconnectFailed();
+    }
+
+    @Override
+    public void onStreamEventParsed(String event, long durationNanos) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onStreamEventParsed(event, durationNanos);
+    }
+
+    @Override
+    public void onStreamEventDispatched(String event, long durationNanos) {
+        MetricsSink sink = delegate;
+        if (sink != null)
+            sink.onStreamEventDispatched(event, durationNanos);
+    }
+}
@@ -0,0 +1,128 @@
+package sdk.client.dive.tv.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Lock-free histogram of durations, with power-of-two microsecond buckets: bucket 0 counts durations under 1 us and
+ * bucket i durations from 2^(i-1) us to 2^i us, the last one being unbounded. Recording a duration does not allocate.
+ */
+public class LatencyHistogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(Constants.METRICS_HISTOGRAM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long durationNanos) {
+        long nanos = Math.max(0, durationNanos);
+        buckets.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos))
+            max = maxNanos.get();
+    }
+
+    public void recordError() {
+        errorCount.incrementAndGet();
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, Constants.METRICS_HISTOGRAM_BUCKETS - 1);
+    }
+
+    /**
+     * @return upper bound in nanoseconds of a bucket, or Long.MAX_VALUE for the last one
+     */
+    static long bucketUpperBound(int bucket) {
+        return bucket >= Constants.METRICS_HISTOGRAM_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) * 1000;
+    }
+
+    /**
+     * @return a copy of the histogram. Values recorded meanwhile may be partially included.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[buckets.length()];
+        for (int i = 0; i < copy.length; i++)
+            copy[i] = buckets.get(i);
+        return new Snapshot(copy, count.get(), errorCount.get(), totalNanos.get(), maxNanos.get());
+    }
+
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long errorCount;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] buckets, long count, long errorCount, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.errorCount = errorCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * @return number of durations of each bucket
+         */
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+
+        /**
+         * Approximates a percentile with the upper bound of its bucket, capped by the maximum duration
+         *
+         * @param percentile Percentile, between 0 and 100
+         * @return the duration in nanoseconds, or 0 if there is none
+         */
+        public long getPercentileNanos(double percentile) {
+            long total = 0;
+            for (long bucketCount : buckets)
+                total += bucketCount;
+            if (total == 0)
+                return 0;
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0)
+                    return Math.min(bucketUpperBound(i), maxNanos);
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", errors=" + errorCount + ", mean=" + getMeanNanos() / 1000 + "us, p50="
+                    + getPercentileNanos(50) / 1000 + "us, p95=" + getPercentileNanos(95) / 1000 + "us, p99="
+                    + getPercentileNanos(99) / 1000 + "us, max=" + maxNanos / 1000 + "us";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package sdk.client.dive.tv.metrics;
+
+/**
+ * Receiver of the measurements taken by the SDK. Methods are called on the thread that takes the measurement (REST
+ * callback threads, socket.io event thread, listener delivery thread), so implementations must be thread safe and
+ * return quickly. Durations are in nanoseconds.
+ */
+public interface MetricsSink {
+
+    /**
+     * A REST call completed, from the request to its callback, including the wait for an access token
+     *
+     * @param service Service name, one of the Constants.*_SERVICE_NAME
+     * @param durationNanos Duration of the call
+     * @param statusCode HTTP status code, or 0 if there is no response
+     * @param success false if the call failed
+     */
+    void onRestCall(String service, long durationNanos, int statusCode, boolean success);
+
+    /**
+     * The response payload of a REST call was downloaded
+     *
+     * @param service Service name, one of the Constants.*_SERVICE_NAME
+     * @param profile Name of the request profile of the call, or null for the services without profiles
+     * @param bytes Size of the payload as transferred, i.e. compressed if the server compressed it
+     */
+    void onRestPayload(String service, String profile, long bytes);
+
+    /**
+     * An access token request completed
+     *
+     * @param refresh true for a refresh token grant, false for a new token requested with the device credentials
+     * @param durationNanos Duration of the request
+     * @param success false if the request failed
+     */
+    void onTokenRequest(boolean refresh, long durationNanos, boolean success);
+
+    /**
+     * A stream socket connected, from its opening (or its reconnection attempt) to the connect event
+     */
+    void onSocketConnect(long durationNanos);
+
+    /**
+     * A stream socket was authenticated, from the connect event to the authenticated event
+     */
+    void onSocketAuthenticate(long durationNanos);
+
+    /**
+     * A stream connection was reconnected
+     */
+    void onReconnect();
+
+    /**
+     * A stream connection gave up reconnecting
+     */
+    void onReconnectFailed();
+
+    /**
+     * The payload of a stream event was parsed
+     *
+     * @param event Stream event name, e.g. scene_start
+     * @param durationNanos Parse duration
+     */
+    void onStreamEventParsed(String event, long durationNanos);
+
+    /**
+     * A stream event was delivered to the SocketListener, from its reception to the return of the listener call
+     *
+     * @param event Stream event name, e.g. scene_start
+     * @param durationNanos Dispatch duration, including the wait in the dispatcher queue
+     */
+    void onStreamEventDispatched(String event, long durationNanos);
+}
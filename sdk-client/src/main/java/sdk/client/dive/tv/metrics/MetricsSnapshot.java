@@ -0,0 +1,123 @@
+package sdk.client.dive.tv.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Copy of the metrics collected by a DefaultMetricsSink
+ */
+public class MetricsSnapshot {
+
+    private final Map<String, LatencyHistogram.Snapshot> rest;
+    private final LatencyHistogram.Snapshot tokenFetch;
+    private final LatencyHistogram.Snapshot tokenRefresh;
+    private final LatencyHistogram.Snapshot socketConnect;
+    private final LatencyHistogram.Snapshot socketAuthenticate;
+    private final long reconnectCount;
+    private final long reconnectFailedCount;
+    private final Map<String, LatencyHistogram.Snapshot> parse;
+    private final Map<String, LatencyHistogram.Snapshot> dispatch;
+    private final Map<String, Map<String, PayloadSizeStats.Snapshot>> payload;
+
+    MetricsSnapshot(Map<String, LatencyHistogram.Snapshot> rest, LatencyHistogram.Snapshot tokenFetch,
+                    LatencyHistogram.Snapshot tokenRefresh, LatencyHistogram.Snapshot socketConnect,
+                    LatencyHistogram.Snapshot socketAuthenticate, long reconnectCount, long reconnectFailedCount,
+                    Map<String, LatencyHistogram.Snapshot> parse, Map<String, LatencyHistogram.Snapshot> dispatch,
+                    Map<String, Map<String, PayloadSizeStats.Snapshot>> payload) {
+        this.rest = Collections.unmodifiableMap(rest);
+        this.tokenFetch = tokenFetch;
+        this.tokenRefresh = tokenRefresh;
+        this.socketConnect = socketConnect;
+        this.socketAuthenticate = socketAuthenticate;
+        this.reconnectCount = reconnectCount;
+        this.reconnectFailedCount = reconnectFailedCount;
+        this.parse = Collections.unmodifiableMap(parse);
+        this.dispatch = Collections.unmodifiableMap(dispatch);
+        this.payload = Collections.unmodifiableMap(payload);
+    }
+
+    /**
+     * @return latency histograms of the REST calls by service name, with their error count
+     */
+    public Map<String, LatencyHistogram.Snapshot> getRest() {
+        return rest;
+    }
+
+    /**
+     * @return histogram of the access tokens requested with the device credentials
+     */
+    public LatencyHistogram.Snapshot getTokenFetch() {
+        return tokenFetch;
+    }
+
+    /**
+     * @return histogram of the access tokens requested with the refresh token
+     */
+    public LatencyHistogram.Snapshot getTokenRefresh() {
+        return tokenRefresh;
+    }
+
+    public LatencyHistogram.Snapshot getSocketConnect() {
+        return socketConnect;
+    }
+
+    public LatencyHistogram.Snapshot getSocketAuthenticate() {
+        return socketAuthenticate;
+    }
+
+    public long getReconnectCount() {
+        return reconnectCount;
+    }
+
+    public long getReconnectFailedCount() {
+        return reconnectFailedCount;
+    }
+
+    /**
+     * @return parse time histograms by stream event name
+     */
+    public Map<String, LatencyHistogram.Snapshot> getParse() {
+        return parse;
+    }
+
+    /**
+     * @return dispatch time histograms by stream event name
+     */
+    public Map<String, LatencyHistogram.Snapshot> getDispatch() {
+        return dispatch;
+    }
+
+    /**
+     * @return response payload sizes by service name, then by request profile name, the empty name standing for the
+     * calls without profile
+     */
+    public Map<String, Map<String, PayloadSizeStats.Snapshot>> getPayload() {
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("MetricsSnapshot{\n");
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : rest.entrySet())
+            builder.append("  rest ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        builder.append("  token fetch: ").append(tokenFetch).append('\n');
+        builder.append("  token refresh: ").append(tokenRefresh).append('\n');
+        builder.append("  socket connect: ").append(socketConnect).append('\n');
+        builder.append("  socket authenticate: ").append(socketAuthenticate).append('\n');
+        builder.append("  reconnects: ").append(reconnectCount).append(", failed: ").append(reconnectFailedCount)
+                .append('\n');
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : parse.entrySet())
+            builder.append("  parse ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : dispatch.entrySet())
+            builder.append("  dispatch ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        for (Map.Entry<String, Map<String, PayloadSizeStats.Snapshot>> service : payload.entrySet()) {
+            for (Map.Entry<String, PayloadSizeStats.Snapshot> entry : service.getValue().entrySet()) {
+                builder.append("  payload ").append(service.getKey());
+                if (!entry.getKey().isEmpty())
+                    builder.append(' ').append(entry.getKey());
+                builder.append(": ").append(entry.getValue()).append('\n');
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,63 @@
+package sdk.client.dive.tv.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free count, total and maximum of the sizes of the response payloads of a REST service and request profile.
+ * Recording a size does not allocate.
+ */
+public class PayloadSizeStats {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong maxBytes = new AtomicLong();
+
+    public void record(long bytes) {
+        long size = Math.max(0, bytes);
+        count.incrementAndGet();
+        totalBytes.addAndGet(size);
+        long max = maxBytes.get();
+        while (size > max && !maxBytes.compareAndSet(max, size))
+            max = maxBytes.get();
+    }
+
+    /**
+     * @return a copy of the stats. Sizes recorded meanwhile may be partially included.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(count.get(), totalBytes.get(), maxBytes.get());
+    }
+
+    public static class Snapshot {
+        private final long count;
+        private final long totalBytes;
+        private final long maxBytes;
+
+        private Snapshot(long count, long totalBytes, long maxBytes) {
+            this.count = count;
+            this.totalBytes = totalBytes;
+            this.maxBytes = maxBytes;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public long getMeanBytes() {
+            return count == 0 ? 0 : totalBytes / count;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", mean=" + getMeanBytes() + "B, total=" + totalBytes + "B, max=" + maxBytes + "B";
+        }
+    }
+}
@@ -7,36 +7,51 @@ import java.lang.reflect.Proxy;
 import com.touchvie.sdk.ApiCallback;
 import com.touchvie.sdk.ApiException;
 import com.touchvie.sdk.api.DefaultApi;
-import com.touchvie.sdk.model.AccessToken;
 import com.touchvie.sdk.api.InterfaceApi;
+import com.touchvie.sdk.model.AccessToken;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.ChannelStatus;
+import com.touchvie.sdk.model.MovieStatus;
+import com.touchvie.sdk.model.TvGrid;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.callbacks.TokenCallback;
 import sdk.client.dive.tv.rest.enums.RestAPIError;
 import sdk.client.dive.tv.utils.Constants;
-import sdk.client.dive.tv.utils.SharedPreferencesHelper;
 
 public class DefaultApiWrapper extends DefaultApi implements InterfaceApi , InvocationHandler {
 
+    /**
+     * Dispatch table of the InterfaceApi methods, by method name, built once for all the wrappers
+     */
+    private static final Map<String, ApiInvoker> INVOKERS = createInvokers();
+
     private final DefaultApi delegate;
-    private final SharedPreferencesHelper sharedPreferences;
+    private final TokenManager tokenManager;
+    private final Map<String, ApiInvoker> invokers;
+    private final Map<Method, Method> reflectiveMethods;
 
-    private final String basicAuthToken;
-    private final String deviceId;
+    public DefaultApiWrapper(DefaultApi delegate, TokenManager tokenManager) {
+        this(delegate, tokenManager, INVOKERS);
+    }
 
-    public DefaultApiWrapper(DefaultApi delegate, SharedPreferencesHelper sharedPreferences) {
+    DefaultApiWrapper(DefaultApi delegate, TokenManager tokenManager, Map<String, ApiInvoker> invokers) {
         this.delegate = delegate;
-        this.sharedPreferences = sharedPreferences;
-        this.basicAuthToken = this.sharedPreferences.getBasicAuthToken();
-        this.deviceId = this.sharedPreferences.getDeviceId();
+        this.tokenManager = tokenManager;
+        this.invokers = invokers;
+        this.reflectiveMethods = new ConcurrentHashMap<>();
     }
 
-    public static InterfaceApi wrap(DefaultApi wrapped, SharedPreferencesHelper settings) {
-        return (InterfaceApi) Proxy.newProxyInstance(DefaultApi.class.getClassLoader(), new Class[] { InterfaceApi.class }, new DefaultApiWrapper(wrapped, settings));
+    public static InterfaceApi wrap(DefaultApi wrapped, TokenManager tokenManager) {
+        return (InterfaceApi) Proxy.newProxyInstance(DefaultApi.class.getClassLoader(), new Class[] { InterfaceApi.class }, new DefaultApiWrapper(wrapped, tokenManager));
     }
 
     @Override
@@ -44,16 +59,11 @@ public class DefaultApiWrapper extends DefaultApi implements InterfaceApi , Invo
 
         String accessToken = getAccessToken(args);
         if(accessToken == null || accessToken.length() == 0) {
-            if(accessToken == null)
-                return tokenCall(TokenCallType.TOKEN, method, args);
-            else
-                return tokenCall(TokenCallType.REFRESH_TOKEN, method, args);
+            tokenManager.requestToken(tokenCallback(getCallback(args), method, args));
+            return null;
         } else {
-            Method m = findMethod(delegate.getClass(), method);
-            if (m != null)
-                return m.invoke(delegate, args);
+            return dispatch(method, args);
         }
-        return null;
     }
 
     /**
@@ -67,43 +77,43 @@ public class DefaultApiWrapper extends DefaultApi implements InterfaceApi , Invo
     }
 
     /**
-     * @param clazz DefaultAPI class
+     * Calls the delegate API method through the dispatch table. Methods missing from the table are resolved by
+     * reflection only once, and then cached
+     *
      * @param method the API method definition to invoke
-     * @return the API method to invoke
+     * @param args Array of API method arguments
+     * @return Call object of async call.
      * @throws Throwable
      */
-    private Method findMethod(Class<?> clazz, Method method) throws Throwable {
-        try {
-            return clazz.getDeclaredMethod(method.getName(), method.getParameterTypes());
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
+    private Object dispatch(Method method, Object[] args) throws Throwable {
+        ApiInvoker invoker = invokers.get(method.getName());
+        if (invoker != null)
+            return invoker.invoke(delegate, args);
+        Method m = findMethod(method);
+        if (m == null)
             return null;
+        try {
+            return m.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
     }
 
     /**
-     * @param callType Type of token call. Allowed values: TOKEN | REFRESH_TOKEN
      * @param method the API method definition to invoke
-     * @param args Array of API method arguments
-     * @return Call object of async call.
+     * @return the API method to invoke
      */
-    private Object tokenCall(TokenCallType callType, Method method, Object[] args) {
-        ClientCallback callback = getCallback(args);
-        try {
-            if(callType == TokenCallType.TOKEN) {
-                return delegate.postTokenAsync(basicAuthToken, Constants.DEVICE_GRANT_TYPE, null, deviceId, null, tokenCallback(callback, method, args));
-            } else if (callType == TokenCallType.REFRESH_TOKEN) {
-                String refreshToken = sharedPreferences.getRefreshToken();
-                if(refreshToken == null || refreshToken.length() == 0)
-                    return delegate.postTokenAsync(basicAuthToken, Constants.DEVICE_GRANT_TYPE, null, deviceId, null, tokenCallback(callback, method, args));
-                else
-                    return delegate.postTokenAsync(basicAuthToken, Constants.REFRESH_TOKEN_GRANT_TYPE, null, null, refreshToken, tokenCallback(callback, method, args));
-            }
-        } catch (ApiException e) {
-            e.printStackTrace();
-            callback.onFailure(RestAPIError.INTERNAL_ERROR);
+    private Method findMethod(Method method) {
+        Method m = reflectiveMethods.get(method);
+        if (m == null) {
+            try {
+                m = DefaultApi.class.getMethod(method.getName(), method.getParameterTypes());
+                reflectiveMethods.put(method, m);
+            } catch (NoSuchMethodException e) {
+                e.printStackTrace();
+            }
         }
-        return null;
+        return m;
     }
 
     /**
@@ -118,44 +128,133 @@ public class DefaultApiWrapper extends DefaultApi implements InterfaceApi , Invo
     }
 
     /**
-     * ApiCallback implementation to retrieve the response to postToken API call. In the "onSuccess" method, the AccessToken retrieved is stored on shared preferences and then the API call is made
+     * TokenCallback implementation shared with the other requests waiting for the access token. In the "onSuccess"
+     * method, the authorization argument is replaced with the access token and then the API call is made
      *
      * @param callback the Client callback implementation
      * @param method the API method definition to invoke
      * @param args Array of API method arguments
-     * @return the ApiCallback implementation
+     * @return the TokenCallback implementation
      */
-    private ApiCallback<AccessToken> tokenCallback(final ClientCallback callback, final Method method, final Object[] args) {
-        return new ApiCallback<AccessToken>() {
+    private TokenCallback tokenCallback(final ClientCallback callback, final Method method, final Object[] args) {
+        return new TokenCallback() {
             @Override
-            public void onFailure(ApiException e, int statusCode, Map<String, List<String>> headers) {
-                e.printStackTrace();
+            public void onFailure(int statusCode, ApiException e) {
                 callback.onFailure(RestAPIError.getEnum(Constants.GET_TOKEN_SERVICE_NAME, statusCode));
             }
             @Override
-            public void onSuccess(AccessToken accessToken, int statusCode, Map<String, List<String>> headers) {
-                sharedPreferences.storeToken(accessToken);
-                args[0] = Constants.TOKEN_PREFIX + accessToken.getAccessToken(); // replace the first argument (authorization)
+            public void onSuccess(String accessToken) {
+                args[0] = Constants.TOKEN_PREFIX + accessToken; // replace the first argument (authorization)
                 try {
-                    Method m = findMethod(delegate.getClass(), method);
-                    if (m != null)
-                        m.invoke(delegate, args);
+                    dispatch(method, args);
+                } catch (ApiException e) {
+                    e.printStackTrace();
+                    callback.onFailure(RestAPIError.INTERNAL_ERROR);
                 } catch (Throwable e) {
                     e.printStackTrace();
                     callback.onFailure(RestAPIError.UNEXPECTED_ERROR);
                 }
             }
-            @Override
-            // TO IGNORE
-            public void onUploadProgress(long l, long l1, boolean b) {}
-            @Override
-            // TO IGNORE
-            public void onDownloadProgress(long l, long l1, boolean b) {}
         };
     }
 
-    private enum TokenCallType {
-        TOKEN,
-        REFRESH_TOKEN
+    /**
+     * Delegating call to a DefaultApi method, with its arguments unpacked from the proxy arguments array.
+     */
+    interface ApiInvoker {
+        Object invoke(DefaultApi api, Object[] args) throws ApiException;
+    }
+
+    /**
+     * @return a dispatch table with an invoker for each InterfaceApi method
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, ApiInvoker> createInvokers() {
+        Map<String, ApiInvoker> invokers = new HashMap<>();
+        invokers.put("deleteLikesAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.deleteLikesAsync((String) args[0], (String) args[1], (String) args[2], (ApiCallback<Void>) args[3]);
+            }
+        });
+        invokers.put("getCardAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getCardAsync((String) args[0], (String) args[1], (String) args[2], (Boolean) args[3], (Boolean) args[4],
+                        (String) args[5], (ApiCallback<Card>) args[6]);
+            }
+        });
+        invokers.put("getCardVersionAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getCardVersionAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (Boolean) args[4],
+                        (Boolean) args[5], (Boolean) args[6], (String) args[7], (ApiCallback<Card>) args[8]);
+            }
+        });
+        invokers.put("getCatalogMovieAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getCatalogMovieAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (ApiCallback<Card>) args[4]);
+            }
+        });
+        invokers.put("getChannelGridAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getChannelGridAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (ApiCallback<TvGrid>) args[4]);
+            }
+        });
+        invokers.put("getChannelMovieAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getChannelMovieAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (ApiCallback<Card>) args[4]);
+            }
+        });
+        invokers.put("getLikesAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getLikesAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (String) args[4],
+                        (ApiCallback<List<Card>>) args[5]);
+            }
+        });
+        invokers.put("getReadyChannelsAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getReadyChannelsAsync((String) args[0], (List<String>) args[1], (String) args[2], (ApiCallback<List<ChannelStatus>>) args[3]);
+            }
+        });
+        invokers.put("getReadyMoviesAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getReadyMoviesAsync((String) args[0], (List<String>) args[1], (String) args[2], (ApiCallback<List<MovieStatus>>) args[3]);
+            }
+        });
+        invokers.put("getStaticChannelSceneAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getStaticChannelSceneAsync((String) args[0], (String) args[1], (String) args[2], (Boolean) args[3], (String) args[4],
+                        (ApiCallback<List<Card>>) args[5]);
+            }
+        });
+        invokers.put("getStaticMovieSceneAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.getStaticMovieSceneAsync((String) args[0], (String) args[1], (Float) args[2], (String) args[3], (Boolean) args[4],
+                        (String) args[5], (ApiCallback<List<Card>>) args[6]);
+            }
+        });
+        invokers.put("postLikesAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.postLikesAsync((String) args[0], (String) args[1], (String) args[2], (ApiCallback<Void>) args[3]);
+            }
+        });
+        invokers.put("postTokenAsync", new ApiInvoker() {
+            @Override
+            public Object invoke(DefaultApi api, Object[] args) throws ApiException {
+                return api.postTokenAsync((String) args[0], (String) args[1], (String) args[2], (String) args[3], (String) args[4],
+                        (ApiCallback<AccessToken>) args[5]);
+            }
+        });
+        return invokers;
     }
-}
\ No newline at end of file
+}
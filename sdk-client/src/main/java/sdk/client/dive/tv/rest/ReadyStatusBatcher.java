@@ -0,0 +1,280 @@
+package sdk.client.dive.tv.rest;
+
+import com.touchvie.sdk.ApiException;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Micro-batcher of the ready movies / ready channels requests. The identifiers requested by concurrent callers within
+ * the batch window are deduplicated and sent in as few API calls as possible, split in chunks that keep the request
+ * URL short enough. Each caller receives only the statuses of the identifiers it requested.
+ *
+ * @param <S> The status type (MovieStatus or ChannelStatus)
+ */
+public class ReadyStatusBatcher<S> {
+
+    /**
+     * API call that retrieves the statuses of a chunk of identifiers.
+     *
+     * @param <S> The status type
+     */
+    public interface BatchCall<S> {
+        void execute(List<String> ids, ClientCallback<List<S>> callback) throws ApiException;
+    }
+
+    /**
+     * Retrieves the identifier a status refers to.
+     *
+     * @param <S> The status type
+     */
+    public interface IdExtractor<S> {
+        String getId(S status);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final BatchCall<S> batchCall;
+    private final IdExtractor<S> idExtractor;
+    private final Object lock = new Object();
+
+    private volatile long window;
+    private volatile int maxIdsLength;
+    private List<Request<S>> pending;
+
+    private long requestCount;
+    private long callCount;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public ReadyStatusBatcher(ScheduledExecutorService scheduler, BatchCall<S> batchCall, IdExtractor<S> idExtractor) {
+        this.scheduler = scheduler;
+        this.batchCall = batchCall;
+        this.idExtractor = idExtractor;
+        this.window = Constants.READY_BATCH_WINDOW;
+        this.maxIdsLength = Constants.READY_BATCH_MAX_IDS_LENGTH;
+    }
+
+    /**
+     * Sets the time during which requests are collected before being sent
+     *
+     * @param window Batch window in milliseconds
+     */
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    /**
+     * Sets the maximum length of the URL-encoded, comma separated list of identifiers sent on each API call
+     *
+     * @param maxIdsLength Maximum length in characters
+     */
+    public void setMaxIdsLength(int maxIdsLength) {
+        this.maxIdsLength = maxIdsLength;
+    }
+
+    /**
+     * @return the number of requests received
+     */
+    public long getRequestCount() {
+        synchronized (lock) {
+            return requestCount;
+        }
+    }
+
+    /**
+     * @return the number of API calls made
+     */
+    public long getCallCount() {
+        synchronized (lock) {
+            return callCount;
+        }
+    }
+
+    /**
+     * Adds a request to the current batch
+     *
+     * @param ids List of identifiers
+     * @param callback Instance of client callback. "onSuccess" method receives the statuses of the requested identifiers
+     */
+    public void request(List<String> ids, ClientCallback<List<S>> callback) {
+        synchronized (lock) {
+            requestCount++;
+            if (pending == null) {
+                pending = new ArrayList<>();
+                scheduler.schedule(flushTask, window, TimeUnit.MILLISECONDS);
+            }
+            pending.add(new Request<>(new ArrayList<>(ids), callback));
+        }
+    }
+
+    private void flush() {
+        List<Request<S>> requests;
+        synchronized (lock) {
+            requests = pending;
+            pending = null;
+        }
+        if (requests == null || requests.isEmpty())
+            return;
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        for (Request<S> request : requests)
+            uniqueIds.addAll(request.ids);
+        List<List<String>> chunks = chunk(uniqueIds, maxIdsLength);
+        Batch batch = new Batch(requests, chunks.size());
+        if (chunks.isEmpty()) {
+            batch.complete();
+            return;
+        }
+        synchronized (lock) {
+            callCount += chunks.size();
+        }
+        for (List<String> chunk : chunks) {
+            ChunkCallback callback = new ChunkCallback(batch, chunk);
+            try {
+                batchCall.execute(chunk, callback);
+            } catch (ApiException e) {
+                e.printStackTrace();
+                callback.onFailure(RestAPIError.INTERNAL_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Splits the identifiers in chunks whose URL-encoded, comma separated length does not exceed the maximum length.
+     * An identifier longer than the maximum length goes alone in its chunk.
+     */
+    static List<List<String>> chunk(Set<String> ids, int maxIdsLength) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentLength = 0;
+        for (String id : ids) {
+            int length = encodedLength(id);
+            int separator = current.isEmpty() ? 0 : Constants.READY_BATCH_SEPARATOR_LENGTH;
+            if (!current.isEmpty() && currentLength + separator + length > maxIdsLength) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentLength = 0;
+                separator = 0;
+            }
+            current.add(id);
+            currentLength += separator + length;
+        }
+        if (!current.isEmpty())
+            chunks.add(current);
+        return chunks;
+    }
+
+    private static int encodedLength(String id) {
+        try {
+            return URLEncoder.encode(id, "UTF-8").length();
+        } catch (UnsupportedEncodingException e) {
+            return id.length() * 3;
+        }
+    }
+
+    private static class Request<S> {
+        private final List<String> ids;
+        private final ClientCallback<List<S>> callback;
+
+        private Request(List<String> ids, ClientCallback<List<S>> callback) {
+            this.ids = ids;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Statuses and failures collected from the API calls of one batch. Callers are answered once all the calls are done.
+     */
+    private class Batch {
+        private final List<Request<S>> requests;
+        private final Map<String, S> statuses = new HashMap<>();
+        private final Map<String, RestAPIError> failures = new HashMap<>();
+        private int remainingChunks;
+
+        private Batch(List<Request<S>> requests, int chunkCount) {
+            this.requests = requests;
+            this.remainingChunks = chunkCount;
+        }
+
+        private void chunkSucceeded(List<S> result) {
+            synchronized (this) {
+                if (result != null) {
+                    for (S status : result) {
+                        String id = idExtractor.getId(status);
+                        if (id != null)
+                            statuses.put(id, status);
+                    }
+                }
+                if (--remainingChunks > 0)
+                    return;
+            }
+            complete();
+        }
+
+        private void chunkFailed(List<String> chunk, RestAPIError error) {
+            synchronized (this) {
+                for (String id : chunk)
+                    failures.put(id, error);
+                if (--remainingChunks > 0)
+                    return;
+            }
+            complete();
+        }
+
+        private void complete() {
+            for (Request<S> request : requests) {
+                RestAPIError error = null;
+                List<S> result = new ArrayList<>(request.ids.size());
+                for (String id : request.ids) {
+                    if (failures.containsKey(id)) {
+                        error = failures.get(id);
+                        break;
+                    }
+                    S status = statuses.get(id);
+                    if (status != null)
+                        result.add(status);
+                }
+                if (error != null)
+                    request.callback.onFailure(error);
+                else
+                    request.callback.onSuccess(result);
+            }
+        }
+    }
+
+    private class ChunkCallback implements ClientCallback<List<S>> {
+        private final Batch batch;
+        private final List<String> chunk;
+
+        private ChunkCallback(Batch batch, List<String> chunk) {
+            this.batch = batch;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void onFailure(RestAPIError message) {
+            batch.chunkFailed(chunk, message);
+        }
+
+        @Override
+        public void onSuccess(List<S> result) {
+            batch.chunkSucceeded(result);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package sdk.client.dive.tv.rest;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Named set of the optional payload parameters of the card and scene calls: commercial products, user data, relations
+ * and image size. Null parameters are not sent, so the server applies its defaults, which return the largest payload.
+ * Services without one of the parameters ignore it, e.g. "getCard" has no relations.
+ * <p>
+ * The profile name is part of the cache keys and of the payload size metrics, so profiles with different parameters
+ * must have different names.
+ */
+public final class RequestProfile {
+
+    /**
+     * Server defaults: products, user data, relations and medium images. Used by the calls without a profile.
+     */
+    public static final RequestProfile FULL_DETAIL = new RequestProfile(Constants.REQUEST_PROFILE_FULL_DETAIL,
+            null, null, null, null);
+
+    /**
+     * Card headers and small images, for list views such as the strip of cards of a scene
+     */
+    public static final RequestProfile SCENE_STRIP = new RequestProfile(Constants.REQUEST_PROFILE_SCENE_STRIP,
+            false, false, false, Constants.IMAGE_SIZE_SMALL);
+
+    private final String name;
+    private final Boolean products;
+    private final Boolean userData;
+    private final Boolean relations;
+    private final String imageSize;
+
+    /**
+     * @param name Unique profile name
+     * @param products Whether cards contain commercial products, or null for the server default (true)
+     * @param userData Whether cards contain user data, or null for the server default (true)
+     * @param relations Whether cards contain their relations, or the scene hierarchy, or null for the server default
+     *                  (true)
+     * @param imageSize Size of the images: s, m or l, or null for the server default (m)
+     */
+    public RequestProfile(String name, Boolean products, Boolean userData, Boolean relations, String imageSize) {
+        if (name == null)
+            throw new IllegalArgumentException("A request profile needs a name");
+        this.name = name;
+        this.products = products;
+        this.userData = userData;
+        this.relations = relations;
+        this.imageSize = imageSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Boolean getProducts() {
+        return products;
+    }
+
+    public Boolean getUserData() {
+        return userData;
+    }
+
+    public Boolean getRelations() {
+        return relations;
+    }
+
+    public String getImageSize() {
+        return imageSize;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
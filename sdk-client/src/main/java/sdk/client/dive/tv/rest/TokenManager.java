@@ -0,0 +1,135 @@
+package sdk.client.dive.tv.rest;
+
+import com.touchvie.sdk.ApiCallback;
+import com.touchvie.sdk.ApiException;
+import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.model.AccessToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import sdk.client.dive.tv.metrics.MetricsSink;
+import sdk.client.dive.tv.rest.callbacks.TokenCallback;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.TokenStore;
+
+/**
+ * Single-flight access token acquisition. Concurrent token requests share the same in-flight "postToken" call, and
+ * all of them are resumed with the token it returns.
+ */
+public class TokenManager {
+
+    private final DefaultApi restAPI;
+    private final TokenStore settings;
+    private final MetricsSink metrics;
+    private final Object lock = new Object();
+
+    private List<TokenCallback> pending; // null when there is no token request in flight
+
+    public TokenManager(DefaultApi restAPI, TokenStore settings) {
+        this(restAPI, settings, null);
+    }
+
+    /**
+     * @param restAPI REST API used to request the tokens
+     * @param settings Store of the credentials and tokens
+     * @param metrics Sink of the token request counts and durations, or null
+     */
+    public TokenManager(DefaultApi restAPI, TokenStore settings, MetricsSink metrics) {
+        this.restAPI = restAPI;
+        this.settings = settings;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Retrieves a valid access token. If the stored token has expired, it is refreshed (or a new one is requested with
+     * the device credentials) unless there is already a token request in flight, in which case the callback waits for it.
+     *
+     * @param callback the token callback
+     */
+    public void requestToken(TokenCallback callback) {
+        String accessToken;
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(callback);
+                return;
+            }
+            accessToken = settings.getAccessToken();
+            if (accessToken == null || accessToken.length() == 0) {
+                pending = new ArrayList<>();
+                pending.add(callback);
+            }
+        }
+        if (accessToken != null && accessToken.length() != 0) {
+            // called outside the lock, like the waiting callbacks, so that it may call back into the manager
+            callback.onSuccess(accessToken);
+            return;
+        }
+        try {
+            String basicAuthToken = settings.getBasicAuthToken();
+            String refreshToken = settings.getRefreshToken();
+            if (refreshToken == null || refreshToken.length() == 0)
+                restAPI.postTokenAsync(basicAuthToken, Constants.DEVICE_GRANT_TYPE, null, settings.getDeviceId(), null, tokenCallback(false));
+            else
+                restAPI.postTokenAsync(basicAuthToken, Constants.REFRESH_TOKEN_GRANT_TYPE, null, null, refreshToken, tokenCallback(true));
+        } catch (ApiException e) {
+            e.printStackTrace();
+            failure(Constants.ERROR_CODE, e);
+        }
+    }
+
+    private void success(String accessToken) {
+        for (TokenCallback callback : drainPending())
+            callback.onSuccess(accessToken);
+    }
+
+    private void failure(int statusCode, ApiException e) {
+        for (TokenCallback callback : drainPending())
+            callback.onFailure(statusCode, e);
+    }
+
+    private List<TokenCallback> drainPending() {
+        synchronized (lock) {
+            List<TokenCallback> callbacks = pending;
+            pending = null;
+            return callbacks != null ? callbacks : new ArrayList<TokenCallback>();
+        }
+    }
+
+    /**
+     * ApiCallback implementation to retrieve the response to postToken API call. In the "onSuccess" method, the
+     * AccessToken retrieved is stored on the token store and then all the waiting callbacks are resumed
+     *
+     * @param refresh true if the token is requested with the refresh token
+     * @return the ApiCallback implementation
+     */
+    private ApiCallback<AccessToken> tokenCallback(final boolean refresh) {
+        final long startTime = System.nanoTime();
+        return new ApiCallback<AccessToken>() {
+            @Override
+            public void onFailure(ApiException e, int statusCode, Map<String, List<String>> headers) {
+                e.printStackTrace();
+                if (metrics != null)
+                    metrics.onTokenRequest(refresh, System.nanoTime() - startTime, false);
+                failure(statusCode, e);
+            }
+
+            @Override
+            public void onSuccess(AccessToken accessToken, int statusCode, Map<String, List<String>> headers) {
+                if (metrics != null)
+                    metrics.onTokenRequest(refresh, System.nanoTime() - startTime, true);
+                settings.storeToken(accessToken);
+                success(accessToken.getAccessToken());
+            }
+
+            @Override
+            // TO IGNORE
+            public void onUploadProgress(long l, long l1, boolean b) {}
+
+            @Override
+            // TO IGNORE
+            public void onDownloadProgress(long l, long l1, boolean b) {}
+        };
+    }
+}
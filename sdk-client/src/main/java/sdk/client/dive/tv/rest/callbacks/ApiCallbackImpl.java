@@ -6,17 +6,43 @@ import java.util.Map;
 import com.touchvie.sdk.ApiCallback;
 import com.touchvie.sdk.ApiException;
 
+import sdk.client.dive.tv.metrics.MetricsSink;
 import sdk.client.dive.tv.rest.enums.RestAPIError;
 
 
 public class ApiCallbackImpl<T> implements ApiCallback<T> {
 
     private String serviceName;
+    private String profile;
     private sdk.client.dive.tv.rest.callbacks.ClientCallback<T> callback;
+    private MetricsSink metrics;
+    private long startTime;
 
     public ApiCallbackImpl(String serviceName, sdk.client.dive.tv.rest.callbacks.ClientCallback<T> callback) {
+        this(serviceName, callback, null);
+    }
+
+    /**
+     * @param serviceName Service name, used to map the error codes and to record the call latency
+     * @param callback Instance of client callback
+     * @param metrics Sink of the call latency, measured from the creation of this callback, or null
+     */
+    public ApiCallbackImpl(String serviceName, sdk.client.dive.tv.rest.callbacks.ClientCallback<T> callback, MetricsSink metrics) {
+        this(serviceName, null, callback, metrics);
+    }
+
+    /**
+     * @param serviceName Service name, used to map the error codes and to record the call latency
+     * @param profile Name of the request profile of the call, recorded with the payload size, or null
+     * @param callback Instance of client callback
+     * @param metrics Sink of the call latency and payload size, or null
+     */
+    public ApiCallbackImpl(String serviceName, String profile, sdk.client.dive.tv.rest.callbacks.ClientCallback<T> callback, MetricsSink metrics) {
         this.serviceName = serviceName;
+        this.profile = profile;
         this.callback = callback;
+        this.metrics = metrics;
+        this.startTime = metrics == null ? 0 : System.nanoTime();
     }
 
     public sdk.client.dive.tv.rest.callbacks.ClientCallback<T> getCallback() {
@@ -26,11 +52,15 @@ public class ApiCallbackImpl<T> implements ApiCallback<T> {
     @Override
     public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
         e.printStackTrace();
+        if (this.metrics != null)
+            this.metrics.onRestCall(serviceName, System.nanoTime() - startTime, statusCode, false);
         this.callback.onFailure(RestAPIError.getEnum(serviceName, statusCode));
     }
 
     @Override
     public void onSuccess(T result, int statusCode, Map<String, List<String>> responseHeaders) {
+        if (this.metrics != null)
+            this.metrics.onRestCall(serviceName, System.nanoTime() - startTime, statusCode, true);
         this.callback.onSuccess(result);
     }
 
@@ -41,6 +71,7 @@ public class ApiCallbackImpl<T> implements ApiCallback<T> {
 
     @Override
     public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {
-        // TO IGNORE
+        if (done && this.metrics != null)
+            this.metrics.onRestPayload(serviceName, profile, bytesRead);
     }
 }
@@ -0,0 +1,44 @@
+package sdk.client.dive.tv.rest.callbacks;
+
+import com.touchvie.sdk.model.Card;
+
+import sdk.client.dive.tv.cache.CardCache;
+import sdk.client.dive.tv.cache.CardCacheKey;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+
+/**
+ * ClientCallback decorator that stores the received card on the card cache before handing it to the client callback,
+ * if any.
+ */
+public class CardCacheCallback implements ClientCallback<Card> {
+
+    private final CardCache cache;
+    private final CardCacheKey key;
+    private final ClientCallback<Card> callback;
+
+    /**
+     * Callback that only stores the card, e.g. for the background revalidations of the response cache
+     */
+    public CardCacheCallback(CardCache cache, CardCacheKey key) {
+        this(cache, key, null);
+    }
+
+    public CardCacheCallback(CardCache cache, CardCacheKey key, ClientCallback<Card> callback) {
+        this.cache = cache;
+        this.key = key;
+        this.callback = callback;
+    }
+
+    @Override
+    public void onFailure(RestAPIError message) {
+        if (this.callback != null)
+            this.callback.onFailure(message);
+    }
+
+    @Override
+    public void onSuccess(Card result) {
+        this.cache.put(this.key, result);
+        if (this.callback != null)
+            this.callback.onSuccess(result);
+    }
+}
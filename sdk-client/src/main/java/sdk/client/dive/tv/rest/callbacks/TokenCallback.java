@@ -0,0 +1,24 @@
+package sdk.client.dive.tv.rest.callbacks;
+
+import com.touchvie.sdk.ApiException;
+
+/**
+ * TokenCallback for access token requests.
+ */
+public interface TokenCallback {
+
+    /**
+     * This is called when the access token is available.
+     *
+     * @param accessToken The access token, without "Bearer " prefix
+     */
+    void onSuccess(String accessToken);
+
+    /**
+     * This is called when the token request fails.
+     *
+     * @param statusCode The HTTP status code of the token response
+     * @param e The exception thrown by the token request
+     */
+    void onFailure(int statusCode, ApiException e);
+}
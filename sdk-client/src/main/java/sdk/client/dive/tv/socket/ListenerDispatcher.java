@@ -0,0 +1,260 @@
+package sdk.client.dive.tv.socket;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Delivers the SocketListener events received on the socket.io event thread, either directly on that thread or
+ * through a bounded queue drained by a single background thread or by the Android main thread.
+ * When queued, a scene-update event replaces the previous one still pending for the same scene, and when the queue is
+ * full the oldest pending scene-update whose scene is already ended or started again is dropped. Other events are never
+ * dropped: if there is no such scene-update, the queue grows past its capacity.
+ * The events are delivered one at a time and in order, also when the mode changes while events are pending.
+ */
+public class ListenerDispatcher {
+
+    public enum Mode {
+        /**
+         * Events are delivered on the socket.io event thread, as they are received
+         */
+        DIRECT,
+        /**
+         * Events are delivered on a single SDK thread
+         */
+        BACKGROUND,
+        /**
+         * Events are delivered on the Android main thread
+         */
+        MAIN_THREAD
+    }
+
+    enum EventType {
+        SCENE_START, SCENE_UPDATE, SCENE_END, OTHER
+    }
+
+    private final int capacity;
+    private final ArrayDeque<Event> queue = new ArrayDeque<>();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private volatile Mode mode;
+    private ExecutorService backgroundExecutor;
+    private Executor mainExecutor;
+    private boolean draining;
+
+    private long dispatchCount;
+    private long deliveryCount;
+    private long conflatedCount;
+    private long overflowCount;
+    private int maxQueueDepth;
+
+    public ListenerDispatcher() {
+        this(Mode.DIRECT, Constants.LISTENER_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param mode Thread where the events are delivered
+     * @param capacity Maximum number of pending events, when they are queued
+     */
+    public ListenerDispatcher(Mode mode, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        setMode(mode);
+    }
+
+    /**
+     * Changes the thread where the events are delivered. Events already queued, and the ones received until the queue is
+     * empty, are still delivered by the current drain, so that they are not overtaken by the events delivered on the
+     * new thread.
+     *
+     * @param mode the dispatch mode
+     */
+    public synchronized void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Stops the background delivery thread once the events already queued are delivered. It is started again by the
+     * next event queued in BACKGROUND mode.
+     */
+    public synchronized void shutdown() {
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdown();
+            backgroundExecutor = null;
+        }
+    }
+
+    void dispatch(EventType type, Runnable runnable) {
+        synchronized (this) {
+            dispatchCount++;
+            // while events are pending, the new ones are queued behind them, also in DIRECT mode
+            if (mode != Mode.DIRECT || draining || !queue.isEmpty()) {
+                enqueue(type, runnable);
+                return;
+            }
+            deliveryCount++;
+        }
+        runnable.run();
+    }
+
+    private void enqueue(EventType type, Runnable runnable) {
+        if (type == EventType.SCENE_UPDATE)
+            conflate();
+        if (queue.size() >= capacity)
+            overflow(type);
+        queue.add(new Event(type, runnable));
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        if (!draining) {
+            draining = true;
+            executor().execute(drainTask);
+        }
+    }
+
+    private Executor executor() {
+        if (mode == Mode.MAIN_THREAD) {
+            if (mainExecutor == null) {
+                final Handler mainHandler = new Handler(Looper.getMainLooper());
+                mainExecutor = new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        mainHandler.post(command);
+                    }
+                };
+            }
+            return mainExecutor;
+        }
+        if (backgroundExecutor == null)
+            backgroundExecutor = Executors.newSingleThreadExecutor();
+        return backgroundExecutor;
+    }
+
+    /**
+     * Removes the pending scene-update of the current scene, superseded by a new one
+     */
+    private void conflate() {
+        Iterator<Event> iterator = queue.descendingIterator();
+        while (iterator.hasNext()) {
+            EventType type = iterator.next().type;
+            if (type == EventType.SCENE_UPDATE) {
+                iterator.remove();
+                conflatedCount++;
+                return;
+            }
+            if (type != EventType.OTHER)
+                return;
+        }
+    }
+
+    /**
+     * Drops the oldest pending scene-update replaced by a later scene event, pending or incoming. Scene-update deltas are
+     * computed on delivery, so skipping an update whose scene ends or starts again leaves the scene state consistent.
+     *
+     * @param incoming type of the event to be queued
+     */
+    private void overflow(EventType incoming) {
+        Event update = null;
+        boolean replaced = incoming != EventType.OTHER;
+        for (Event event : queue) {
+            if (update == null) {
+                if (event.type == EventType.SCENE_UPDATE)
+                    update = event;
+            } else if (event.type != EventType.OTHER) {
+                replaced = true;
+                break;
+            }
+        }
+        if (update == null || !replaced)
+            return;
+        queue.removeFirstOccurrence(update);
+        overflowCount++;
+    }
+
+    private void drain() {
+        while (true) {
+            Event event;
+            synchronized (this) {
+                event = queue.poll();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+                deliveryCount++;
+            }
+            try {
+                event.runnable.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getDispatchCount() {
+        return dispatchCount;
+    }
+
+    public synchronized long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    /**
+     * @return scene-update events dropped because a newer one was received before their delivery
+     */
+    public synchronized long getConflatedCount() {
+        return conflatedCount;
+    }
+
+    /**
+     * @return scene-update events dropped because the queue was full and their scene was already replaced
+     */
+    public synchronized long getOverflowCount() {
+        return overflowCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return conflatedCount + overflowCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ListenerDispatcher{mode=" + mode + ", queueDepth=" + queue.size() + ", maxQueueDepth=" + maxQueueDepth
+                + ", dispatched=" + dispatchCount + ", delivered=" + deliveryCount + ", conflated=" + conflatedCount
+                + ", overflow=" + overflowCount + "}";
+    }
+
+    private static class Event {
+        private final EventType type;
+        private final Runnable runnable;
+
+        private Event(EventType type, Runnable runnable) {
+            this.type = type;
+            this.runnable = runnable;
+        }
+    }
+}
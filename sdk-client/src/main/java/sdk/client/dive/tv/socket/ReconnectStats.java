@@ -0,0 +1,108 @@
+package sdk.client.dive.tv.socket;
+
+/**
+ * Counters of the unexpected disconnections of the stream socket and of its reconnections, with the time from each
+ * reconnection to the first scene event received afterwards.
+ */
+public class ReconnectStats {
+
+    private long disconnectCount;
+    private long reconnectAttemptCount;
+    private long reconnectCount;
+    private long reconnectFailedCount;
+
+    private long disconnectTime = -1;
+    private long reconnectTime = -1;
+    private long lastOutageDuration = -1;
+    private long firstSceneCount;
+    private long totalTimeToFirstScene;
+    private long maxTimeToFirstScene;
+    private long lastTimeToFirstScene = -1;
+
+    synchronized void onDisconnect() {
+        disconnectCount++;
+        disconnectTime = now();
+        reconnectTime = -1;
+    }
+
+    synchronized void onReconnectAttempt() {
+        reconnectAttemptCount++;
+    }
+
+    synchronized void onReconnect() {
+        reconnectCount++;
+        reconnectTime = now();
+        if (disconnectTime >= 0)
+            lastOutageDuration = reconnectTime - disconnectTime;
+        disconnectTime = -1;
+    }
+
+    synchronized void onReconnectFailed() {
+        reconnectFailedCount++;
+        disconnectTime = -1;
+    }
+
+    synchronized void onScene() {
+        if (reconnectTime < 0)
+            return;
+        long timeToFirstScene = now() - reconnectTime;
+        reconnectTime = -1;
+        firstSceneCount++;
+        totalTimeToFirstScene += timeToFirstScene;
+        maxTimeToFirstScene = Math.max(maxTimeToFirstScene, timeToFirstScene);
+        lastTimeToFirstScene = timeToFirstScene;
+    }
+
+    public synchronized long getDisconnectCount() {
+        return disconnectCount;
+    }
+
+    public synchronized long getReconnectAttemptCount() {
+        return reconnectAttemptCount;
+    }
+
+    public synchronized long getReconnectCount() {
+        return reconnectCount;
+    }
+
+    public synchronized long getReconnectFailedCount() {
+        return reconnectFailedCount;
+    }
+
+    /**
+     * @return milliseconds between the last disconnection and the reconnection that followed it, or -1
+     */
+    public synchronized long getLastOutageDuration() {
+        return lastOutageDuration;
+    }
+
+    /**
+     * @return milliseconds between the last reconnection and the first scene received afterwards, or -1
+     */
+    public synchronized long getLastTimeToFirstScene() {
+        return lastTimeToFirstScene;
+    }
+
+    /**
+     * @return average milliseconds between a reconnection and the first scene received afterwards, or -1
+     */
+    public synchronized long getAverageTimeToFirstScene() {
+        return firstSceneCount == 0 ? -1 : totalTimeToFirstScene / firstSceneCount;
+    }
+
+    public synchronized long getMaxTimeToFirstScene() {
+        return maxTimeToFirstScene;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ReconnectStats{disconnects=" + disconnectCount + ", attempts=" + reconnectAttemptCount + ", reconnects="
+                + reconnectCount + ", failed=" + reconnectFailedCount + ", lastOutage=" + lastOutageDuration
+                + ", timeToFirstScene(last=" + lastTimeToFirstScene + ", avg=" + getAverageTimeToFirstScene() + ", max="
+                + maxTimeToFirstScene + ")}";
+    }
+
+    long now() {
+        return System.nanoTime() / 1000000;
+    }
+}
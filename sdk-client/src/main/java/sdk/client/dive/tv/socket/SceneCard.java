@@ -0,0 +1,189 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.CardContainer;
+import com.touchvie.sdk.model.CardUser;
+import com.touchvie.sdk.model.Product;
+import com.touchvie.sdk.model.RelationModule;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+
+import sdk.client.dive.tv.utils.InternPool;
+import sdk.client.dive.tv.utils.JSONObjectReader;
+
+/**
+ * Card of a scene event that reads its header (id, version, type, locale, title, subtitle, image and has content)
+ * with the event, and the rest of the card (info, products, relations and user data) from the event payload the
+ * first time one of them is accessed. Most scene cards are only shown as a title and a thumbnail, so most of them
+ * are never read in full.
+ * <p>
+ * The accessors and mutators of the info, products, relations and user data, and equals, hashCode and toString, use
+ * the whole card. Gson only sees the header fields of a scene card: serialize "getCard()" to get the whole card.
+ */
+public class SceneCard extends Card {
+
+    private transient JSONObject source;
+    private transient TypeAdapter<Card> cardAdapter;
+    private transient InternPool<String> stringPool;
+    private transient volatile Card card;
+
+    private SceneCard() {
+        // instantiated by Gson
+    }
+
+    /**
+     * Reads the header of a card
+     *
+     * @param headerReader Reader positioned on the card, that only reads its header fields
+     * @param source Card of the scene event payload, kept until the card is read in full
+     * @param headerAdapter Adapter that reads the header
+     * @param cardAdapter Adapter that reads the whole card
+     * @param stringPool Pool of the strings of the card, or null
+     */
+    static SceneCard read(JsonReader headerReader, JSONObject source, TypeAdapter<SceneCard> headerAdapter,
+                          TypeAdapter<Card> cardAdapter, InternPool<String> stringPool) throws IOException {
+        SceneCard sceneCard = headerAdapter.read(headerReader);
+        sceneCard.source = source;
+        sceneCard.cardAdapter = cardAdapter;
+        sceneCard.stringPool = stringPool;
+        return sceneCard;
+    }
+
+    /**
+     * Reads the whole card, once
+     *
+     * @return the whole card, without its header fields if the event payload cannot be read
+     */
+    public Card getCard() {
+        Card result = this.card;
+        if (result == null) {
+            synchronized (this) {
+                result = this.card;
+                if (result == null) {
+                    try {
+                        result = this.cardAdapter.read(new JSONObjectReader(this.source, this.stringPool));
+                    } catch (IOException | RuntimeException e) {
+                        e.printStackTrace();
+                        result = new Card();
+                    }
+                    this.card = result;
+                    this.source = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the whole card has been read
+     */
+    public boolean isRead() {
+        return this.card != null;
+    }
+
+    @Override
+    public List<CardContainer> getInfo() {
+        return getCard().getInfo();
+    }
+
+    @Override
+    public List<Product> getProducts() {
+        return getCard().getProducts();
+    }
+
+    @Override
+    public List<RelationModule> getRelations() {
+        return getCard().getRelations();
+    }
+
+    @Override
+    public CardUser getUser() {
+        return getCard().getUser();
+    }
+
+    @Override
+    public Card info(List<CardContainer> info) {
+        getCard().info(info);
+        return this;
+    }
+
+    @Override
+    public Card addInfoItem(CardContainer infoItem) {
+        getCard().addInfoItem(infoItem);
+        return this;
+    }
+
+    @Override
+    public void setInfo(List<CardContainer> info) {
+        getCard().setInfo(info);
+    }
+
+    @Override
+    public Card products(List<Product> products) {
+        getCard().products(products);
+        return this;
+    }
+
+    @Override
+    public Card addProductsItem(Product productsItem) {
+        getCard().addProductsItem(productsItem);
+        return this;
+    }
+
+    @Override
+    public void setProducts(List<Product> products) {
+        getCard().setProducts(products);
+    }
+
+    @Override
+    public Card relations(List<RelationModule> relations) {
+        getCard().relations(relations);
+        return this;
+    }
+
+    @Override
+    public Card addRelationsItem(RelationModule relationsItem) {
+        getCard().addRelationsItem(relationsItem);
+        return this;
+    }
+
+    @Override
+    public void setRelations(List<RelationModule> relations) {
+        getCard().setRelations(relations);
+    }
+
+    @Override
+    public Card user(CardUser user) {
+        getCard().user(user);
+        return this;
+    }
+
+    @Override
+    public void setUser(CardUser user) {
+        getCard().setUser(user);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o instanceof SceneCard)
+            o = ((SceneCard) o).getCard();
+        return getCard().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return getCard().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return getCard().toString();
+    }
+}
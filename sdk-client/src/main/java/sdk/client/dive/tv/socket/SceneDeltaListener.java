@@ -0,0 +1,18 @@
+package sdk.client.dive.tv.socket;
+
+import sdk.client.dive.tv.socket.model.SceneDelta;
+
+/**
+ * SocketListener that receives scene updates as deltas against the current scene instead of full card lists.
+ * When the listener implements this interface, onSceneUpdateEventReceived is not called.
+ */
+public interface SceneDeltaListener extends SocketListener {
+
+    /**
+     * On scene-update event received, only if some card was added, removed or changed.
+     *
+     * @param delta the difference between the current scene and the updated one
+     */
+    void onSceneDeltaReceived(SceneDelta delta);
+
+}
@@ -0,0 +1,25 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.List;
+
+/**
+ * SDK internal observer of the scene events received by the SocketManager, notified on the socket event thread
+ * before the SocketListener.
+ */
+public interface SceneObserver {
+
+    /**
+     * On scene-start or scene-update event received.
+     *
+     * @param cards the cards of the scene
+     */
+    void onSceneCards(List<Card> cards);
+
+    /**
+     * On scene-end or movie-end event received, or when the socket is opened or closed.
+     */
+    void onSceneCleared();
+
+}
@@ -0,0 +1,107 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import sdk.client.dive.tv.socket.model.SceneDelta;
+
+/**
+ * Cards of the current scene indexed by card id, used to compute the delta of each scene-update event.
+ * Not thread safe, it is only accessed by the listener deliveries, which the ListenerDispatcher runs one at a time.
+ */
+class SceneState {
+
+    private Map<String, Card> cards = new LinkedHashMap<>();
+    private boolean local;
+
+    /**
+     * Replaces the current scene with the cards received on a scene-start event.
+     *
+     * @param sceneCards the cards of the new scene
+     */
+    void start(List<Card> sceneCards) {
+        this.cards = index(sceneCards);
+        this.local = false;
+    }
+
+    /**
+     * Replaces the current scene with cards resolved locally from the scene timeline, before the server sends them.
+     *
+     * @param sceneCards the cards of the new scene
+     */
+    void startLocal(List<Card> sceneCards) {
+        this.cards = index(sceneCards);
+        this.local = true;
+    }
+
+    /**
+     * @param sceneCards the cards received on a scene-start event
+     * @return true if the current scene was resolved locally with the same cards and versions
+     */
+    boolean matchesLocal(List<Card> sceneCards) {
+        if (!local)
+            return false;
+        Map<String, Card> received = index(sceneCards);
+        if (received.size() != cards.size())
+            return false;
+        for (Map.Entry<String, Card> entry : received.entrySet()) {
+            Card current = cards.get(entry.getKey());
+            if (current == null || !sameVersion(current, entry.getValue()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the current scene with the cards received on a scene-update event.
+     *
+     * @param sceneCards the cards of the updated scene
+     * @return the cards added, removed and changed (same card id, different version) since the previous event
+     */
+    SceneDelta update(List<Card> sceneCards) {
+        Map<String, Card> previous = this.cards;
+        Map<String, Card> current = index(sceneCards);
+        List<Card> added = new ArrayList<>();
+        List<Card> changed = new ArrayList<>();
+        for (Map.Entry<String, Card> entry : current.entrySet()) {
+            Card old = previous.remove(entry.getKey());
+            if (old == null)
+                added.add(entry.getValue());
+            else if (!sameVersion(old, entry.getValue()))
+                changed.add(entry.getValue());
+        }
+        List<Card> removed = new ArrayList<>(previous.values());
+        this.cards = current;
+        this.local = false;
+        return new SceneDelta(added, removed, changed);
+    }
+
+    /**
+     * Forgets the current scene, on scene-end and movie-end events.
+     */
+    void clear() {
+        this.cards = new LinkedHashMap<>();
+        this.local = false;
+    }
+
+    int size() {
+        return cards.size();
+    }
+
+    private static Map<String, Card> index(List<Card> sceneCards) {
+        Map<String, Card> index = new LinkedHashMap<>();
+        for (Card card : sceneCards) {
+            if (card != null && card.getCardId() != null)
+                index.put(card.getCardId(), card);
+        }
+        return index;
+    }
+
+    private static boolean sameVersion(Card a, Card b) {
+        return a.getVersion() == null ? b.getVersion() == null : a.getVersion().equals(b.getVersion());
+    }
+}
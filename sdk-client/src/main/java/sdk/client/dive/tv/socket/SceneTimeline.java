@@ -0,0 +1,193 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Known scenes of the most recently played movies, indexed by playback position so that the cards of any timestamp can
+ * be resolved locally. Each movie is stored as sorted, non-overlapping intervals in parallel arrays; an interval with
+ * no cards is a known gap between scenes.
+ */
+public class SceneTimeline {
+
+    private final int maxMovies;
+    private final LinkedHashMap<String, Index> movies;
+
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param maxMovies Maximum number of movies whose timeline is kept, the least recently used ones are dropped
+     */
+    public SceneTimeline(final int maxMovies) {
+        this.maxMovies = maxMovies;
+        this.movies = new LinkedHashMap<String, Index>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Index> eldest) {
+                return size() > maxMovies;
+            }
+        };
+    }
+
+    /**
+     * Stores the cards shown between two playback positions, replacing the overlapping part of known intervals
+     *
+     * @param movieId Movie ID
+     * @param start Start position in milliseconds, inclusive
+     * @param end End position in milliseconds, exclusive
+     * @param cards Cards of the scene, empty for a gap between scenes
+     */
+    public synchronized void put(String movieId, long start, long end, List<Card> cards) {
+        if (movieId == null || end <= start || cards == null)
+            return;
+        Index index = movies.get(movieId);
+        if (index == null) {
+            index = new Index();
+            movies.put(movieId, index);
+        }
+        index.put(start, end, cards);
+    }
+
+    /**
+     * Resolves the cards shown at a playback position
+     *
+     * @param movieId Movie ID
+     * @param position Playback position in milliseconds
+     * @return the cards of the scene, an empty list if the position is a known gap, or null if it is unknown
+     */
+    public synchronized List<Card> get(String movieId, long position) {
+        Index index = movieId == null ? null : movies.get(movieId);
+        List<Card> cards = index == null ? null : index.get(position);
+        if (cards == null)
+            missCount++;
+        else
+            hitCount++;
+        return cards;
+    }
+
+    public synchronized void clear() {
+        movies.clear();
+    }
+
+    public synchronized int getMovieCount() {
+        return movies.size();
+    }
+
+    public int getMaxMovies() {
+        return maxMovies;
+    }
+
+    /**
+     * @return number of known intervals of a movie
+     */
+    public synchronized int getIntervalCount(String movieId) {
+        Index index = movies.get(movieId);
+        return index == null ? 0 : index.size;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SceneTimeline{movies=" + movies.size() + ", hits=" + hitCount + ", misses=" + missCount + "}";
+    }
+
+    private static class Index {
+        private long[] starts = new long[16];
+        private long[] ends = new long[16];
+        private Object[] cards = new Object[16];
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        private List<Card> get(long position) {
+            int i = floor(position);
+            if (i < 0 || position >= ends[i])
+                return null;
+            return (List<Card>) cards[i];
+        }
+
+        private void put(long start, long end, List<Card> sceneCards) {
+            // trims the interval that starts before the new one and overlaps it, splitting it if it also ends after
+            int i = floor(start);
+            if (i >= 0 && ends[i] > start) {
+                long oldEnd = ends[i];
+                Object oldCards = cards[i];
+                if (starts[i] == start) {
+                    remove(i);
+                } else {
+                    ends[i] = start;
+                }
+                if (oldEnd > end)
+                    insert(end, oldEnd, oldCards);
+            }
+            // removes or trims the intervals that start inside the new one
+            int j = floor(start) + 1;
+            while (j < size && starts[j] < end) {
+                if (ends[j] <= end) {
+                    remove(j);
+                } else {
+                    starts[j] = end;
+                    break;
+                }
+            }
+            insert(start, end, Collections.unmodifiableList(sceneCards));
+        }
+
+        /**
+         * @return index of the last interval starting at or before the position, or -1
+         */
+        private int floor(long position) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= position)
+                    low = mid + 1;
+                else
+                    high = mid - 1;
+            }
+            return high;
+        }
+
+        private void insert(long start, long end, Object sceneCards) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                long[] newStarts = new long[capacity];
+                long[] newEnds = new long[capacity];
+                Object[] newCards = new Object[capacity];
+                System.arraycopy(starts, 0, newStarts, 0, size);
+                System.arraycopy(ends, 0, newEnds, 0, size);
+                System.arraycopy(cards, 0, newCards, 0, size);
+                starts = newStarts;
+                ends = newEnds;
+                cards = newCards;
+            }
+            int i = floor(start) + 1;
+            System.arraycopy(starts, i, starts, i + 1, size - i);
+            System.arraycopy(ends, i, ends, i + 1, size - i);
+            System.arraycopy(cards, i, cards, i + 1, size - i);
+            starts[i] = start;
+            ends[i] = end;
+            cards[i] = sceneCards;
+            size++;
+        }
+
+        private void remove(int i) {
+            System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+            System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+            System.arraycopy(cards, i + 1, cards, i, size - i - 1);
+            size--;
+            cards[size] = null;
+        }
+    }
+}
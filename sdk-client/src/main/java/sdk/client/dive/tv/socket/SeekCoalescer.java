@@ -0,0 +1,154 @@
+package sdk.client.dive.tv.socket;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.socket.model.StreamMessage;
+
+/**
+ * Trailing-edge coalescer of vod_set and vod_continue messages: while the player keeps seeking, only the last position
+ * is sent, once no other seek is made for the coalesce window. Any other message sends the pending seek first, so that
+ * the order of the messages is kept. A vod_continue followed by a vod_set is sent as a vod_continue to the last
+ * position, so that the playback is still resumed.
+ */
+public class SeekCoalescer {
+
+    /**
+     * Sends a message through the socket
+     */
+    public interface Sender {
+        void send(StreamMessage message);
+    }
+
+    private final ScheduledExecutorService scheduler;
+    private final Sender sender;
+    private final Object sendLock = new Object();
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private volatile long window;
+    private StreamMessage pending;
+    private ScheduledFuture<?> pendingFuture;
+
+    private long seekCount;
+    private long sentCount;
+    private long suppressedCount;
+
+    /**
+     * @param scheduler Scheduler of the delayed sends
+     * @param sender Sender of the messages
+     * @param window Coalesce window in milliseconds, 0 sends every message immediately
+     */
+    public SeekCoalescer(ScheduledExecutorService scheduler, Sender sender, long window) {
+        this.scheduler = scheduler;
+        this.sender = sender;
+        this.window = window;
+    }
+
+    /**
+     * @param window Coalesce window in milliseconds, 0 sends every message immediately
+     */
+    public void setWindow(long window) {
+        this.window = window;
+        if (window <= 0)
+            flush();
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void send(StreamMessage message) {
+        StreamMessage.Type type = message.getType();
+        if (type != StreamMessage.Type.vod_set && type != StreamMessage.Type.vod_continue) {
+            synchronized (sendLock) {
+                flush();
+                sender.send(message);
+            }
+            return;
+        }
+
+        synchronized (this) {
+            seekCount++;
+            if (window > 0) {
+                if (pending != null) {
+                    suppressedCount++;
+                    pendingFuture.cancel(false);
+                    if (pending.getType() == StreamMessage.Type.vod_continue && type == StreamMessage.Type.vod_set)
+                        message = new StreamMessage(message.getTimestamp(), StreamMessage.Type.vod_continue);
+                }
+                pending = message;
+                pendingFuture = scheduler.schedule(flushTask, window, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        synchronized (sendLock) {
+            flush();
+            synchronized (this) {
+                sentCount++;
+            }
+            sender.send(message);
+        }
+    }
+
+    /**
+     * Sends the pending seek, if any
+     */
+    public void flush() {
+        synchronized (sendLock) {
+            StreamMessage message;
+            synchronized (this) {
+                message = pending;
+                if (message == null)
+                    return;
+                pending = null;
+                pendingFuture.cancel(false);
+                sentCount++;
+            }
+            sender.send(message);
+        }
+    }
+
+    /**
+     * Discards the pending seek, when the stream is closed
+     */
+    public synchronized void cancel() {
+        if (pending != null) {
+            pendingFuture.cancel(false);
+            pending = null;
+            suppressedCount++;
+        }
+    }
+
+    /**
+     * @return vod_set and vod_continue messages requested
+     */
+    public synchronized long getSeekCount() {
+        return seekCount;
+    }
+
+    /**
+     * @return vod_set and vod_continue messages sent through the socket
+     */
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * @return vod_set and vod_continue messages replaced by a later one before being sent
+     */
+    public synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SeekCoalescer{window=" + window + ", seeks=" + seekCount + ", sent=" + sentCount + ", suppressed="
+                + suppressedCount + "}";
+    }
+}
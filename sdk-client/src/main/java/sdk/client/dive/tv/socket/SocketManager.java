@@ -1,80 +1,308 @@
 package sdk.client.dive.tv.socket;
 
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
-import com.touchvie.sdk.ApiCallback;
+import com.google.gson.stream.JsonToken;
 import com.touchvie.sdk.ApiException;
-import com.touchvie.sdk.api.DefaultApi;
-import com.touchvie.sdk.model.AccessToken;
 import com.touchvie.sdk.model.Card;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.lang.reflect.Type;
-import java.net.URI;
+import java.io.IOException;
 import java.net.URISyntaxException;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSession;
-
-import io.socket.client.IO;
+import io.socket.client.Manager;
 import io.socket.client.Socket;
 import io.socket.emitter.Emitter;
+import sdk.client.dive.tv.cache.CardCacheKey;
+import sdk.client.dive.tv.metrics.MetricsSink;
+import sdk.client.dive.tv.rest.TokenManager;
+import sdk.client.dive.tv.rest.callbacks.TokenCallback;
+import sdk.client.dive.tv.socket.model.SceneDelta;
 import sdk.client.dive.tv.socket.model.StreamError;
 import sdk.client.dive.tv.socket.model.StreamMessage;
 import sdk.client.dive.tv.utils.Constants;
-import sdk.client.dive.tv.utils.SharedPreferencesHelper;
+import sdk.client.dive.tv.utils.InternPool;
+import sdk.client.dive.tv.utils.JSONObjectReader;
 
 public class SocketManager {
 
-    private SharedPreferencesHelper settings;
-    private DefaultApi restAPI;
+    private TokenManager tokenManager;
     private Gson gson;
-    private HostnameVerifier hostnameVerifier;
+    private TypeAdapter<List<Card>> cardListAdapter;
+    private TypeAdapter<Card> cardAdapter;
+    private TypeAdapter<SceneCard> sceneCardAdapter;
+    private StreamConnection connection;
 
     private Socket socket;
+    private Manager manager;
 
     private SocketListener listener;
+    private SceneState sceneState = new SceneState();
+    private List<SceneObserver> sceneObservers = new CopyOnWriteArrayList<>();
+    private ListenerDispatcher dispatcher = new ListenerDispatcher();
+    private StreamSession session = new StreamSession();
+    private VodTimelineRecorder timelineRecorder;
+    private ReconnectStats reconnectStats = new ReconnectStats();
+    private boolean resuming;
+    private MetricsSink metrics;
+    private volatile StreamJournalWriter journal;
+    private InternPool<String> stringPool;
+    private InternPool<Card> cardPool;
+    private boolean lazyCards;
+    private long connectStartTime;
+    private long authenticateStartTime;
+
+    public SocketManager(TokenManager tokenManager, Gson gson) {
+        this(tokenManager, gson, new StreamConnection(tokenManager));
+    }
 
-    public SocketManager(SharedPreferencesHelper settings, DefaultApi restAPI, Gson gson) {
-        this.settings = settings;
-        this.restAPI = restAPI;
+    /**
+     * @param tokenManager Token manager used to authenticate the socket
+     * @param gson Gson instance used to parse the stream events
+     * @param connection Connections with the stream server, shared with the other streams opened on them
+     */
+    public SocketManager(TokenManager tokenManager, Gson gson, StreamConnection connection) {
+        this.tokenManager = tokenManager;
         this.gson = gson;
-        this.hostnameVerifier = new HostnameVerifier() {
-            @Override
-            public boolean verify(String hostname, SSLSession session) {
-                return true;
-            }
-        };
+        this.connection = connection;
+        this.cardListAdapter = gson.getAdapter(new TypeToken<List<Card>>() {
+        });
+        this.cardAdapter = gson.getAdapter(Card.class);
+        this.sceneCardAdapter = gson.getAdapter(SceneCard.class);
     }
 
     public void openSocket(String queryParams, String url, SocketListener listener) {
         try {
-            if (isConnected())
+            if (this.socket != null)
                 closeSocket();
             this.listener = listener;
-            IO.Options socketOptions = getSocketOptions(queryParams);
-            socketConnection(url, socketOptions);
+            this.resuming = false;
+            clearScene();
+            socketConnection(url, queryParams);
         } catch (Exception e) {
             e.printStackTrace();
-            this.listener.onErrorReceived(StreamError.openSocketError(e.getMessage()));
+            deliverError(StreamError.openSocketError(e.getMessage()));
             closeSocket();
         }
     }
 
     public void closeSocket() {
-        if (this.socket != null && this.socket.connected())
-            this.socket.close();
+        // also closes a socket that is reconnecting, which stops its reconnection attempts
+        if (this.socket != null) {
+            this.manager.off(Constants.EVENT_RECONNECT_ATTEMPT, onReconnectAttempt);
+            this.manager.off(Constants.EVENT_RECONNECT, onReconnect);
+            this.manager.off(Constants.EVENT_RECONNECT_FAILED, onReconnectFailed);
+            this.connection.close(this.socket);
+        }
         this.listener = null;
+        if (this.timelineRecorder != null)
+            this.timelineRecorder.stop();
+        this.session.stop();
+        clearScene();
+        this.dispatcher.shutdown();
+    }
+
+    /**
+     * Sets the exponential backoff between reconnection attempts: the delay doubles on each attempt, from the initial
+     * delay up to the maximum one, and is randomized by the given factor so that clients do not reconnect in step.
+     * Applied to the connections opened afterwards, which are shared with the other streams.
+     *
+     * @param delay Initial delay in milliseconds
+     * @param delayMax Maximum delay in milliseconds
+     * @param randomizationFactor Jitter, between 0 (none) and 1 (delay between 0 and twice the computed one)
+     */
+    public void setReconnectionBackoff(long delay, long delayMax, double randomizationFactor) {
+        this.connection.setReconnectionBackoff(delay, delayMax, randomizationFactor);
+    }
+
+    /**
+     * @param attempts Maximum number of reconnection attempts before giving up
+     */
+    public void setReconnectionAttempts(int attempts) {
+        this.connection.setReconnectionAttempts(attempts);
+    }
+
+    /**
+     * @param metrics Sink of the connection and authentication durations, reconnections and event parse and dispatch
+     *                times, or null
+     */
+    public void setMetricsSink(MetricsSink metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Shares the strings and the cards repeated by the scene events, e.g. by the scene_update events of a scene or by
+     * the scenes of a movie, instead of keeping a copy of them for each event. The cards are shared by id, version and
+     * locale, so the delivered cards must be treated as read-only, and their user data is the one of the first event
+     * until the card is removed from the pool.
+     *
+     * @param stringPool Pool of the strings of the cards, or null
+     * @param cardPool Pool of the cards, or null
+     */
+    public void setInternPools(InternPool<String> stringPool, InternPool<Card> cardPool) {
+        this.stringPool = stringPool;
+        this.cardPool = cardPool;
+    }
+
+    /**
+     * Delivers the cards of the scene events as SceneCards, which read their header with the event and the rest of the
+     * card the first time it is accessed, instead of reading every card in full.
+     *
+     * @param lazyCards true to deliver SceneCards
+     */
+    public void setLazyCards(boolean lazyCards) {
+        this.lazyCards = lazyCards;
+    }
+
+    /**
+     * Records the stream events received from now on, as they arrive on the socket, until the journal is replaced or
+     * set to null. The journal is not closed by the socket manager.
+     *
+     * @param journal the journal writer, or null to stop recording
+     */
+    public void setJournal(StreamJournalWriter journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return the counters of disconnections and reconnections, and the time to the first scene after a reconnection
+     */
+    public ReconnectStats getReconnectStats() {
+        return this.reconnectStats;
+    }
+
+    /**
+     * Enables the local resolution of the scene of each vod_set, from the scenes previously observed or sampled.
+     *
+     * @param timeline the scene timeline to fill and read, or null to disable it
+     */
+    public void setSceneTimeline(SceneTimeline timeline) {
+        this.timelineRecorder = timeline == null ? null : new VodTimelineRecorder(timeline, this.session);
+    }
+
+    /**
+     * Starts tracking the playback position of the VOD stream just opened, to resume it after a reconnection and to
+     * record its scenes in the scene timeline
+     *
+     * @param movieId Movie ID
+     * @param timestamp Playback timestamp in seconds
+     */
+    public void startVodSession(String movieId, Integer timestamp) {
+        this.session.startVod(movieId, timestamp == null ? 0 : timestamp * 1000L);
+    }
+
+    /**
+     * Starts tracking the TV channel stream just opened, to resume it after a reconnection
+     *
+     * @param channelId Channel ID
+     */
+    public void startChannelSession(String channelId) {
+        this.session.startChannel(channelId);
+    }
+
+    /**
+     * Builds the query of a VOD stream connection
+     *
+     * @param movieId Movie ID
+     * @param timestamp Playback timestamp in seconds
+     * @return the query parameters
+     */
+    public static String vodQuery(String movieId, Object timestamp) {
+        return Constants.MOVIE_ID_QUERY_PARAM + movieId + Constants.TIMESTAMP_QUERY_PARAM + timestamp;
     }
 
+    /**
+     * @return the dispatcher of the SocketListener events, which allows to choose the delivery thread
+     */
+    public ListenerDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
+    public void addSceneObserver(SceneObserver observer) {
+        this.sceneObservers.add(observer);
+    }
+
+    public void removeSceneObserver(SceneObserver observer) {
+        this.sceneObservers.remove(observer);
+    }
+
+    private void notifySceneCards(List<Card> cards) {
+        for (SceneObserver observer : sceneObservers)
+            observer.onSceneCards(cards);
+    }
+
+    private void clearScene() {
+        for (SceneObserver observer : sceneObservers)
+            observer.onSceneCleared();
+        // the scene state is only accessed on the delivery thread
+        this.dispatcher.dispatch(ListenerDispatcher.EventType.SCENE_END, new Runnable() {
+            @Override
+            public void run() {
+                sceneState.clear();
+            }
+        });
+    }
+
+    /**
+     * SocketListener call, run on the delivery thread of the dispatcher
+     */
+    private interface ListenerEvent {
+        void deliver(SocketListener listener);
+    }
+
+    private void deliver(final String name, ListenerDispatcher.EventType type, final ListenerEvent event) {
+        final SocketListener target = this.listener;
+        if (target == null)
+            return;
+        final MetricsSink sink = this.metrics;
+        final long receiveTime = sink == null ? 0 : System.nanoTime();
+        this.dispatcher.dispatch(type, new Runnable() {
+            @Override
+            public void run() {
+                event.deliver(target);
+                if (sink != null)
+                    sink.onStreamEventDispatched(name, System.nanoTime() - receiveTime);
+            }
+        });
+    }
+
+    private void deliverError(final StreamError error) {
+        deliver(Constants.EVENT_ERROR, ListenerDispatcher.EventType.OTHER, new ListenerEvent() {
+            @Override
+            public void deliver(SocketListener listener) {
+                listener.onErrorReceived(error);
+            }
+        });
+    }
+
+    /**
+     * Sends a client message. While the socket is reconnecting the message is not sent, but the playback position it
+     * sets is kept to resume the stream.
+     *
+     * @param message the client message
+     */
     public void emitMessage(StreamMessage message) {
-        if (isConnected()) {
+        if (emit(message))
+            trackMessage(message);
+    }
+
+    /**
+     * Writes a client message to the socket, without applying it to the playback position
+     *
+     * @param message the client message
+     * @return false if the stream is closed, or was closed by the emit error
+     */
+    boolean emit(StreamMessage message) {
+        if (this.socket == null || this.listener == null)
+            return false;
+        if (this.socket.connected()) {
             try {
                 String event = message.getType().name();
                 JSONObject args = null;
@@ -89,107 +317,231 @@ public class SocketManager {
                     this.socket.emit(event, args.toString());
             } catch (Exception e) {
                 e.printStackTrace();
-                this.listener.onErrorReceived(StreamError.emitMessageError(e.getMessage()));
+                deliverError(StreamError.emitMessageError(e.getMessage()));
                 closeSocket();
+                return false;
             }
         }
+        return true;
     }
 
-    private boolean isConnected() {
-        return this.socket != null && this.listener != null && this.socket.connected();
+    /**
+     * Applies a client message to the playback position of the session, and delivers the scene of a vod_set when the
+     * scene timeline knows it. StreamHandle applies the messages as soon as they are sent, ahead of their coalesced
+     * emit.
+     *
+     * @param message the client message
+     */
+    void trackMessage(StreamMessage message) {
+        if (this.listener == null)
+            return;
+        VodTimelineRecorder recorder = this.timelineRecorder;
+        switch (message.getType()) {
+            case vod_set:
+                if (recorder != null)
+                    recorder.beforeSeek();
+                this.session.seek(message.getTimestamp() * 1000L);
+                if (recorder != null)
+                    resolveLocalScene(recorder);
+                break;
+            case vod_continue:
+                if (recorder != null)
+                    recorder.beforeSeek();
+                this.session.seek(message.getTimestamp() * 1000L);
+                break;
+            case vod_pause:
+                this.session.pause();
+                break;
+            case vod_end:
+                if (recorder != null)
+                    recorder.stop();
+                this.session.stop();
+                break;
+        }
     }
 
-    private IO.Options getSocketOptions(String queryParams) throws NoSuchAlgorithmException {
-        IO.Options options = new IO.Options();
-        IO.setDefaultSSLContext(SSLContext.getDefault());
-        IO.setDefaultHostnameVerifier(this.hostnameVerifier);
-        options.sslContext = SSLContext.getDefault();
-        options.hostnameVerifier = this.hostnameVerifier;
-        options.secure = Constants.SOCKET_SECURE_FLAG;
-        options.path = Constants.SOCKET_PATH;
-        options.multiplex = Constants.SOCKET_MULTIPLEX_FLAG;
-        options.reconnection = Constants.SOCKET_RECONNECTION_FLAG;
-        options.transports = Constants.SOCKET_TRANSPORT_PROTOCOL;
-        options.query = queryParams;
-        return options;
+    /**
+     * Delivers the scene of the new playback position when it is known, without waiting for the server. The
+     * scene-start event the server sends afterwards is not delivered if it has the same cards.
+     */
+    private void resolveLocalScene(VodTimelineRecorder recorder) {
+        final List<Card> cards = recorder.getTimeline().get(this.session.getMovieId(), this.session.position());
+        if (cards == null || cards.isEmpty())
+            return;
+        notifySceneCards(cards);
+        deliver(Constants.EVENT_SCENE_START, ListenerDispatcher.EventType.SCENE_START, new ListenerEvent() {
+            @Override
+            public void deliver(SocketListener listener) {
+                sceneState.startLocal(cards);
+                listener.onSceneStartEventReceived(cards);
+            }
+        });
     }
 
-    private void socketConnection(String url, IO.Options socketOptions) throws URISyntaxException {
-        this.socket = IO.socket(new URI(url).toString(), socketOptions);
+    private void socketConnection(String url, String queryParams) throws URISyntaxException {
+        this.connectStartTime = System.nanoTime();
+        this.socket = this.connection.open(url, queryParams);
+        this.manager = this.socket.io();
+        this.manager.on(Constants.EVENT_RECONNECT_ATTEMPT, onReconnectAttempt);
+        this.manager.on(Constants.EVENT_RECONNECT, onReconnect);
+        this.manager.on(Constants.EVENT_RECONNECT_FAILED, onReconnectFailed);
 
         this.socket.on(Constants.EVENT_CONNECT, onConnect);
         this.socket.on(Constants.EVENT_AUTHENTICATED, onAuthenticated);
         this.socket.on(Constants.EVENT_UNAUTHORIZED, onUnauthorized);
-        this.socket.on(Constants.EVENT_MOVIE_START, onMovieStart);
-        this.socket.on(Constants.EVENT_MOVIE_END, onMovieEnd);
-        this.socket.on(Constants.EVENT_SCENE_START, onSceneStart);
-        this.socket.on(Constants.EVENT_SCENE_UPDATE, onSceneUpdate);
-        this.socket.on(Constants.EVENT_SCENE_END, onSceneEnd);
-        this.socket.on(Constants.EVENT_PAUSE_START, onPauseStart);
-        this.socket.on(Constants.EVENT_PAUSE_END, onPauseEnd);
-        this.socket.on(Constants.EVENT_ERROR, onError);
+        this.socket.on(Constants.EVENT_MOVIE_START, recorded(Constants.EVENT_MOVIE_START, onMovieStart));
+        this.socket.on(Constants.EVENT_MOVIE_END, recorded(Constants.EVENT_MOVIE_END, onMovieEnd));
+        this.socket.on(Constants.EVENT_SCENE_START, recorded(Constants.EVENT_SCENE_START, onSceneStart));
+        this.socket.on(Constants.EVENT_SCENE_UPDATE, recorded(Constants.EVENT_SCENE_UPDATE, onSceneUpdate));
+        this.socket.on(Constants.EVENT_SCENE_END, recorded(Constants.EVENT_SCENE_END, onSceneEnd));
+        this.socket.on(Constants.EVENT_PAUSE_START, recorded(Constants.EVENT_PAUSE_START, onPauseStart));
+        this.socket.on(Constants.EVENT_PAUSE_END, recorded(Constants.EVENT_PAUSE_END, onPauseEnd));
+        this.socket.on(Constants.EVENT_ERROR, recorded(Constants.EVENT_ERROR, onError));
+        this.socket.on(Constants.EVENT_DISCONNECT, onDisconnect);
 
         this.socket.connect();
     }
 
+    /**
+     * Wraps the handler of a stream event so that the event is recorded in the journal, when there is one
+     */
+    private Emitter.Listener recorded(final String event, final Emitter.Listener handler) {
+        return new Emitter.Listener() {
+            @Override
+            public void call(Object... args) {
+                StreamJournalWriter writer = journal;
+                if (writer != null)
+                    writer.record(event, args);
+                handler.call(args);
+            }
+        };
+    }
+
+    /**
+     * Handles a stream event as if it was received on the socket, delivering it to the given listener, so that the
+     * event handling can be measured without a connection
+     *
+     * @param listener Instance of socket listener
+     * @param event Stream event name
+     * @param args Event payload
+     */
+    void handleEvent(SocketListener listener, String event, Object... args) {
+        this.listener = listener;
+        Emitter.Listener handler;
+        switch (event) {
+            case Constants.EVENT_MOVIE_START:
+                handler = onMovieStart;
+                break;
+            case Constants.EVENT_MOVIE_END:
+                handler = onMovieEnd;
+                break;
+            case Constants.EVENT_SCENE_START:
+                handler = onSceneStart;
+                break;
+            case Constants.EVENT_SCENE_UPDATE:
+                handler = onSceneUpdate;
+                break;
+            case Constants.EVENT_SCENE_END:
+                handler = onSceneEnd;
+                break;
+            case Constants.EVENT_PAUSE_START:
+                handler = onPauseStart;
+                break;
+            case Constants.EVENT_PAUSE_END:
+                handler = onPauseEnd;
+                break;
+            case Constants.EVENT_ERROR:
+                handler = onError;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported stream event " + event);
+        }
+        handler.call(args);
+    }
+
     private Emitter.Listener onConnect = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
-            try {
-                ApiCallback<AccessToken> callback = new ApiCallback<AccessToken>() {
-                    @Override
-                    public void onFailure(ApiException e, int status, Map<String, List<String>> headers) {
+            authenticateStartTime = System.nanoTime();
+            if (metrics != null)
+                metrics.onSocketConnect(authenticateStartTime - connectStartTime);
+            tokenManager.requestToken(new TokenCallback() {
+                @Override
+                public void onSuccess(String accessToken) {
+                    try {
+                        authenticate(accessToken);
+                    } catch (Exception e) {
                         e.printStackTrace();
-                        listener.onErrorReceived(StreamError.authenticationError(status, e.getMessage()));
+                        deliverError(StreamError.authenticationError(e.getMessage()));
                     }
+                }
 
-                    @Override
-                    public void onSuccess(AccessToken accessToken, int i, Map<String, List<String>> map) {
-                        try {
-                            settings.storeToken(accessToken);
-                            JSONObject tokenObj = new JSONObject();
-                            tokenObj.put(Constants.SOCKET_HANDSHAKE_KEY, accessToken.getAccessToken());
-                            socket.emit(StreamMessage.Type.authenticate.name(), tokenObj);
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                            listener.onErrorReceived(StreamError.authenticationError(e.getMessage()));
-                        }
-                    }
-                    @Override
-                    //TO IGNORE
-                    public void onUploadProgress(long l, long l1, boolean b) {}
-                    @Override
-                    //TO IGNORE
-                    public void onDownloadProgress(long l, long l1, boolean b) {}
-                };
-                String accessToken = settings.getAccessToken();
-                if (accessToken == null || accessToken.length() == 0) {
-                    String basicAuthToken = settings.getBasicAuthToken();
-                    String deviceId = settings.getDeviceId();
-                    if (accessToken == null) {
-                        restAPI.postTokenAsync(basicAuthToken, Constants.DEVICE_GRANT_TYPE, null, deviceId, null, callback);
-                    } else {
-                        String refreshToken = settings.getRefreshToken();
-                        if (refreshToken == null || refreshToken.length() == 0)
-                            restAPI.postTokenAsync(basicAuthToken, Constants.DEVICE_GRANT_TYPE, null, deviceId, null, callback);
-                        else
-                            restAPI.postTokenAsync(basicAuthToken, Constants.REFRESH_TOKEN_GRANT_TYPE, null, null, refreshToken, callback);
-                    }
-                } else {
-                    JSONObject tokenObj = new JSONObject();
-                    tokenObj.put(Constants.SOCKET_HANDSHAKE_KEY, accessToken);
-                    socket.emit(StreamMessage.Type.authenticate.name(), tokenObj);
+                @Override
+                public void onFailure(int status, ApiException e) {
+                    deliverError(StreamError.authenticationError(status, e.getMessage()));
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
-                listener.onErrorReceived(StreamError.authenticationError(e.getMessage()));
-            }
+            });
         }
     };
 
+    private void authenticate(String accessToken) throws JSONException {
+        JSONObject tokenObj = new JSONObject();
+        tokenObj.put(Constants.SOCKET_HANDSHAKE_KEY, accessToken);
+        socket.emit(StreamMessage.Type.authenticate.name(), tokenObj);
+    }
+
     private Emitter.Listener onAuthenticated = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
+            if (metrics != null)
+                metrics.onSocketAuthenticate(System.nanoTime() - authenticateStartTime);
+            if (resuming) {
+                resuming = false;
+                // the namespace reconnects with its original query, so the stream is moved to the current position
+                if (session.getMovieId() != null) {
+                    boolean playing = session.isPlaying();
+                    emitMessage(new StreamMessage((int) (session.position() / 1000), StreamMessage.Type.vod_set));
+                    if (!playing)
+                        emitMessage(new StreamMessage(0, StreamMessage.Type.vod_pause));
+                }
+            }
+        }
+    };
+
+    private Emitter.Listener onDisconnect = new Emitter.Listener() {
+        @Override
+        public void call(final Object... args) {
+            if (args.length > 0 && Constants.CLIENT_DISCONNECT_REASON.equals(args[0]))
+                return;
+            resuming = true;
+            reconnectStats.onDisconnect();
+        }
+    };
+
+    private Emitter.Listener onReconnectAttempt = new Emitter.Listener() {
+        @Override
+        public void call(final Object... args) {
+            reconnectStats.onReconnectAttempt();
+            connectStartTime = System.nanoTime();
+        }
+    };
+
+    private Emitter.Listener onReconnect = new Emitter.Listener() {
+        @Override
+        public void call(final Object... args) {
+            reconnectStats.onReconnect();
+            if (metrics != null)
+                metrics.onReconnect();
+        }
+    };
+
+    private Emitter.Listener onReconnectFailed = new Emitter.Listener() {
+        @Override
+        public void call(final Object... args) {
+            reconnectStats.onReconnectFailed();
+            if (metrics != null)
+                metrics.onReconnectFailed();
+            deliverError(StreamError.reconnectError(Constants.RECONNECT_FAILED_MESSAGE));
         }
     };
 
@@ -197,7 +549,7 @@ public class SocketManager {
         @Override
         public void call(final Object... args) {
             JSONObject response = (JSONObject) args[0];
-            listener.onErrorReceived(StreamError.unauthorizedError(response.toString()));
+            deliverError(StreamError.unauthorizedError(response.toString()));
         }
     };
 
@@ -207,9 +559,14 @@ public class SocketManager {
             if (args.length == 1) {
                 try {
                     JSONObject response = (JSONObject) args[0];
-                    String movieId = response.getString(Constants.JSON_KEY_MOVIE_ID);
+                    final String movieId = response.getString(Constants.JSON_KEY_MOVIE_ID);
                     if(movieId != null)
-                        listener.onMovieStartEventReceived(movieId);
+                        deliver(Constants.EVENT_MOVIE_START, ListenerDispatcher.EventType.OTHER, new ListenerEvent() {
+                            @Override
+                            public void deliver(SocketListener listener) {
+                                listener.onMovieStartEventReceived(movieId);
+                            }
+                        });
                 } catch (JSONException e) {
                     e.printStackTrace();
                 }
@@ -220,7 +577,15 @@ public class SocketManager {
     private Emitter.Listener onMovieEnd = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
-            listener.onMovieEndEventReceived();
+            if (timelineRecorder != null)
+                timelineRecorder.stop();
+            clearScene();
+            deliver(Constants.EVENT_MOVIE_END, ListenerDispatcher.EventType.OTHER, new ListenerEvent() {
+                @Override
+                public void deliver(SocketListener listener) {
+                    listener.onMovieEndEventReceived();
+                }
+            });
         }
     };
 
@@ -229,15 +594,23 @@ public class SocketManager {
         public void call(final Object... args) {
             if (args.length > 0) {
                 try {
-                    JSONObject response = (JSONObject) args[0];
-                    Type listCard = new TypeToken<List<Card>>() {
-                    }.getType();
-                    String jsonCards = response.getString(Constants.JSON_KEY_CARDS);
-                    if(jsonCards != null) {
-                        List<Card> cards = gson.fromJson(jsonCards, listCard);
-                        listener.onSceneStartEventReceived(cards);
+                    final List<Card> cards = readCards(Constants.EVENT_SCENE_START, (JSONObject) args[0]);
+                    if (cards != null) {
+                        reconnectStats.onScene();
+                        if (timelineRecorder != null)
+                            timelineRecorder.onSceneCards(cards);
+                        notifySceneCards(cards);
+                        deliver(Constants.EVENT_SCENE_START, ListenerDispatcher.EventType.SCENE_START, new ListenerEvent() {
+                            @Override
+                            public void deliver(SocketListener listener) {
+                                boolean resolved = sceneState.matchesLocal(cards);
+                                sceneState.start(cards);
+                                if (!resolved)
+                                    listener.onSceneStartEventReceived(cards);
+                            }
+                        });
                     }
-                } catch (JSONException e) {
+                } catch (Exception e) {
                     e.printStackTrace();
                 }
             }
@@ -249,39 +622,121 @@ public class SocketManager {
         public void call(final Object... args) {
             if (args.length > 0) {
                 try {
-                    JSONObject response = (JSONObject) args[0];
-                    Type listCard = new TypeToken<List<Card>>() {
-                    }.getType();
-                    String jsonCards = response.getString(Constants.JSON_KEY_CARDS);
-                    if(jsonCards != null) {
-                        List<Card> cards = gson.fromJson(jsonCards, listCard);
-                        listener.onSceneUpdateEventReceived(cards);
+                    final List<Card> cards = readCards(Constants.EVENT_SCENE_UPDATE, (JSONObject) args[0]);
+                    if (cards != null) {
+                        reconnectStats.onScene();
+                        if (timelineRecorder != null)
+                            timelineRecorder.onSceneCards(cards);
+                        notifySceneCards(cards);
+                        // the delta is computed on delivery, against the last delivered scene, so that superseded
+                        // updates can be dropped
+                        deliver(Constants.EVENT_SCENE_UPDATE, ListenerDispatcher.EventType.SCENE_UPDATE, new ListenerEvent() {
+                            @Override
+                            public void deliver(SocketListener listener) {
+                                if (listener instanceof SceneDeltaListener) {
+                                    SceneDelta delta = sceneState.update(cards);
+                                    if (!delta.isEmpty())
+                                        ((SceneDeltaListener) listener).onSceneDeltaReceived(delta);
+                                } else {
+                                    listener.onSceneUpdateEventReceived(cards);
+                                }
+                            }
+                        });
                     }
-                } catch (JSONException e) {
+                } catch (Exception e) {
                     e.printStackTrace();
                 }
             }
         }
     };
 
+    /**
+     * Reads the card array of a scene event straight from the socket.io payload, without turning it back into text.
+     *
+     * @param response the scene event payload
+     * @return the cards of the scene, or null if the payload has no card array
+     * @throws IOException if the card array cannot be read
+     */
+    List<Card> readCards(JSONObject response) throws IOException {
+        JSONArray jsonCards = response.optJSONArray(Constants.JSON_KEY_CARDS);
+        if (jsonCards == null)
+            return null;
+        List<Card> cards;
+        if (this.lazyCards) {
+            // one reader for all the headers, a JsonReader is not cheap to allocate
+            JSONObjectReader headerReader = new JSONObjectReader(jsonCards, Constants.JSON_KEYS_CARD_HEADER, this.stringPool);
+            cards = new ArrayList<>(jsonCards.length());
+            headerReader.beginArray();
+            for (int i = 0; headerReader.hasNext(); i++) {
+                if (headerReader.peek() == JsonToken.NULL) {
+                    headerReader.nextNull();
+                    cards.add(null);
+                } else {
+                    cards.add(SceneCard.read(headerReader, jsonCards.optJSONObject(i), this.sceneCardAdapter,
+                            this.cardAdapter, this.stringPool));
+                }
+            }
+            headerReader.endArray();
+        } else {
+            cards = cardListAdapter.read(new JSONObjectReader(jsonCards, this.stringPool));
+        }
+        InternPool<Card> pool = this.cardPool;
+        if (pool != null && cards != null) {
+            for (int i = 0; i < cards.size(); i++) {
+                Card card = cards.get(i);
+                if (card != null && card.getCardId() != null)
+                    cards.set(i, pool.intern(new CardCacheKey(card.getCardId(), card.getVersion(), card.getLocale(), null), card));
+            }
+        }
+        return cards;
+    }
+
+    private List<Card> readCards(String event, JSONObject response) throws IOException {
+        MetricsSink sink = this.metrics;
+        if (sink == null)
+            return readCards(response);
+        long startTime = System.nanoTime();
+        List<Card> cards = readCards(response);
+        sink.onStreamEventParsed(event, System.nanoTime() - startTime);
+        return cards;
+    }
+
     private Emitter.Listener onSceneEnd = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
-            listener.onSceneEndEventReceived();
+            if (timelineRecorder != null)
+                timelineRecorder.onSceneEnd();
+            clearScene();
+            deliver(Constants.EVENT_SCENE_END, ListenerDispatcher.EventType.SCENE_END, new ListenerEvent() {
+                @Override
+                public void deliver(SocketListener listener) {
+                    listener.onSceneEndEventReceived();
+                }
+            });
         }
     };
 
     private Emitter.Listener onPauseStart = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
-            listener.onPausedStartEventReceived();
+            deliver(Constants.EVENT_PAUSE_START, ListenerDispatcher.EventType.OTHER, new ListenerEvent() {
+                @Override
+                public void deliver(SocketListener listener) {
+                    listener.onPausedStartEventReceived();
+                }
+            });
         }
     };
 
     private Emitter.Listener onPauseEnd = new Emitter.Listener() {
         @Override
         public void call(final Object... args) {
-            listener.onPausedEndEventReceived();
+            deliver(Constants.EVENT_PAUSE_END, ListenerDispatcher.EventType.OTHER, new ListenerEvent() {
+                @Override
+                public void deliver(SocketListener listener) {
+                    listener.onPausedEndEventReceived();
+                }
+            });
         }
     };
 
@@ -290,9 +745,12 @@ public class SocketManager {
         public void call(final Object... args) {
             if (args.length > 0) {
                 try {
+                    long startTime = System.nanoTime();
                     JSONObject response = (JSONObject) args[0];
                     StreamError error = gson.fromJson(response.toString(), StreamError.class);
-                    listener.onErrorReceived(error);
+                    if (metrics != null)
+                        metrics.onStreamEventParsed(Constants.EVENT_ERROR, System.nanoTime() - startTime);
+                    deliverError(error);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -1,14 +1,19 @@
 package sdk.client.dive.tv.socket;
 
 import com.google.gson.Gson;
-import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.model.Card;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
 
+import sdk.client.dive.tv.metrics.MetricsSink;
+import sdk.client.dive.tv.rest.TokenManager;
 import sdk.client.dive.tv.socket.model.StreamMessage;
 import sdk.client.dive.tv.utils.Constants;
-import sdk.client.dive.tv.utils.SharedPreferencesHelper;
-import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.utils.InternPool;
 
 
 /**
@@ -25,37 +30,215 @@ public class StreamApi {
     }
 
     private String host;
-    private SocketManager socketManager;
+    private TokenManager tokenManager;
+    private Gson gson;
+    private ScheduledExecutorService scheduler;
+    private StreamConnection connection;
+    private StreamHandle stream;
+    private List<StreamHandle> streams = new CopyOnWriteArrayList<>();
+    private volatile SceneTimeline sceneTimeline;
+    private volatile MetricsSink metrics;
+    private volatile InternPool<String> stringPool;
+    private volatile InternPool<Card> cardPool;
+    private volatile boolean lazyCards;
 
-    public StreamApi(String environment, SharedPreferencesHelper settings, DefaultApi restAPI, Gson gson) {
-        this.host = hosts.get(environment);
-        this.socketManager = new SocketManager(settings, restAPI, gson);
+    /**
+     * @param environment API environment. Allowed values: dev | pre | pro
+     * @param tokenManager Token manager used to authenticate the socket
+     * @param gson Gson instance used to parse the stream events
+     * @param scheduler Scheduler of the coalesced vod_set and vod_continue messages
+     */
+    public StreamApi(String environment, TokenManager tokenManager, Gson gson, ScheduledExecutorService scheduler) {
+        this(tokenManager, gson, scheduler, hosts.get(environment));
+    }
+
+    private StreamApi(TokenManager tokenManager, Gson gson, ScheduledExecutorService scheduler, String host) {
+        this.host = host;
+        this.tokenManager = tokenManager;
+        this.gson = gson;
+        this.scheduler = scheduler;
+        this.connection = new StreamConnection(tokenManager);
+        this.stream = new StreamHandle(this.host, new SocketManager(tokenManager, gson, this.connection), scheduler);
+    }
+
+    /**
+     * Creates a StreamApi that connects to a stream server other than the ones of the API environments, e.g. a local
+     * stand-in of the stream server
+     *
+     * @param host Stream server host, with its scheme and port
+     */
+    static StreamApi forHost(String host, TokenManager tokenManager, Gson gson, ScheduledExecutorService scheduler) {
+        return new StreamApi(tokenManager, gson, scheduler, host);
     }
 
     public void connect(StreamMessage message, SocketListener listener) {
-        try {
-            String queryParams;
-            String url;
-            if(message.getType() == StreamMessage.Type.connect_vod) {
-                queryParams = Constants.MOVIE_ID_QUERY_PARAM + message.getMovieId() + Constants.TIMESTAMP_QUERY_PARAM + message.getTimestamp();
-                url = this.host + Constants.VOD_ENDPOINT;
-            } else {
-                queryParams = Constants.CHANNEL_ID_QUERY_PARAM + message.getChannelId();
-                url = this.host + Constants.TV_CHANNEL_ENDPOINT;
+        this.stream.connect(message, listener);
+    }
+
+    /**
+     * Opens a stream alongside the one opened by "connect" and the other open streams, e.g. a picture-in-picture
+     * channel while a VOD is playing. It joins its namespace on the connection already open with the stream server.
+     *
+     * @param message Connection message of the stream, connect_vod or connect_tv
+     * @param listener Instance of socket listener of the new stream
+     * @return the new stream, to send its messages and close it
+     */
+    public StreamHandle openStream(StreamMessage message, SocketListener listener) {
+        SocketManager socketManager = new SocketManager(this.tokenManager, this.gson, this.connection);
+        socketManager.setSceneTimeline(this.sceneTimeline);
+        socketManager.setMetricsSink(this.metrics);
+        socketManager.setInternPools(this.stringPool, this.cardPool);
+        socketManager.setLazyCards(this.lazyCards);
+        StreamHandle handle = new StreamHandle(this.host, socketManager, this.scheduler) {
+            @Override
+            public void close() {
+                super.close();
+                streams.remove(this);
             }
-            this.socketManager.openSocket(queryParams, url, listener);
-        } catch (Exception e) {
-            e.printStackTrace();
-            listener.onErrorReceived(StreamError.connectSocketError(e.getMessage()));
-        }
+        };
+        this.streams.add(handle);
+        handle.connect(message, listener);
+        return handle;
+    }
+
+    /**
+     * @return the streams opened by "openStream" and not closed yet
+     */
+    public List<StreamHandle> getStreams() {
+        return Collections.unmodifiableList(this.streams);
     }
 
     public void sendMessage(StreamMessage message){
-        this.socketManager.emitMessage(message);
+        this.stream.sendMessage(message);
+    }
+
+    /**
+     * Opens the connection with the stream server of the environment ahead of time, so that the next "connect" only
+     * has to authenticate its stream
+     */
+    public void prewarm() {
+        this.connection.prewarm(this.host);
+    }
+
+    /**
+     * Closes every stream and the connection opened by "prewarm"
+     */
+    public void releasePrewarmed() {
+        this.stream.close();
+        for (StreamHandle handle : this.streams)
+            handle.close();
+        this.connection.release();
+    }
+
+    /**
+     * @return the connections with the stream server, shared by the streams
+     */
+    public StreamConnection getStreamConnection() {
+        return this.connection;
+    }
+
+    /**
+     * @return the coalescer of vod_set and vod_continue messages, which allows to tune its window
+     */
+    public SeekCoalescer getSeekCoalescer() {
+        return this.stream.getSeekCoalescer();
+    }
+
+    /**
+     * Registers an observer of the scene events of every stream opened by this instance
+     *
+     * @param observer the scene observer
+     */
+    public void addSceneObserver(SceneObserver observer) {
+        this.stream.addSceneObserver(observer);
+    }
+
+    public void removeSceneObserver(SceneObserver observer) {
+        this.stream.removeSceneObserver(observer);
+    }
+
+    /**
+     * @return the dispatcher of the SocketListener events, which allows to choose the delivery thread
+     */
+    public ListenerDispatcher getListenerDispatcher() {
+        return this.stream.getListenerDispatcher();
+    }
+
+    /**
+     * @param timeline the scene timeline used to resolve VOD seeks locally, or null to disable it
+     */
+    public void setSceneTimeline(SceneTimeline timeline) {
+        this.sceneTimeline = timeline;
+        this.stream.getSocketManager().setSceneTimeline(timeline);
+        for (StreamHandle handle : this.streams)
+            handle.getSocketManager().setSceneTimeline(timeline);
+    }
+
+    /**
+     * Records the events received on the stream opened by "connect". The streams opened with "openStream" are not
+     * recorded, so that the journal holds a single stream.
+     *
+     * @param journal the journal writer, or null to stop recording
+     */
+    public void setJournal(StreamJournalWriter journal) {
+        this.stream.getSocketManager().setJournal(journal);
+    }
+
+    /**
+     * @return a player of stream journals that parses the events as the streams of this instance
+     */
+    public StreamJournalPlayer createJournalPlayer() {
+        StreamJournalPlayer player = new StreamJournalPlayer(this.gson);
+        player.getSocketManager().setInternPools(this.stringPool, this.cardPool);
+        player.getSocketManager().setLazyCards(this.lazyCards);
+        return player;
+    }
+
+    /**
+     * @param metrics Sink of the stream metrics of every stream opened by this instance, or null
+     */
+    public void setMetricsSink(MetricsSink metrics) {
+        this.metrics = metrics;
+        this.stream.getSocketManager().setMetricsSink(metrics);
+        for (StreamHandle handle : this.streams)
+            handle.getSocketManager().setMetricsSink(metrics);
+    }
+
+    /**
+     * Shares the strings and the cards repeated by the scene events of every stream opened by this instance, see
+     * {@link SocketManager#setInternPools(InternPool, InternPool)}
+     *
+     * @param stringPool Pool of the strings of the cards, or null
+     * @param cardPool Pool of the cards, or null
+     */
+    public void setInternPools(InternPool<String> stringPool, InternPool<Card> cardPool) {
+        this.stringPool = stringPool;
+        this.cardPool = cardPool;
+        this.stream.getSocketManager().setInternPools(stringPool, cardPool);
+        for (StreamHandle handle : this.streams)
+            handle.getSocketManager().setInternPools(stringPool, cardPool);
+    }
+
+    /**
+     * @param lazyCards true to deliver the cards of the scene events of every stream opened by this instance as
+     *                  SceneCards, see {@link SocketManager#setLazyCards(boolean)}
+     */
+    public void setLazyCards(boolean lazyCards) {
+        this.lazyCards = lazyCards;
+        this.stream.getSocketManager().setLazyCards(lazyCards);
+        for (StreamHandle handle : this.streams)
+            handle.getSocketManager().setLazyCards(lazyCards);
+    }
+
+    /**
+     * @return the socket manager, which allows to tune the reconnection backoff and exposes the reconnection stats
+     */
+    public SocketManager getSocketManager() {
+        return this.stream.getSocketManager();
     }
 
     public void disconnect() {
-        this.socketManager.closeSocket();
+        this.stream.close();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,310 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.ApiException;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLSession;
+
+import io.socket.client.IO;
+import io.socket.client.Manager;
+import io.socket.client.Socket;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import sdk.client.dive.tv.rest.TokenManager;
+import sdk.client.dive.tv.rest.callbacks.TokenCallback;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Connections with the stream server shared by the streams opened on it. Each stream joins its namespace on a single
+ * socket.io connection of the host, so opening a second stream does not add a TLS connection. The server keeps one
+ * socket per namespace and connection, so a stream on a namespace already in use (e.g. a second TV channel) opens
+ * another connection.
+ * A connection is closed when its last stream is closed, unless it was opened by "prewarm".
+ */
+public class StreamConnection {
+
+    private final TokenManager tokenManager;
+    private final OkHttpClient httpClient;
+    private final List<Link> links = new ArrayList<>();
+
+    private int reconnectionAttempts = Constants.SOCKET_RECONNECTION_ATTEMPTS;
+    private long reconnectionDelay = Constants.SOCKET_RECONNECTION_DELAY;
+    private long reconnectionDelayMax = Constants.SOCKET_RECONNECTION_DELAY_MAX;
+    private double randomizationFactor = Constants.SOCKET_RECONNECTION_RANDOMIZATION_FACTOR;
+
+    /**
+     * @param tokenManager Token manager refreshed by "prewarm"
+     */
+    public StreamConnection(TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+        this.httpClient = new OkHttpClient.Builder()
+                .hostnameVerifier(new HostnameVerifier() {
+                    @Override
+                    public boolean verify(String hostname, SSLSession session) {
+                        return true;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Opens the connection with the stream server ahead of time (TLS and transport handshakes) and refreshes the access
+     * token if needed, so that the next stream opened on the host only joins its namespace and authenticates.
+     * The connection is kept open across the streams opened on it, until it is released.
+     *
+     * @param host Stream server host
+     */
+    public void prewarm(String host) {
+        try {
+            synchronized (this) {
+                Link link = find(host, null);
+                if (link == null)
+                    link = connect(host);
+                link.warm = true;
+            }
+            if (this.tokenManager != null) {
+                this.tokenManager.requestToken(new TokenCallback() {
+                    @Override
+                    public void onSuccess(String accessToken) {
+                    }
+
+                    @Override
+                    public void onFailure(int status, ApiException e) {
+                        if (e != null)
+                            e.printStackTrace();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Closes the connections opened by "prewarm" that have no open stream. The ones still in use are closed with their
+     * last stream.
+     */
+    public synchronized void release() {
+        Iterator<Link> iterator = this.links.iterator();
+        while (iterator.hasNext()) {
+            Link link = iterator.next();
+            link.warm = false;
+            if (link.sockets.isEmpty()) {
+                link.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized boolean isPrewarmed() {
+        for (Link link : this.links) {
+            if (link.warm)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return number of open connections with the stream server
+     */
+    public synchronized int getConnectionCount() {
+        return this.links.size();
+    }
+
+    /**
+     * Sets the exponential backoff between reconnection attempts: the delay doubles on each attempt, from the initial
+     * delay up to the maximum one, and is randomized by the given factor so that clients do not reconnect in step.
+     * Applied to the connections opened afterwards.
+     *
+     * @param delay Initial delay in milliseconds
+     * @param delayMax Maximum delay in milliseconds
+     * @param randomizationFactor Jitter, between 0 (none) and 1 (delay between 0 and twice the computed one)
+     */
+    public synchronized void setReconnectionBackoff(long delay, long delayMax, double randomizationFactor) {
+        this.reconnectionDelay = delay;
+        this.reconnectionDelayMax = delayMax;
+        this.randomizationFactor = randomizationFactor;
+    }
+
+    /**
+     * @param attempts Maximum number of reconnection attempts before giving up
+     */
+    public synchronized void setReconnectionAttempts(int attempts) {
+        this.reconnectionAttempts = attempts;
+    }
+
+    /**
+     * Creates the socket of a stream on a connection of its host where its namespace is free, opening a new connection
+     * if there is none. The socket is not connected.
+     *
+     * @param url Stream URL, host and namespace
+     * @param queryParams Query sent when joining the namespace
+     * @return the stream socket
+     */
+    synchronized Socket open(String url, String queryParams) throws URISyntaxException {
+        URI uri = new URI(url);
+        String host = uri.getScheme() + "://" + uri.getAuthority();
+        String namespace = uri.getPath();
+        Link link = find(host, namespace);
+        if (link == null)
+            link = connect(host);
+        Manager.Options options = new Manager.Options();
+        options.query = queryParams;
+        Socket socket = link.manager.socket(namespace, options);
+        link.sockets.put(namespace, socket);
+        return socket;
+    }
+
+    /**
+     * Closes the socket of a stream, and its connection if it was the last stream on it and it is not prewarmed
+     *
+     * @param socket the stream socket
+     */
+    synchronized void close(Socket socket) {
+        socket.close();
+        Iterator<Link> iterator = this.links.iterator();
+        while (iterator.hasNext()) {
+            Link link = iterator.next();
+            if (link.sockets.values().remove(socket)) {
+                if (link.sockets.isEmpty() && !link.warm) {
+                    link.close();
+                    iterator.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the first connection of the host where the namespace is free, or null
+     */
+    private Link find(String host, String namespace) {
+        for (Link link : this.links) {
+            if (link.host.equals(host) && (namespace == null || !link.sockets.containsKey(namespace)))
+                return link;
+        }
+        return null;
+    }
+
+    private Link connect(String host) throws URISyntaxException {
+        Link link = new Link(host, new MultiplexManager(new URI(host), getSocketOptions()));
+        this.links.add(link);
+        return link;
+    }
+
+    private IO.Options getSocketOptions() {
+        IO.Options options = new IO.Options();
+        options.callFactory = this.httpClient;
+        options.webSocketFactory = new ClosingWebSocketFactory(this.httpClient);
+        options.secure = Constants.SOCKET_SECURE_FLAG;
+        options.path = Constants.SOCKET_PATH;
+        options.reconnection = Constants.SOCKET_RECONNECTION_FLAG;
+        options.reconnectionAttempts = this.reconnectionAttempts;
+        options.reconnectionDelay = this.reconnectionDelay;
+        options.reconnectionDelayMax = this.reconnectionDelayMax;
+        options.randomizationFactor = this.randomizationFactor;
+        options.transports = Constants.SOCKET_TRANSPORT_PROTOCOL;
+        return options;
+    }
+
+    private static class Link {
+        private final String host;
+        private final Manager manager;
+        private final Socket rootSocket;
+        private final Map<String, Socket> sockets = new HashMap<>();
+        private boolean warm;
+
+        private Link(String host, Manager manager) {
+            this.host = host;
+            this.manager = manager;
+            // the default namespace socket keeps the connection open while streams are closed and opened on it
+            this.rootSocket = manager.socket(Constants.SOCKET_DEFAULT_NAMESPACE);
+            this.rootSocket.connect();
+        }
+
+        private void close() {
+            // the manager closes its connection once no socket created by "socket" is left
+            this.rootSocket.close();
+        }
+    }
+
+    private static class MultiplexManager extends Manager {
+
+        private MultiplexManager(URI uri, Options options) {
+            super(uri, options);
+        }
+
+        /**
+         * The Manager caches one socket per namespace, with the query of its first connection. Stream sockets are
+         * created on each call instead, so that a namespace can be joined again with another query.
+         */
+        @Override
+        public Socket socket(String nsp, Options opts) {
+            if (Constants.SOCKET_DEFAULT_NAMESPACE.equals(nsp))
+                return super.socket(nsp, opts);
+            return new Socket(this, nsp, opts);
+        }
+    }
+
+    /**
+     * The websocket transport does not answer the close frames of the server, so a connection closed by the server
+     * (e.g. on a redeploy) was only detected by the ping timeout, more than a minute later. The close is answered here,
+     * the transport sees the connection closed and the stream reconnects right away.
+     */
+    private static class ClosingWebSocketFactory implements WebSocket.Factory {
+
+        private final WebSocket.Factory factory;
+
+        private ClosingWebSocketFactory(WebSocket.Factory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public WebSocket newWebSocket(Request request, final WebSocketListener listener) {
+            return this.factory.newWebSocket(request, new WebSocketListener() {
+                @Override
+                public void onOpen(WebSocket webSocket, Response response) {
+                    listener.onOpen(webSocket, response);
+                }
+
+                @Override
+                public void onMessage(WebSocket webSocket, String text) {
+                    listener.onMessage(webSocket, text);
+                }
+
+                @Override
+                public void onMessage(WebSocket webSocket, ByteString bytes) {
+                    listener.onMessage(webSocket, bytes);
+                }
+
+                @Override
+                public void onClosing(WebSocket webSocket, int code, String reason) {
+                    listener.onClosing(webSocket, code, reason);
+                    webSocket.close(Constants.SOCKET_NORMAL_CLOSURE, null);
+                }
+
+                @Override
+                public void onClosed(WebSocket webSocket, int code, String reason) {
+                    listener.onClosed(webSocket, code, reason);
+                }
+
+                @Override
+                public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                    listener.onFailure(webSocket, t, response);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package sdk.client.dive.tv.socket;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.socket.model.StreamMessage;
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * A VOD or TV channel stream, with its own listener, scene state and seek coalescer. Streams opened by the same
+ * StreamApi share their connection with the stream server.
+ */
+public class StreamHandle {
+
+    private final String host;
+    private final SocketManager socketManager;
+    private final SeekCoalescer seekCoalescer;
+
+    /**
+     * @param host Stream server host
+     * @param socketManager Socket manager of the stream
+     * @param scheduler Scheduler of the coalesced vod_set and vod_continue messages
+     */
+    StreamHandle(String host, final SocketManager socketManager, ScheduledExecutorService scheduler) {
+        this.host = host;
+        this.socketManager = socketManager;
+        this.seekCoalescer = new SeekCoalescer(scheduler, new SeekCoalescer.Sender() {
+            @Override
+            public void send(StreamMessage message) {
+                socketManager.emit(message);
+            }
+        }, Constants.SEEK_COALESCE_WINDOW);
+    }
+
+    void connect(StreamMessage message, SocketListener listener) {
+        try {
+            String queryParams;
+            String url;
+            if(message.getType() == StreamMessage.Type.connect_vod) {
+                queryParams = SocketManager.vodQuery(message.getMovieId(), message.getTimestamp());
+                url = this.host + Constants.VOD_ENDPOINT;
+            } else {
+                queryParams = Constants.CHANNEL_ID_QUERY_PARAM + message.getChannelId();
+                url = this.host + Constants.TV_CHANNEL_ENDPOINT;
+            }
+            this.seekCoalescer.cancel();
+            this.socketManager.openSocket(queryParams, url, listener);
+            if (message.getType() == StreamMessage.Type.connect_vod)
+                this.socketManager.startVodSession(message.getMovieId(), message.getTimestamp());
+            else
+                this.socketManager.startChannelSession(message.getChannelId());
+        } catch (Exception e) {
+            e.printStackTrace();
+            listener.onErrorReceived(StreamError.connectSocketError(e.getMessage()));
+        }
+    }
+
+    /**
+     * Sends a client message on this stream. The playback position, and the scene resolved locally for a vod_set, are
+     * updated immediately, while the vod_set and vod_continue messages sent to the server are coalesced, see
+     * {@link #getSeekCoalescer()}
+     *
+     * @param message the client message
+     */
+    public void sendMessage(StreamMessage message) {
+        this.socketManager.trackMessage(message);
+        this.seekCoalescer.send(message);
+    }
+
+    /**
+     * Closes this stream. Its connection is closed as well if no other stream uses it and it was not prewarmed.
+     */
+    public void close() {
+        this.seekCoalescer.cancel();
+        this.socketManager.closeSocket();
+    }
+
+    /**
+     * @return the coalescer of vod_set and vod_continue messages, which allows to tune its window
+     */
+    public SeekCoalescer getSeekCoalescer() {
+        return this.seekCoalescer;
+    }
+
+    /**
+     * @return the dispatcher of the SocketListener events, which allows to choose the delivery thread
+     */
+    public ListenerDispatcher getListenerDispatcher() {
+        return this.socketManager.getDispatcher();
+    }
+
+    /**
+     * Registers an observer of the scene events of this stream
+     *
+     * @param observer the scene observer
+     */
+    public void addSceneObserver(SceneObserver observer) {
+        this.socketManager.addSceneObserver(observer);
+    }
+
+    public void removeSceneObserver(SceneObserver observer) {
+        this.socketManager.removeSceneObserver(observer);
+    }
+
+    /**
+     * @return the socket manager, which exposes the reconnection stats of this stream
+     */
+    public SocketManager getSocketManager() {
+        return this.socketManager;
+    }
+}
@@ -0,0 +1,87 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a stream journal into a SocketListener, without a connection, e.g. to reproduce a recorded session or as an
+ * offline demo. The events go through a SocketManager of their own, so they are parsed and dispatched as the live ones,
+ * and its dispatcher, metrics sink and scene observers can be set with "getSocketManager".
+ */
+public class StreamJournalPlayer {
+
+    private final SocketManager socketManager;
+    private volatile boolean stopped;
+    private volatile Thread thread;
+
+    /**
+     * @param gson Gson instance used to parse the stream events
+     */
+    public StreamJournalPlayer(Gson gson) {
+        this.socketManager = new SocketManager(null, gson);
+    }
+
+    /**
+     * @return the socket manager that handles the replayed events
+     */
+    public SocketManager getSocketManager() {
+        return this.socketManager;
+    }
+
+    /**
+     * Replays the journal on the calling thread, until its end or until "stop" is called
+     *
+     * @param reader Journal to replay, not closed
+     * @param listener Instance of socket listener
+     * @param speed Replay speed: 1 for the recorded pace, 2 for twice as fast..., or 0 to replay the events without
+     *              waiting
+     * @return the number of events replayed
+     * @throws IOException if the journal cannot be read
+     */
+    public int play(StreamJournalReader reader, SocketListener listener, double speed) throws IOException {
+        this.stopped = false;
+        this.thread = Thread.currentThread();
+        int count = 0;
+        long startTime = System.nanoTime();
+        StreamJournalReader.Record record;
+        while (!stopped && (record = reader.next()) != null) {
+            if (StreamJournalWriter.code(record.getEvent()) == 0)
+                continue;
+            Object[] args;
+            try {
+                args = record.getArgs();
+            } catch (JSONException e) {
+                e.printStackTrace();
+                continue;
+            }
+            if (speed > 0) {
+                long eventTime = startTime + (long) (TimeUnit.MICROSECONDS.toNanos(record.getTimeMicros()) / speed);
+                long wait;
+                while ((wait = eventTime - System.nanoTime()) > 0 && !stopped)
+                    LockSupport.parkNanos(wait);
+                if (stopped)
+                    break;
+            }
+            this.socketManager.handleEvent(listener, record.getEvent(), args);
+            count++;
+        }
+        this.thread = null;
+        this.socketManager.getDispatcher().shutdown();
+        return count;
+    }
+
+    /**
+     * Stops the replay in progress
+     */
+    public void stop() {
+        this.stopped = true;
+        Thread playing = this.thread;
+        if (playing != null)
+            LockSupport.unpark(playing);
+    }
+}
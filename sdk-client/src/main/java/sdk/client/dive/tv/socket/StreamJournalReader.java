@@ -0,0 +1,145 @@
+package sdk.client.dive.tv.socket;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Reads the records of a journal written by a StreamJournalWriter. A journal cut short, e.g. by a crash of the
+ * recording app, is read up to its last complete record.
+ */
+public class StreamJournalReader {
+
+    /**
+     * A stream event of the journal
+     */
+    public static class Record {
+        private final String event;
+        private final long timeMicros;
+        private final int payloadKind;
+        private final String payload;
+
+        Record(String event, long timeMicros, int payloadKind, String payload) {
+            this.event = event;
+            this.timeMicros = timeMicros;
+            this.payloadKind = payloadKind;
+            this.payload = payload;
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        /**
+         * @return receive time of the event since the start of the recording, in microseconds
+         */
+        public long getTimeMicros() {
+            return timeMicros;
+        }
+
+        /**
+         * @return the payload as received, JSON or plain text, or null if the event had none
+         */
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return the event arguments, as the socket delivered them
+         * @throws JSONException if the JSON payload cannot be parsed
+         */
+        public Object[] getArgs() throws JSONException {
+            switch (payloadKind) {
+                case StreamJournalWriter.PAYLOAD_JSON:
+                    return new Object[]{new JSONObject(payload)};
+                case StreamJournalWriter.PAYLOAD_TEXT:
+                    return new Object[]{payload};
+                default:
+                    return new Object[0];
+            }
+        }
+    }
+
+    private final DataInputStream in;
+    private final long startTime;
+    private long time;
+
+    /**
+     * @param in Stream of the journal, closed with the reader
+     * @throws IOException if the stream is not a journal of a supported version
+     */
+    public StreamJournalReader(InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != Constants.JOURNAL_MAGIC)
+            throw new IOException("Not a stream journal");
+        int version = header.readUnsignedByte();
+        if (version != Constants.JOURNAL_VERSION)
+            throw new IOException("Unsupported stream journal version " + version);
+        this.startTime = header.readLong();
+        this.in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(in), Constants.JOURNAL_BUFFER_SIZE));
+    }
+
+    public static StreamJournalReader open(File file) throws IOException {
+        return new StreamJournalReader(new FileInputStream(file));
+    }
+
+    /**
+     * @return the recording start time, in epoch milliseconds
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return the next record, or null at the end of the journal
+     * @throws IOException if the journal cannot be read
+     */
+    public Record next() throws IOException {
+        try {
+            int code = in.readUnsignedByte();
+            String event = code == 0 ? in.readUTF() : event(code);
+            time += readVarLong();
+            int payloadKind = in.readUnsignedByte();
+            String payload = null;
+            if (payloadKind != StreamJournalWriter.PAYLOAD_NONE) {
+                byte[] bytes = new byte[(int) readVarLong()];
+                in.readFully(bytes);
+                payload = new String(bytes, StreamJournalWriter.UTF_8);
+            }
+            return new Record(event, time, payloadKind, payload);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static String event(int code) throws IOException {
+        if (code >= StreamJournalWriter.EVENTS.length)
+            throw new IOException("Unknown stream journal event " + code);
+        return StreamJournalWriter.EVENTS[code];
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed stream journal");
+    }
+}
@@ -0,0 +1,153 @@
+package sdk.client.dive.tv.socket;
+
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import sdk.client.dive.tv.utils.Constants;
+
+/**
+ * Records the stream events received by a SocketManager into a compact binary journal, to replay them later with a
+ * StreamJournalPlayer.
+ * <p>
+ * The journal starts with an uncompressed header (magic number, version, recording start time as epoch milliseconds)
+ * followed by the deflated records. Each record is the event code (or 0 and the event name, for events without a
+ * code), the receive time as microseconds since the previous record, the payload kind and the payload as length-prefixed
+ * UTF-8 text. Integers are written as variable-length quantities.
+ * <p>
+ * Recording runs on the socket event thread, so a write error stops the recording instead of reaching the stream.
+ * Records are buffered: "flush" makes them readable, e.g. before reporting a problem, and "close" ends the journal.
+ */
+public class StreamJournalWriter {
+
+    static final String[] EVENTS = new String[]{null, Constants.EVENT_MOVIE_START, Constants.EVENT_MOVIE_END,
+            Constants.EVENT_SCENE_START, Constants.EVENT_SCENE_UPDATE, Constants.EVENT_SCENE_END,
+            Constants.EVENT_PAUSE_START, Constants.EVENT_PAUSE_END, Constants.EVENT_ERROR};
+
+    static final int PAYLOAD_NONE = 0;
+    static final int PAYLOAD_JSON = 1;
+    static final int PAYLOAD_TEXT = 2;
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Deflater deflater;
+    private final DataOutputStream out;
+    private final long startTime;
+    private long lastTime;
+    private int recordCount;
+    private boolean closed;
+
+    /**
+     * @param out Stream where the journal is written, closed with the journal
+     * @throws IOException if the header cannot be written
+     */
+    public StreamJournalWriter(OutputStream out) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(Constants.JOURNAL_MAGIC);
+        header.writeByte(Constants.JOURNAL_VERSION);
+        header.writeLong(System.currentTimeMillis());
+        this.deflater = new Deflater(Deflater.BEST_SPEED);
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(out, this.deflater, Constants.JOURNAL_BUFFER_SIZE, true),
+                Constants.JOURNAL_BUFFER_SIZE));
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * @param file Journal file, replaced if it exists
+     */
+    public static StreamJournalWriter open(File file) throws IOException {
+        return new StreamJournalWriter(new FileOutputStream(file));
+    }
+
+    /**
+     * Records a stream event received now
+     *
+     * @param event Stream event name
+     * @param args Event payload, of which only the first argument is kept
+     */
+    public synchronized void record(String event, Object... args) {
+        if (closed)
+            return;
+        long time = (System.nanoTime() - startTime) / 1000;
+        try {
+            int code = code(event);
+            out.writeByte(code);
+            if (code == 0)
+                out.writeUTF(event);
+            writeVarLong(time - lastTime);
+            lastTime = time;
+            if (args.length == 0 || args[0] == null) {
+                out.writeByte(PAYLOAD_NONE);
+            } else {
+                out.writeByte(args[0] instanceof JSONObject ? PAYLOAD_JSON : PAYLOAD_TEXT);
+                byte[] payload = args[0].toString().getBytes(UTF_8);
+                writeVarLong(payload.length);
+                out.write(payload);
+            }
+            recordCount++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    /**
+     * Writes the buffered records, so that the journal can be read up to them
+     */
+    public synchronized void flush() {
+        if (closed)
+            return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+        }
+    }
+
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            // a deflater passed to DeflaterOutputStream is not ended by it, its native memory is released here
+            deflater.end();
+        }
+    }
+
+    public synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the code of an event, or 0 if it has none
+     */
+    static int code(String event) {
+        for (int i = 1; i < EVENTS.length; i++) {
+            if (EVENTS[i].equals(event))
+                return i;
+        }
+        return 0;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
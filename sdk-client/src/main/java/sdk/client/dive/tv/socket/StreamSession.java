@@ -0,0 +1,91 @@
+package sdk.client.dive.tv.socket;
+
+/**
+ * State of the current stream: the movie or channel, and for VOD the playback position, estimated from the
+ * messages sent by the client, so that the stream can be resumed after a reconnection.
+ */
+class StreamSession {
+
+    private String movieId;
+    private String channelId;
+    private long anchorPosition;
+    private long anchorTime;
+    private boolean playing;
+
+    /**
+     * On VOD stream opened
+     *
+     * @param movieId Movie ID
+     * @param position playback position in milliseconds
+     */
+    synchronized void startVod(String movieId, long position) {
+        this.movieId = movieId;
+        this.channelId = null;
+        anchor(position, true);
+    }
+
+    /**
+     * On TV channel stream opened
+     *
+     * @param channelId Channel ID
+     */
+    synchronized void startChannel(String channelId) {
+        this.movieId = null;
+        this.channelId = channelId;
+        anchor(0, false);
+    }
+
+    /**
+     * On vod_set or vod_continue sent
+     *
+     * @param position new playback position in milliseconds
+     */
+    synchronized void seek(long position) {
+        anchor(position, true);
+    }
+
+    /**
+     * On vod_pause sent
+     */
+    synchronized void pause() {
+        anchor(position(), false);
+    }
+
+    /**
+     * On vod_end sent or socket closed
+     */
+    synchronized void stop() {
+        movieId = null;
+        channelId = null;
+        anchor(0, false);
+    }
+
+    synchronized String getMovieId() {
+        return movieId;
+    }
+
+    synchronized String getChannelId() {
+        return channelId;
+    }
+
+    synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * @return estimated playback position in milliseconds
+     */
+    synchronized long position() {
+        return playing ? anchorPosition + (now() - anchorTime) : anchorPosition;
+    }
+
+    private void anchor(long position, boolean playing) {
+        this.anchorPosition = position;
+        this.anchorTime = now();
+        this.playing = playing;
+    }
+
+    long now() {
+        return System.nanoTime() / 1000000;
+    }
+}
@@ -0,0 +1,68 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the scenes received on the current VOD stream in the scene timeline, as intervals of the playback position
+ * estimated by the stream session.
+ */
+class VodTimelineRecorder {
+
+    private final SceneTimeline timeline;
+    private final StreamSession session;
+
+    private long openStart = -1;
+    private List<Card> openCards;
+
+    VodTimelineRecorder(SceneTimeline timeline, StreamSession session) {
+        this.timeline = timeline;
+        this.session = session;
+    }
+
+    SceneTimeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Before a vod_set or vod_continue is sent: the open scene is closed at the position reached before the jump
+     */
+    synchronized void beforeSeek() {
+        close(session.position());
+    }
+
+    /**
+     * On VOD stream opened, vod_end sent, movie end or socket closed
+     */
+    synchronized void stop() {
+        close(session.position());
+    }
+
+    synchronized void onSceneCards(List<Card> cards) {
+        if (session.getMovieId() == null)
+            return;
+        long position = session.position();
+        close(position);
+        openStart = position;
+        openCards = cards;
+    }
+
+    synchronized void onSceneEnd() {
+        if (session.getMovieId() == null)
+            return;
+        long position = session.position();
+        close(position);
+        openStart = position;
+        openCards = Collections.emptyList();
+    }
+
+    private void close(long position) {
+        String movieId = session.getMovieId();
+        if (openCards != null && movieId != null)
+            timeline.put(movieId, openStart, position, openCards);
+        openStart = -1;
+        openCards = null;
+    }
+}
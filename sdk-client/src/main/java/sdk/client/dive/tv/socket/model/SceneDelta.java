@@ -0,0 +1,52 @@
+package sdk.client.dive.tv.socket.model;
+
+import com.touchvie.sdk.model.Card;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Difference between the cards of the current scene and the ones received on a scene-update event.
+ */
+public class SceneDelta {
+
+    private final List<Card> added;
+    private final List<Card> removed;
+    private final List<Card> changed;
+
+    public SceneDelta(List<Card> added, List<Card> removed, List<Card> changed) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.changed = Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * @return the cards that were not in the scene, in the order of the update
+     */
+    public List<Card> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return the cards that are no longer in the scene, as they were last received
+     */
+    public List<Card> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return the cards that are still in the scene with a new version, in the order of the update
+     */
+    public List<Card> getChanged() {
+        return changed;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "SceneDelta{added=" + added.size() + ", removed=" + removed.size() + ", changed=" + changed.size() + "}";
+    }
+}
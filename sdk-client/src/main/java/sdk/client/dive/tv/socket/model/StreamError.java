@@ -44,6 +44,10 @@ public class StreamError {
         return new StreamError(Constants.ERROR_CODE, Constants.CONNECT_ERROR_TYPE, exceptionMessage);
     }
 
+    public static StreamError reconnectError(String exceptionMessage){
+        return new StreamError(Constants.ERROR_CODE, Constants.RECONNECT_ERROR_TYPE, exceptionMessage);
+    }
+
     public static StreamError openSocketError(String exceptionMessage){
         return new StreamError(Constants.ERROR_CODE, Constants.OPEN_SOCKET_ERROR_TYPE, exceptionMessage);
     }
@@ -44,6 +44,8 @@ public class Constants {
     public static final int ERROR_CODE = 500;
     public static final int UNAUTHORIZED_CODE = 401;
     public static final String CONNECT_ERROR_TYPE = "Error connecting to socket";
+    public static final String RECONNECT_ERROR_TYPE = "Error reconnecting to socket";
+    public static final String RECONNECT_FAILED_MESSAGE = "Reconnection attempts exhausted";
     public static final String OPEN_SOCKET_ERROR_TYPE = "Error opening a socket";
     public static final String EMIT_MESSAGE_ERROR_TYPE = "Error emitting message";
     public static final String AUTHENTICATION_ERROR_TYPE = "Authentication error";
@@ -64,15 +66,98 @@ public class Constants {
     public static final String GET_CHANNEL_MOVIE_SERVICE_NAME = "channel-movie";
     public static final String GET_STATIC_CHANNEL_SCENE_SERVICE_NAME = "static-channel";
 
+    // REQUEST PROFILES
+    public static final String REQUEST_PROFILE_FULL_DETAIL = "full-detail";
+    public static final String REQUEST_PROFILE_SCENE_STRIP = "scene-strip";
+    public static final String IMAGE_SIZE_SMALL = "s";
+    public static final String IMAGE_SIZE_MEDIUM = "m";
+    public static final String IMAGE_SIZE_LARGE = "l";
+
+    // CARD CACHE
+    public static final long CARD_CACHE_MAX_SIZE = 4 * 1024 * 1024; // 4 MB
+    public static final int CARD_CACHE_ENTRY_OVERHEAD = 64;
+    public static final int CARD_CACHE_CONTAINER_SIZE = 512; // average info container, in bytes
+    public static final int CARD_CACHE_PRODUCT_SIZE = 512; // average product, in bytes
+    public static final int CARD_CACHE_RELATION_SIZE = 1536; // average relation module, in bytes
+
+    // CHANNEL GRID CACHE
+    public static final int CHANNEL_GRID_CACHE_MAX_ENTRIES = 64;
+    public static final long CHANNEL_GRID_REFRESH_LEAD = 5000; // milliseconds before the end of the event on air
+    public static final long CHANNEL_GRID_DEFAULT_TTL = 60 * 1000L; // 1 minute, when no event is on air
+
+    // READY STATUS BATCHER
+    public static final long READY_BATCH_WINDOW = 50; // milliseconds
+    public static final int READY_BATCH_MAX_IDS_LENGTH = 1500; // characters, keeps the request URL under 2000
+    public static final int READY_BATCH_SEPARATOR_LENGTH = 3; // URL-encoded comma
+
+    // DISK CACHE
+    public static final String DISK_CACHE_DIRECTORY = "dive.tv.cache";
+    public static final long DISK_CACHE_MAX_SIZE = 10 * 1024 * 1024; // 10 MB
+    public static final int DISK_CACHE_FORMAT_VERSION = 1;
+    public static final long DISK_CACHE_MAX_STALE = 7 * 24 * 3600 * 1000L; // 7 days
+    public static final long DISK_CACHE_CARD_TTL = 24 * 3600 * 1000L; // 1 day
+    public static final long DISK_CACHE_CATALOG_MOVIE_TTL = 24 * 3600 * 1000L; // 1 day
+    public static final long DISK_CACHE_CHANNEL_MOVIE_TTL = 60 * 1000L; // 1 minute
+    public static final long DISK_CACHE_STATIC_MOVIE_SCENE_TTL = 24 * 3600 * 1000L; // 1 day
+
+    // BINARY CODEC
+    public static final int BINARY_CODEC_MAGIC = 0x44564231; // "DVB1"
+    public static final int BINARY_CODEC_VERSION = 1;
+    public static final int BINARY_CODEC_BUFFER_SIZE = 4096; // bytes, initial
+
+    // CARD PREFETCHER
+    public static final int PREFETCH_MAX_CONCURRENT = 2;
+    public static final String[] PREFETCH_TYPE_PRIORITY = new String[]{"person", "character", "movie", "serie", "song",
+            "ost", "location", "fashion", "vehicle", "reference", "quote", "trivia"};
+
+    // IMAGE CACHE
+    public static final String IMAGE_SERVICE_NAME = "image";
+    public static final String IMAGE_DISK_CACHE_DIRECTORY = "dive.tv.images";
+    public static final long IMAGE_DISK_CACHE_MAX_SIZE = 20 * 1024 * 1024; // 20 MB
+    public static final long IMAGE_MEMORY_CACHE_MAX_SIZE = 4 * 1024 * 1024; // 4 MB
+    public static final int IMAGE_MAX_CONCURRENT = 2;
+    public static final int IMAGE_CONNECT_TIMEOUT = 10000; // milliseconds
+    public static final int IMAGE_READ_TIMEOUT = 15000; // milliseconds
+
+    // SCENE TIMELINE
+    public static final int SCENE_TIMELINE_MAX_MOVIES = 8;
+    public static final long SCENE_TIMELINE_SAMPLE_DURATION = 1000; // milliseconds
+
+    // METRICS
+    public static final int METRICS_HISTOGRAM_BUCKETS = 32; // power-of-two microsecond buckets, up to ~18 minutes
+
+    // INTERN POOLS
+    public static final int INTERN_POOL_STRING_CAPACITY = 4096;
+    public static final int INTERN_POOL_CARD_CAPACITY = 512;
+
+    // STREAM JOURNAL
+    public static final int JOURNAL_MAGIC = 0x44564a31; // "DVJ1"
+    public static final int JOURNAL_VERSION = 1;
+    public static final int JOURNAL_BUFFER_SIZE = 65536; // bytes
+
+    // SEEK COALESCER
+    public static final long SEEK_COALESCE_WINDOW = 150; // milliseconds
+
+    // LISTENER DISPATCHER
+    public static final int LISTENER_QUEUE_CAPACITY = 64; // pending events, when not delivered directly
+
     // SOCKET MANAGER
     public static final String SOCKET_PATH = "/v1/stream";
+    public static final String SOCKET_DEFAULT_NAMESPACE = "/";
     public static final String[] SOCKET_TRANSPORT_PROTOCOL = new String[]{"websocket"};
     public static final boolean SOCKET_SECURE_FLAG = true;
-    public static final boolean SOCKET_MULTIPLEX_FLAG = false;
     public static final boolean SOCKET_RECONNECTION_FLAG = true;
+    public static final int SOCKET_RECONNECTION_ATTEMPTS = Integer.MAX_VALUE;
+    public static final long SOCKET_RECONNECTION_DELAY = 1000; // milliseconds, doubled on each attempt
+    public static final long SOCKET_RECONNECTION_DELAY_MAX = 30000; // milliseconds
+    public static final double SOCKET_RECONNECTION_RANDOMIZATION_FACTOR = 0.5;
+    public static final int SOCKET_NORMAL_CLOSURE = 1000; // websocket close code answered to the server
+    public static final String CLIENT_DISCONNECT_REASON = "io client disconnect";
     public static final String SOCKET_HANDSHAKE_KEY = "token";
     public static final String JSON_KEY_CARDS = "cards";
     public static final String JSON_KEY_MOVIE_ID = "movie_id";
+    public static final String[] JSON_KEYS_CARD_HEADER = new String[]{"card_id", "version", "type", "locale", "title",
+            "subtitle", "image", "has_content"};
     public static final String EMIT_ARGUMENT_KEY_TIMESTAMP = "timestamp";
     public static final String EVENT_CONNECT = "connect";
     public static final String EVENT_AUTHENTICATED = "authenticated";
@@ -85,4 +170,8 @@ public class Constants {
     public static final String EVENT_PAUSE_START = "pause_start";
     public static final String EVENT_PAUSE_END = "pause_end";
     public static final String EVENT_ERROR = "error";
+    public static final String EVENT_DISCONNECT = "disconnect";
+    public static final String EVENT_RECONNECT_ATTEMPT = "reconnect_attempt";
+    public static final String EVENT_RECONNECT = "reconnect";
+    public static final String EVENT_RECONNECT_FAILED = "reconnect_failed";
 }
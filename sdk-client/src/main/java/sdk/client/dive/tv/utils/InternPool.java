@@ -0,0 +1,116 @@
+package sdk.client.dive.tv.utils;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Bounded pool of canonical instances, so that equal values read from different payloads, e.g. the card types,
+ * locales and image URLs repeated by every scene event of a movie, share a single instance.
+ * <p>
+ * The pool is a table of a fixed size indexed by the hash of the values: a value replaces the one that shares its
+ * slot, and the values are weakly referenced, so the pool neither grows nor keeps alive the values nobody else uses.
+ * It is not locked: concurrent calls may miss a share, never return a value that is not equal to the given one.
+ *
+ * @param <T> Type of the pooled values
+ */
+public class InternPool<T> {
+
+    private final Entry<T>[] table;
+    private final int mask;
+
+    /**
+     * @param capacity Number of values the pool can hold, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public InternPool(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = (Entry<T>[]) new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param value Value to share
+     * @return the pooled value equal to the given one, or the given value, which is pooled in turn
+     */
+    public T intern(T value) {
+        if (value == null)
+            return null;
+        int hash = hash(value);
+        int index = hash & mask;
+        Entry<T> entry = table[index];
+        if (entry != null && entry.hash == hash && entry.key == null) {
+            T pooled = entry.get();
+            if (pooled != null && pooled.equals(value))
+                return pooled;
+        }
+        table[index] = new Entry<>(value, null, hash);
+        return value;
+    }
+
+    /**
+     * Shares the values identified by a key rather than by their equality, e.g. the cards of a given id, version and
+     * locale, which are expensive to compare
+     *
+     * @param key Key of the value, kept by the pool while the value is pooled
+     * @param value Value to share
+     * @return the pooled value of the key, or the given value, which is pooled in turn
+     */
+    public T intern(Object key, T value) {
+        if (key == null || value == null)
+            return value;
+        int hash = hash(key);
+        int index = hash & mask;
+        Entry<T> entry = table[index];
+        if (entry != null && entry.hash == hash && key.equals(entry.key)) {
+            T pooled = entry.get();
+            if (pooled != null)
+                return pooled;
+        }
+        table[index] = new Entry<>(value, key, hash);
+        return value;
+    }
+
+    /**
+     * Removes the values pooled by key whose key matches a filter, e.g. the cards of an id whose user data changed
+     *
+     * @param filter Filter of the keys to remove
+     */
+    public void remove(KeyFilter filter) {
+        for (int i = 0; i < table.length; i++) {
+            Entry<T> entry = table[i];
+            if (entry != null && entry.key != null && filter.matches(entry.key))
+                table[i] = null;
+        }
+    }
+
+    /**
+     * Removes all the pooled values
+     */
+    public void clear() {
+        for (int i = 0; i < table.length; i++)
+            table[i] = null;
+    }
+
+    public int getCapacity() {
+        return table.length;
+    }
+
+    public interface KeyFilter {
+        boolean matches(Object key);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static class Entry<T> extends WeakReference<T> {
+        private final Object key;
+        private final int hash;
+
+        private Entry(T value, Object key, int hash) {
+            super(value);
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package sdk.client.dive.tv.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * JsonReader that walks an already parsed org.json tree, such as the payloads delivered by socket.io, so that Gson
+ * type adapters can read it in one pass without serializing it back to a string.
+ * Map fields with complex keys are not supported, as Gson can only promote names to values on its own readers.
+ */
+public class JSONObjectReader extends JsonReader {
+
+    private static final Reader UNREADABLE_READER = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int count) throws IOException {
+            throw new AssertionError();
+        }
+
+        @Override
+        public void close() throws IOException {
+            throw new AssertionError();
+        }
+    };
+    private static final Object SENTINEL_CLOSED = new Object();
+
+    private final InternPool<String> stringPool;
+    private final String[] names;
+    private Object[] stack = new Object[32];
+    private int stackSize = 0;
+
+    /**
+     * @param element the org.json element to read: a JSONObject, a JSONArray or a primitive value
+     */
+    public JSONObjectReader(Object element) {
+        this(element, null);
+    }
+
+    /**
+     * @param element the org.json element to read: a JSONObject, a JSONArray or a primitive value
+     * @param stringPool Pool of the string values read, or null
+     */
+    public JSONObjectReader(Object element, InternPool<String> stringPool) {
+        this(element, null, stringPool);
+    }
+
+    /**
+     * @param element the org.json element to read: a JSONObject, or a JSONArray of JSONObjects
+     * @param names Names of the members read of the object, or of each object of the array, the others are skipped,
+     *              or null to read them all
+     * @param stringPool Pool of the string values read, or null
+     */
+    public JSONObjectReader(Object element, String[] names, InternPool<String> stringPool) {
+        super(UNREADABLE_READER);
+        this.stringPool = stringPool;
+        this.names = names;
+        push(element);
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        JSONArray array = (JSONArray) peekStack();
+        push(new ArrayIterator(array));
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        popStack(); // empty iterator
+        popStack(); // array
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        JSONObject object = (JSONObject) peekStack();
+        boolean filtered = names != null && (stackSize == 1 || (stackSize == 3 && stack[0] instanceof JSONArray));
+        push(filtered ? new NameIterator(object, names) : object.keys());
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        popStack(); // empty iterator
+        popStack(); // object
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (stackSize == 0)
+            return JsonToken.END_DOCUMENT;
+
+        Object o = peekStack();
+        if (o instanceof Iterator) {
+            boolean isObject = stack[stackSize - 2] instanceof JSONObject;
+            Iterator<?> iterator = (Iterator<?>) o;
+            if (iterator.hasNext()) {
+                if (isObject)
+                    return JsonToken.NAME;
+                push(iterator.next());
+                return peek();
+            }
+            return isObject ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        } else if (o instanceof JSONObject) {
+            return JsonToken.BEGIN_OBJECT;
+        } else if (o instanceof JSONArray) {
+            return JsonToken.BEGIN_ARRAY;
+        } else if (o instanceof String) {
+            return JsonToken.STRING;
+        } else if (o instanceof Boolean) {
+            return JsonToken.BOOLEAN;
+        } else if (o instanceof Number) {
+            return JsonToken.NUMBER;
+        } else if (o == null || o == JSONObject.NULL) {
+            return JsonToken.NULL;
+        } else if (o == SENTINEL_CLOSED) {
+            throw new IllegalStateException("JsonReader is closed");
+        } else {
+            throw new AssertionError();
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        Iterator<?> keys = (Iterator<?>) peekStack();
+        String name = (String) keys.next();
+        JSONObject object = (JSONObject) stack[stackSize - 2];
+        push(object.opt(name));
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER)
+            throw new IllegalStateException("Expected " + JsonToken.STRING + " but was " + token + locationString());
+        Object value = popStack();
+        if (stringPool != null && value instanceof String)
+            return stringPool.intern((String) value);
+        return value.toString();
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        return (Boolean) popStack();
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        popStack();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING)
+            throw new IllegalStateException("Expected " + JsonToken.NUMBER + " but was " + token + locationString());
+        Object value = peekStack();
+        double result = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble((String) value);
+        if (!isLenient() && (Double.isNaN(result) || Double.isInfinite(result)))
+            throw new NumberFormatException("JSON forbids NaN and infinities: " + result);
+        popStack();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING)
+            throw new IllegalStateException("Expected " + JsonToken.NUMBER + " but was " + token + locationString());
+        Object value = peekStack();
+        long result = value instanceof Number ? ((Number) value).longValue() : parseLong((String) value);
+        popStack();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING)
+            throw new IllegalStateException("Expected " + JsonToken.NUMBER + " but was " + token + locationString());
+        Object value = peekStack();
+        int result = value instanceof Number ? ((Number) value).intValue() : (int) parseLong((String) value);
+        popStack();
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stack = new Object[]{SENTINEL_CLOSED};
+        stackSize = 1;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (peek() == JsonToken.NAME)
+            nextName();
+        else
+            popStack();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public String getPath() {
+        return "$";
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        if (peek() != expected)
+            throw new IllegalStateException("Expected " + expected + " but was " + peek() + locationString());
+    }
+
+    private Object peekStack() {
+        return stack[stackSize - 1];
+    }
+
+    private Object popStack() {
+        Object result = stack[--stackSize];
+        stack[stackSize] = null;
+        return result;
+    }
+
+    private void push(Object newTop) {
+        if (stackSize == stack.length) {
+            Object[] newStack = new Object[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = newTop;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            double asDouble = Double.parseDouble(value);
+            long result = (long) asDouble;
+            if (result != asDouble)
+                throw new NumberFormatException("Expected an integer but was " + value);
+            return result;
+        }
+    }
+
+    private String locationString() {
+        return " at path " + getPath();
+    }
+
+    /**
+     * Iterator over the given names that are members of a JSONObject.
+     */
+    private static class NameIterator implements Iterator<String> {
+        private final JSONObject object;
+        private final String[] names;
+        private int index;
+
+        private NameIterator(JSONObject object, String[] names) {
+            this.object = object;
+            this.names = names;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index < names.length && !object.has(names[index]))
+                index++;
+            return index < names.length;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return names[index++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Iterator over the elements of a JSONArray, which is not Iterable on Android.
+     */
+    private static class ArrayIterator implements Iterator<Object> {
+        private final JSONArray array;
+        private int index;
+
+        private ArrayIterator(JSONArray array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < array.length();
+        }
+
+        @Override
+        public Object next() {
+            if (index >= array.length())
+                throw new NoSuchElementException();
+            return array.opt(index++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -65,17 +65,69 @@ public class SharedPreferencesHelper {
      * @param accessToken the token object with access and refresh token values
      */
     public void storeToken(AccessToken accessToken) {
+        long accessTokenExpiration = System.currentTimeMillis() + ((long) (accessToken.getExpiresIn() * 1000));
+        long refreshTokenExpiration = accessTokenExpiration + Constants.MONTH_TO_MILLISECONDS;
+        storeToken(accessToken.getAccessToken(), accessTokenExpiration, accessToken.getRefreshToken(), refreshTokenExpiration);
+    }
+
+    /**
+     * Store access and refresh token values, with their expiration dates, on shared preferences.
+     *
+     * @param accessToken the access token value
+     * @param accessTokenExpiration the access token expiration date, in milliseconds since EPOCH
+     * @param refreshToken the refresh token value
+     * @param refreshTokenExpiration the refresh token expiration date, in milliseconds since EPOCH
+     */
+    public void storeToken(String accessToken, long accessTokenExpiration, String refreshToken, long refreshTokenExpiration) {
         SharedPreferences sharedPref = appContext.getSharedPreferences(Constants.SHARED_PREFERENCES, Context.MODE_PRIVATE);
         SharedPreferences.Editor editor = sharedPref.edit();
-        long accessTokenExpiration = System.currentTimeMillis() + ((long) (accessToken.getExpiresIn() * 1000));
         editor.putLong(Constants.ACCESS_TOKEN_EXPIRATION, accessTokenExpiration);
-        editor.putString(Constants.ACCESS_TOKEN_VALUE, accessToken.getAccessToken());
-        long refreshTokenExpiration = accessTokenExpiration + Constants.MONTH_TO_MILLISECONDS;
+        editor.putString(Constants.ACCESS_TOKEN_VALUE, accessToken);
         editor.putLong(Constants.REFRESH_TOKEN_EXPIRATION, refreshTokenExpiration);
-        editor.putString(Constants.REFRESH_TOKEN_VALUE, accessToken.getRefreshToken());
+        editor.putString(Constants.REFRESH_TOKEN_VALUE, refreshToken);
         editor.apply();
     }
 
+    /**
+     * Retrieves the access token stored on shared preferences, even if it has expired.
+     *
+     * @return the stored access token
+     */
+    public String getStoredAccessToken() {
+        SharedPreferences sharedPref = appContext.getSharedPreferences(Constants.SHARED_PREFERENCES, Context.MODE_PRIVATE);
+        return sharedPref.getString(Constants.ACCESS_TOKEN_VALUE, null);
+    }
+
+    /**
+     * Retrieves the access token expiration date stored on shared preferences.
+     *
+     * @return the access token expiration date, in milliseconds since EPOCH
+     */
+    public long getAccessTokenExpiration() {
+        SharedPreferences sharedPref = appContext.getSharedPreferences(Constants.SHARED_PREFERENCES, Context.MODE_PRIVATE);
+        return sharedPref.getLong(Constants.ACCESS_TOKEN_EXPIRATION, 0);
+    }
+
+    /**
+     * Retrieves the refresh token stored on shared preferences, even if it has expired.
+     *
+     * @return the stored refresh token
+     */
+    public String getStoredRefreshToken() {
+        SharedPreferences sharedPref = appContext.getSharedPreferences(Constants.SHARED_PREFERENCES, Context.MODE_PRIVATE);
+        return sharedPref.getString(Constants.REFRESH_TOKEN_VALUE, null);
+    }
+
+    /**
+     * Retrieves the refresh token expiration date stored on shared preferences.
+     *
+     * @return the refresh token expiration date, in milliseconds since EPOCH
+     */
+    public long getRefreshTokenExpiration() {
+        SharedPreferences sharedPref = appContext.getSharedPreferences(Constants.SHARED_PREFERENCES, Context.MODE_PRIVATE);
+        return sharedPref.getLong(Constants.REFRESH_TOKEN_EXPIRATION, 0);
+    }
+
     /**
      * Retrieves the basic auth token ("Basic " prefix + API_KEY) stored on shared preferences.
      *
@@ -0,0 +1,131 @@
+package sdk.client.dive.tv.utils;
+
+import com.touchvie.sdk.model.AccessToken;
+
+/**
+ * In-memory store of the authentication values, backed by shared preferences as write-through persistence.
+ * The access token, its "Bearer " header and its expiration date are kept in an immutable snapshot published through
+ * a volatile field, so they can be read from any thread without locking nor touching shared preferences.
+ */
+public class TokenStore {
+
+    private final SharedPreferencesHelper preferences;
+
+    private volatile Token token;
+    private volatile String basicAuthToken;
+    private volatile String deviceId;
+
+    public TokenStore(SharedPreferencesHelper preferences) {
+        this.preferences = preferences;
+        this.token = new Token(preferences.getStoredAccessToken(), preferences.getAccessTokenExpiration(),
+                preferences.getStoredRefreshToken(), preferences.getRefreshTokenExpiration());
+        this.basicAuthToken = preferences.getBasicAuthToken();
+        this.deviceId = preferences.getDeviceId();
+    }
+
+    /**
+     * Retrieves the access token. If the stored token has expired, returns an empty string
+     *
+     * @return the access token
+     */
+    public String getAccessToken() {
+        Token current = this.token;
+        if (current.accessToken == null)
+            return null;
+        return current.isAccessTokenValid() ? current.accessToken : Constants.EMPTY_STRING;
+    }
+
+    /**
+     * Retrieves the access token with "Bearer " prefix.
+     *
+     * @return the access token with "Bearer " prefix
+     */
+    public String getAccessTokenWithPrefix() {
+        Token current = this.token;
+        if (current.accessToken == null)
+            return null;
+        return current.isAccessTokenValid() ? current.prefixedAccessToken : Constants.EMPTY_STRING;
+    }
+
+    /**
+     * Retrieves the refresh token. If the stored token has expired, returns an empty string
+     *
+     * @return the refresh token
+     */
+    public String getRefreshToken() {
+        Token current = this.token;
+        if (current.refreshToken == null)
+            return null;
+        return current.refreshTokenExpiration > System.currentTimeMillis() ? current.refreshToken : Constants.EMPTY_STRING;
+    }
+
+    /**
+     * Store access and refresh token values in memory and on shared preferences.
+     *
+     * @param accessToken the token object with access and refresh token values
+     */
+    public void storeToken(AccessToken accessToken) {
+        long accessTokenExpiration = System.currentTimeMillis() + ((long) (accessToken.getExpiresIn() * 1000));
+        long refreshTokenExpiration = accessTokenExpiration + Constants.MONTH_TO_MILLISECONDS;
+        this.token = new Token(accessToken.getAccessToken(), accessTokenExpiration, accessToken.getRefreshToken(), refreshTokenExpiration);
+        this.preferences.storeToken(accessToken.getAccessToken(), accessTokenExpiration, accessToken.getRefreshToken(), refreshTokenExpiration);
+    }
+
+    /**
+     * Retrieves the basic auth token ("Basic " prefix + API_KEY).
+     *
+     * @return the basic auth token
+     */
+    public String getBasicAuthToken() {
+        return this.basicAuthToken;
+    }
+
+    /**
+     * Store API key value in memory and on shared preferences.
+     *
+     * @param apiKey the API key value
+     */
+    public void storeApiKey(String apiKey) {
+        this.basicAuthToken = (apiKey != null) ? Constants.BASIC_AUTH_PREFIX + apiKey : null;
+        this.preferences.storeApiKey(apiKey);
+    }
+
+    /**
+     * Retrieves the device ID value.
+     *
+     * @return the device ID value
+     */
+    public String getDeviceId() {
+        return this.deviceId;
+    }
+
+    /**
+     * Store device ID value in memory and on shared preferences.
+     *
+     * @param deviceId the device ID value
+     */
+    public void storeDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+        this.preferences.storeDeviceId(deviceId);
+    }
+
+    private static class Token {
+        private final String accessToken;
+        private final String prefixedAccessToken;
+        private final long validUntil;
+        private final String refreshToken;
+        private final long refreshTokenExpiration;
+
+        private Token(String accessToken, long accessTokenExpiration, String refreshToken, long refreshTokenExpiration) {
+            this.accessToken = (accessToken == null || accessToken.length() == 0) ? null : accessToken;
+            this.prefixedAccessToken = this.accessToken != null ? Constants.TOKEN_PREFIX + this.accessToken : null;
+            this.validUntil = accessTokenExpiration - Constants.EXPIRATION_MARGIN;
+            this.refreshToken = (refreshToken == null || refreshToken.length() == 0) ? null : refreshToken;
+            this.refreshTokenExpiration = refreshTokenExpiration;
+        }
+
+        private boolean isAccessTokenValid() {
+            return validUntil > System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTest {
+
+    private static final Type CARD_LIST_TYPE = new TypeToken<List<Card>>() {
+    }.getType();
+
+    private Gson gson;
+    private BinaryCodec codec;
+    private String cardsJson;
+
+    private static class CardTitle {
+        @SerializedName("card_id")
+        private String cardId;
+        private String title;
+    }
+
+    private static class Values {
+        private int count = -3;
+        private long time = Long.MIN_VALUE;
+        private double ratio = 0.25;
+        private BigDecimal anchor = new BigDecimal("33.3300");
+        private Boolean visible = true;
+        private String empty;
+        private List<List<Integer>> grid = Arrays.asList(Arrays.asList(1, 2), Arrays.<Integer>asList());
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        codec = new BinaryCodec(gson);
+        cardsJson = new JsonParser().parse(readResource("/fixtures/scene_start.json")).getAsJsonObject()
+                .get(Constants.JSON_KEY_CARDS).toString();
+    }
+
+    @Test
+    public void decode_matchesJson() throws Exception {
+        List<Card> cards = gson.fromJson(cardsJson, CARD_LIST_TYPE);
+        byte[] data = codec.encode(cards, CARD_LIST_TYPE);
+        List<Card> decoded = codec.decode(data, CARD_LIST_TYPE);
+        assertEquals(gson.toJson(cards), gson.toJson(decoded));
+        assertTrue(data.length < gson.toJson(cards).getBytes("UTF-8").length);
+    }
+
+    @Test
+    public void decode_keepsNumbersAndNulls() throws Exception {
+        Gson gson = new GsonBuilder().serializeNulls().create();
+        Values decoded = new BinaryCodec(gson).decode(new BinaryCodec(gson).encode(new Values()), Values.class);
+        assertEquals(gson.toJson(new Values()), gson.toJson(decoded));
+    }
+
+    @Test
+    public void decode_skipsUndeclaredFields() throws Exception {
+        List<Card> cards = gson.fromJson(cardsJson, CARD_LIST_TYPE);
+        byte[] data = codec.encode(cards.get(0));
+        CardTitle title = codec.decode(data, CardTitle.class);
+        assertEquals(cards.get(0).getCardId(), title.cardId);
+        assertEquals(cards.get(0).getTitle(), title.title);
+    }
+
+    @Test
+    public void newReader_skipsValues() throws Exception {
+        List<Card> cards = gson.fromJson(cardsJson, CARD_LIST_TYPE);
+        JsonReader reader = codec.newReader(codec.encode(cards, CARD_LIST_TYPE));
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+            reader.skipValue();
+            count++;
+        }
+        reader.endArray();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+        assertEquals(cards.size(), count);
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void decode_rejectsJson() throws Exception {
+        codec.decode(cardsJson.getBytes("UTF-8"), CARD_LIST_TYPE);
+    }
+
+    private String readResource(String name) throws Exception {
+        InputStream in = getClass().getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Test;
+
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class CardCacheTest {
+
+    private final Gson gson = new Gson();
+
+    private Card card(String title) {
+        return gson.fromJson("{\"title\":\"" + title + "\"}", Card.class);
+    }
+
+    @Test
+    public void get_countsHitsAndMisses() throws Exception {
+        CardCache cache = new CardCache(1024 * 1024);
+        CardCacheKey key = new CardCacheKey("c1", "v1", "es-ES", null);
+        assertNull(cache.get(key));
+        cache.put(key, card("one"));
+        assertNotNull(cache.get(new CardCacheKey("c1", "v1", "es-ES", null)));
+        assertNull(cache.get(new CardCacheKey("c1", "v1", "en-US", null)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() throws Exception {
+        Card card = card("0123456789");
+        long cardSize = 10 * 2 + Constants.CARD_CACHE_ENTRY_OVERHEAD;
+        CardCache cache = new CardCache(cardSize * 2);
+        CardCacheKey first = new CardCacheKey("c1", null, null, null);
+        CardCacheKey second = new CardCacheKey("c2", null, null, null);
+        CardCacheKey third = new CardCacheKey("c3", null, null, null);
+        cache.put(first, card);
+        cache.put(second, card);
+        cache.get(first);
+        cache.put(third, card);
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(cardSize * 2, cache.getSize());
+    }
+
+    @Test
+    public void invalidate_removesEveryVersionOfCard() throws Exception {
+        CardCache cache = new CardCache(1024 * 1024);
+        cache.put(new CardCacheKey("c1", "v1", null, null), card("one"));
+        cache.put(new CardCacheKey("c1", "v2", null, null), card("two"));
+        cache.put(new CardCacheKey("c2", "v1", null, null), card("three"));
+        cache.invalidate("c1");
+        assertEquals(1, cache.getEntryCount());
+        assertNotNull(cache.get(new CardCacheKey("c2", "v1", null, null)));
+    }
+
+    @Test
+    public void contains_doesNotCountHitsOrMisses() throws Exception {
+        CardCache cache = new CardCache(1024 * 1024);
+        CardCacheKey key = new CardCacheKey("c1", "v1", "es-ES", null);
+        assertFalse(cache.contains(key));
+        cache.put(key, card("one"));
+        assertTrue(cache.contains(key));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+}
@@ -0,0 +1,147 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+
+import static org.junit.Assert.*;
+
+public class CardPrefetcherTest {
+
+    private final Gson gson = new Gson();
+
+    private final List<String> fetched = new ArrayList<>();
+    private final List<ClientCallback<Card>> callbacks = new ArrayList<>();
+    private CardPrefetcher prefetcher;
+
+    @Before
+    public void setUp() {
+        prefetcher = new CardPrefetcher(new CardPrefetcher.CardFetcher() {
+            @Override
+            public boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
+                fetched.add(cardId);
+                callbacks.add(callback);
+                return true;
+            }
+        });
+        prefetcher.setEnabled(true);
+        prefetcher.setMaxConcurrent(2);
+        prefetcher.setTypePriority(Arrays.asList("person", "trivia"));
+    }
+
+    private Card card(String cardId, String type) {
+        return gson.fromJson("{\"card_id\":\"" + cardId + "\",\"version\":\"1\",\"type\":\"" + type + "\"}", Card.class);
+    }
+
+    private void completeNext() {
+        callbacks.remove(0).onSuccess(null);
+    }
+
+    @Test
+    public void prefetch_boundedConcurrencyAndPriority() {
+        prefetcher.prefetch(Arrays.asList(card("t1", "trivia"), card("t2", "trivia")));
+        prefetcher.prefetch(Arrays.asList(card("t3", "trivia"), card("p1", "person"), card("m1", "movie"), card("p2", "person")));
+
+        assertEquals(Arrays.asList("t1", "t2"), fetched);
+        assertEquals(2, prefetcher.getInFlightCount());
+
+        completeNext();
+        completeNext();
+        completeNext();
+        completeNext();
+        completeNext();
+
+        assertEquals(Arrays.asList("t1", "t2", "p1", "p2", "t3", "m1"), fetched);
+        assertEquals(5, prefetcher.getFetchCount());
+    }
+
+    @Test
+    public void prefetch_disabledByDefault() {
+        CardPrefetcher disabled = new CardPrefetcher(new CardPrefetcher.CardFetcher() {
+            @Override
+            public boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
+                fetched.add(cardId);
+                return true;
+            }
+        });
+        disabled.onSceneCards(Arrays.asList(card("p1", "person")));
+        assertTrue(fetched.isEmpty());
+        assertEquals(0, disabled.getRequestCount());
+    }
+
+    @Test
+    public void prefetch_ignoresPendingCards() {
+        prefetcher.prefetch(Arrays.asList(card("p1", "person"), card("p2", "person"), card("p3", "person")));
+        prefetcher.prefetch(Arrays.asList(card("p1", "person"), card("p3", "person")));
+
+        assertEquals(3, prefetcher.getRequestCount());
+    }
+
+    @Test
+    public void onSceneCleared_cancelsQueued() {
+        prefetcher.onSceneCards(Arrays.asList(card("p1", "person"), card("p2", "person"), card("p3", "person")));
+        prefetcher.onSceneCleared();
+        completeNext();
+        completeNext();
+
+        assertEquals(Arrays.asList("p1", "p2"), fetched);
+        assertEquals(1, prefetcher.getCancelCount());
+        assertEquals(0, prefetcher.getQueuedCount());
+        assertEquals(0, prefetcher.getInFlightCount());
+    }
+
+    @Test
+    public void prefetch_synchronousCallbacksDrainQueue() {
+        prefetcher = new CardPrefetcher(new CardPrefetcher.CardFetcher() {
+            @Override
+            public boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
+                fetched.add(cardId);
+                callback.onSuccess(null);
+                return true;
+            }
+        });
+        prefetcher.setEnabled(true);
+        prefetcher.prefetch(Arrays.asList(card("p1", "person"), card("p2", "person"), card("p3", "person")));
+
+        assertEquals(Arrays.asList("p1", "p2", "p3"), fetched);
+        assertEquals(0, prefetcher.getInFlightCount());
+    }
+
+    @Test
+    public void prefetch_skipsCachedCards() {
+        prefetcher = new CardPrefetcher(new CardPrefetcher.CardFetcher() {
+            @Override
+            public boolean fetch(String cardId, String version, String acceptLanguage, ClientCallback<Card> callback) {
+                if (cardId.startsWith("c"))
+                    return false;
+                fetched.add(cardId);
+                callbacks.add(callback);
+                return true;
+            }
+        });
+        prefetcher.setEnabled(true);
+        prefetcher.setMaxConcurrent(1);
+        prefetcher.prefetch(Arrays.asList(card("c1", "person"), card("c2", "person"), card("p1", "person"), card("c3", "person")));
+
+        assertEquals(Arrays.asList("p1"), fetched);
+        assertEquals(1, prefetcher.getInFlightCount());
+        completeNext();
+
+        assertEquals(0, prefetcher.getInFlightCount());
+        assertEquals(0, prefetcher.getQueuedCount());
+        assertEquals(1, prefetcher.getFetchCount());
+        assertEquals(3, prefetcher.getCachedCount());
+
+        // cached cards are no longer pending, so they are prefetched again by a later scene
+        prefetcher.prefetch(Arrays.asList(card("c1", "person")));
+        assertEquals(4, prefetcher.getCachedCount());
+    }
+}
@@ -0,0 +1,169 @@
+package sdk.client.dive.tv.cache;
+
+import com.touchvie.sdk.model.TvEvent;
+import com.touchvie.sdk.model.TvGrid;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class ChannelGridCacheTest {
+
+    private static final long HOUR = 3600 * 1000L;
+    private static final long START = 1540000000000L;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private final List<ClientCallback<TvGrid>> held = Collections.synchronizedList(new ArrayList<ClientCallback<TvGrid>>());
+    private volatile long clock = START;
+    private volatile boolean hold;
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Cache whose fetcher answers with the grid at the fetch time: the 1-hour event on air and the next one
+     */
+    private ChannelGridCache cache() {
+        return new ChannelGridCache(scheduler, new ChannelGridCache.GridFetcher() {
+            @Override
+            public void fetch(String channelId, String acceptLanguage, ClientCallback<TvGrid> callback) {
+                fetchCount.incrementAndGet();
+                if (hold) {
+                    held.add(callback);
+                    return;
+                }
+                long onAirStart = START + (clock - START) / HOUR * HOUR;
+                callback.onSuccess(grid(event(channelId, onAirStart), event(channelId, onAirStart + HOUR)));
+            }
+        }, 2) {
+            @Override
+            long now() {
+                return clock;
+            }
+        };
+    }
+
+    private static TvEvent event(String channelId, long start) {
+        TvEvent event = new TvEvent();
+        event.setChannelId(channelId);
+        event.setStartDate(start);
+        event.setEndDate(start + HOUR);
+        return event;
+    }
+
+    private static TvGrid grid(TvEvent broadcast, TvEvent upcoming) {
+        TvGrid grid = new TvGrid();
+        grid.setBroadcast(new ArrayList<>(Collections.singletonList(broadcast)));
+        grid.setUpcoming(new ArrayList<>(Collections.singletonList(upcoming)));
+        return grid;
+    }
+
+    private static class Result implements ClientCallback<TvGrid> {
+        private TvGrid grid;
+        private RestAPIError error;
+
+        @Override
+        public void onFailure(RestAPIError message) {
+            error = message;
+        }
+
+        @Override
+        public void onSuccess(TvGrid result) {
+            grid = result;
+        }
+    }
+
+    @Test
+    public void get_servesFromMemoryUntilEventOnAirEnds() {
+        ChannelGridCache cache = cache();
+        cache.setRefreshEnabled(false);
+        Result first = new Result();
+        cache.get("ch1", "es-ES", first);
+        clock = START + HOUR - 1;
+        Result second = new Result();
+        cache.get("ch1", "es-ES", second);
+        assertEquals(1, fetchCount.get());
+        assertSame(first.grid, second.grid);
+        assertEquals(START, (long) cache.getOnAir("ch1", "es-ES").getStartDate());
+
+        clock = START + HOUR;
+        assertNull(cache.getOnAir("ch1", "es-ES"));
+        Result third = new Result();
+        cache.get("ch1", "es-ES", third);
+        assertEquals(2, fetchCount.get());
+        assertEquals(START + HOUR, (long) third.grid.getBroadcast().get(0).getStartDate());
+        cache.get("ch1", "en-US", new Result());
+        assertEquals(3, fetchCount.get());
+    }
+
+    @Test
+    public void get_gridFetchedBeforeBoundaryIsShiftedAfterIt() {
+        ChannelGridCache cache = cache();
+        cache.setRefreshEnabled(false);
+        clock = START + HOUR - Constants.CHANNEL_GRID_REFRESH_LEAD + 1000;
+        cache.get("ch1", "es-ES", new Result());
+
+        clock = START + HOUR + 1000;
+        Result shifted = new Result();
+        cache.get("ch1", "es-ES", shifted);
+        assertEquals(1, fetchCount.get());
+        assertEquals(1, shifted.grid.getBroadcast().size());
+        assertEquals(START + HOUR, (long) shifted.grid.getBroadcast().get(0).getStartDate());
+        assertTrue(shifted.grid.getUpcoming().isEmpty());
+        assertEquals(START + HOUR, (long) cache.getOnAir("ch1", "es-ES").getStartDate());
+        assertEquals(START + 2 * HOUR, ChannelGridCache.staleAt(Arrays.asList(event("ch1", START),
+                event("ch1", START + HOUR)), START + HOUR - Constants.CHANNEL_GRID_REFRESH_LEAD));
+    }
+
+    @Test
+    public void refresh_beforeBoundaryOfReadGrids() throws Exception {
+        ChannelGridCache cache = cache();
+        // the event on air ends 100 ms after the refresh lead
+        clock = START + HOUR - Constants.CHANNEL_GRID_REFRESH_LEAD - 100;
+        cache.get("ch1", "es-ES", new Result());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fetchCount.get() < 2 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(2, fetchCount.get());
+        assertEquals(1, cache.getRefreshCount());
+
+        // the refreshed grid was not read, so it is not refreshed again
+        Thread.sleep(300);
+        assertEquals(2, fetchCount.get());
+        assertEquals(1, cache.getRefreshCount());
+    }
+
+    @Test
+    public void get_concurrentRequestsShareOneCall() {
+        ChannelGridCache cache = cache();
+        cache.setRefreshEnabled(false);
+        hold = true;
+        Result first = new Result();
+        Result second = new Result();
+        cache.get("ch1", "es-ES", first);
+        cache.get("ch1", "es-ES", second);
+        assertEquals(1, fetchCount.get());
+        assertNull(first.grid);
+
+        held.get(0).onFailure(RestAPIError.SERVICE_TEMPORARY_UNAVAILABLE);
+        assertEquals(RestAPIError.SERVICE_TEMPORARY_UNAVAILABLE, first.error);
+        assertEquals(RestAPIError.SERVICE_TEMPORARY_UNAVAILABLE, second.error);
+        assertEquals(0, cache.getEntryCount());
+    }
+}
@@ -0,0 +1,67 @@
+package sdk.client.dive.tv.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class DiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void get_survivesNewInstance() throws Exception {
+        File directory = folder.newFolder();
+        new DiskCache(directory, 1024 * 1024).put("card|c1|es-ES", "card", new byte[]{1, 2, 3});
+        DiskCache.Entry entry = new DiskCache(directory, 1024 * 1024).get("card|c1|es-ES");
+        assertNotNull(entry);
+        assertEquals("card", entry.getServiceName());
+        assertArrayEquals(new byte[]{1, 2, 3}, entry.getPayload());
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() throws Exception {
+        DiskCache cache = new DiskCache(folder.newFolder(), 1024 * 1024);
+        cache.put("a", "card", new byte[100]);
+        long entrySize = cache.getSize();
+        cache = new DiskCache(folder.newFolder(), entrySize * 2);
+        cache.put("a", "card", new byte[100]);
+        cache.put("b", "card", new byte[100]);
+        cache.get("a");
+        cache.put("c", "card", new byte[100]);
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void removeByPrefix_removesMatchingKeys() throws Exception {
+        DiskCache cache = new DiskCache(folder.newFolder(), 1024 * 1024);
+        cache.put("card|c1|es-ES", "card", new byte[10]);
+        cache.put("card|c1|en-US", "card", new byte[10]);
+        cache.put("card|c10|en-US", "card", new byte[10]);
+        cache.removeByPrefix("card|c1|");
+        assertNull(cache.get("card|c1|es-ES"));
+        assertNull(cache.get("card|c1|en-US"));
+        assertNotNull(cache.get("card|c10|en-US"));
+    }
+
+    @Test
+    public void removeByPrefix_matchesKeysStoredBeforeRestart() throws Exception {
+        File directory = folder.newFolder();
+        DiskCache previous = new DiskCache(directory, 1024 * 1024);
+        previous.put("card|c1|es-ES", "card", new byte[10]);
+        previous.put("card|c2|es-ES", "card", new byte[10]);
+        DiskCache cache = new DiskCache(directory, 1024 * 1024);
+        cache.removeByPrefix("card|c1|");
+        cache.removeByPrefix("card|c3|");
+        assertNull(cache.get("card|c1|es-ES"));
+        assertNotNull(cache.get("card|c2|es-ES"));
+        assertEquals(1, directory.list().length);
+    }
+}
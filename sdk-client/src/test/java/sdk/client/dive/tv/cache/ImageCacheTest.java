@@ -0,0 +1,152 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+
+import static org.junit.Assert.*;
+
+public class ImageCacheTest {
+
+    private static final byte[] IMAGE = new byte[1000];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private CountDownLatch downloadGate = new CountDownLatch(0);
+    private DiskCache diskCache;
+    private ImageCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        diskCache = new DiskCache(folder.newFolder(), 1024 * 1024);
+        cache = new ImageCache(diskCache, 1024 * 1024, 1, new ImageCache.Downloader() {
+            @Override
+            public byte[] download(String url) throws IOException {
+                try {
+                    downloadGate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                downloads.incrementAndGet();
+                return IMAGE;
+            }
+        });
+    }
+
+    private byte[] get(String url) throws InterruptedException {
+        final BlockingQueue<byte[]> result = new ArrayBlockingQueue<>(1);
+        cache.get(url, new ClientCallback<byte[]>() {
+            @Override
+            public void onFailure(RestAPIError message) {
+                result.add(new byte[0]);
+            }
+
+            @Override
+            public void onSuccess(byte[] bytes) {
+                result.add(bytes);
+            }
+        });
+        return result.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void get_memoryThenDiskHits() throws Exception {
+        assertArrayEquals(IMAGE, get("http://img/1.jpg"));
+        assertArrayEquals(IMAGE, get("http://img/1.jpg"));
+        cache.clearMemory();
+        assertArrayEquals(IMAGE, get("http://img/1.jpg"));
+
+        assertEquals(1, downloads.get());
+        assertEquals(1, cache.getMemoryHitCount());
+        assertEquals(1, cache.getDiskHitCount());
+        assertEquals(2 * IMAGE.length, cache.getSavedBytes());
+        assertEquals(2d / 3, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void get_joinsPrefetch() throws Exception {
+        downloadGate = new CountDownLatch(1);
+        assertTrue(cache.prefetch("http://img/1.jpg"));
+        assertFalse(cache.prefetch("http://img/1.jpg"));
+        downloadGate.countDown();
+
+        assertArrayEquals(IMAGE, get("http://img/1.jpg"));
+        assertEquals(1, downloads.get());
+    }
+
+    @Test
+    public void cancelPrefetch_skipsQueuedDownload() throws Exception {
+        downloadGate = new CountDownLatch(1);
+        cache.prefetch("http://img/1.jpg");
+        cache.prefetch("http://img/2.jpg");
+        Thread.sleep(100);
+        cache.cancelPrefetch("http://img/2.jpg");
+        downloadGate.countDown();
+        get("http://img/1.jpg");
+
+        assertEquals(1, downloads.get());
+        assertEquals(1, cache.getPrefetchCancelCount());
+    }
+
+    @Test
+    public void get_beforeQueuedPrefetches() throws Exception {
+        downloadGate = new CountDownLatch(1);
+        cache.prefetch("http://img/1.jpg");
+        cache.prefetch("http://img/2.jpg");
+        cache.prefetch("http://img/3.jpg");
+        Thread.sleep(100);
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final AtomicInteger downloadsBefore = new AtomicInteger();
+        cache.get("http://img/3.jpg", new ClientCallback<byte[]>() {
+            @Override
+            public void onFailure(RestAPIError message) {
+            }
+
+            @Override
+            public void onSuccess(byte[] bytes) {
+                downloadsBefore.set(downloads.get());
+                loaded.countDown();
+            }
+        });
+        downloadGate.countDown();
+
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        assertEquals(2, downloadsBefore.get());
+    }
+
+    @Test
+    public void prefetcher_forgetsCompletedPrefetches() throws Exception {
+        Gson gson = new Gson();
+        ImagePrefetcher prefetcher = new ImagePrefetcher(cache);
+        List<Card> cards = Arrays.asList(gson.fromJson("{\"image\":{\"thumb\":\"http://img/1.jpg\"}}", Card.class),
+                gson.fromJson("{\"image\":{\"thumb\":\"http://img/2.jpg\"}}", Card.class));
+        prefetcher.onSceneCards(cards);
+        assertEquals(0, cache.getPrefetchCount());
+
+        prefetcher.setEnabled(true);
+        prefetcher.onSceneCards(cards);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (prefetcher.getPendingCount() > 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(0, prefetcher.getPendingCount());
+        assertEquals(2, downloads.get());
+    }
+}
@@ -0,0 +1,188 @@
+package sdk.client.dive.tv.cache;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiException;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+    private static final String SERVICE = "card";
+    private static final long TTL = 60000;
+    private static final long MAX_STALE = 60000;
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long elapsed;
+    private ResponseCache cache;
+    private final List<ClientCallback<Response>> pendingCalls = new ArrayList<>();
+
+    private static class Response {
+        private String title;
+
+        private Response(String title) {
+            this.title = title;
+        }
+    }
+
+    private final ResponseCache.NetworkCall<Response> networkCall = new ResponseCache.NetworkCall<Response>() {
+        @Override
+        public void execute(ClientCallback<Response> callback) throws ApiException {
+            pendingCalls.add(callback);
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        DiskCache diskCache = new DiskCache(folder.newFolder(), 1024 * 1024);
+        cache = new ResponseCache(diskCache, new Gson(), DIRECT, DIRECT) {
+            @Override
+            long now() {
+                return System.currentTimeMillis() + elapsed;
+            }
+        };
+        cache.setPolicy(SERVICE, TTL, MAX_STALE);
+    }
+
+    private String get(String key) {
+        return get(key, null);
+    }
+
+    private String get(String key, ClientCallback<Response> revalidation) {
+        RecordingCallback callback = new RecordingCallback();
+        cache.get(SERVICE, key, Response.class, callback, networkCall, revalidation);
+        return callback.title;
+    }
+
+    /**
+     * Stores a response through a miss
+     */
+    private void store(String key, String title) {
+        assertNull(get(key));
+        pendingCalls.remove(0).onSuccess(new Response(title));
+    }
+
+    @Test
+    public void get_freshEntryIsServedWithoutCall() {
+        store("card|c1", "Title");
+
+        assertEquals("Title", get("card|c1"));
+        assertTrue(pendingCalls.isEmpty());
+        assertEquals(1, cache.getFreshHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void get_storesResponseAsReceived() {
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void onSuccess(Response result) {
+                super.onSuccess(result);
+                // the client modifies the response it received
+                result.title = "Modified";
+            }
+        };
+        cache.get(SERVICE, "card|c1", Response.class, callback, networkCall);
+        pendingCalls.remove(0).onSuccess(new Response("Title"));
+
+        assertEquals("Title", get("card|c1"));
+    }
+
+    @Test
+    public void get_staleEntryIsServedAndRevalidatedOnce() {
+        store("card|c1", "Old");
+        elapsed = TTL + 1;
+        final List<String> revalidated = new ArrayList<>();
+        ClientCallback<Response> revalidation = new ClientCallback<Response>() {
+            @Override
+            public void onFailure(RestAPIError message) {
+            }
+
+            @Override
+            public void onSuccess(Response result) {
+                revalidated.add(result.title);
+            }
+        };
+
+        assertEquals("Old", get("card|c1", revalidation));
+        assertEquals("Old", get("card|c1", revalidation));
+        assertEquals(2, cache.getStaleHitCount());
+        assertEquals(1, pendingCalls.size());
+
+        pendingCalls.remove(0).onSuccess(new Response("New"));
+        assertEquals(1, revalidated.size());
+        assertEquals("New", revalidated.get(0));
+        elapsed = 0;
+        assertEquals("New", get("card|c1"));
+        assertEquals(1, cache.getFreshHitCount());
+    }
+
+    @Test
+    public void get_failedRevalidationIsRetried() {
+        store("card|c1", "Old");
+        elapsed = TTL + 1;
+
+        get("card|c1");
+        pendingCalls.remove(0).onFailure(RestAPIError.INTERNAL_ERROR);
+        get("card|c1");
+
+        assertEquals(1, pendingCalls.size());
+    }
+
+    @Test
+    public void get_expiredEntryIsMiss() {
+        store("card|c1", "Old");
+        elapsed = TTL + MAX_STALE + 1;
+
+        assertNull(get("card|c1"));
+        assertEquals(1, pendingCalls.size());
+        assertEquals(0, cache.getStaleHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void invalidate_removesKeysWithPrefix() {
+        store("card|c1|es-ES", "Spanish");
+        store("card|c1|en-US", "English");
+        store("card|c2|es-ES", "Other");
+
+        cache.invalidate("card|c1|");
+
+        assertNull(get("card|c1|es-ES"));
+        assertNull(get("card|c1|en-US"));
+        assertEquals("Other", get("card|c2|es-ES"));
+    }
+
+    private static class RecordingCallback implements ClientCallback<Response> {
+        private String title;
+
+        @Override
+        public void onFailure(RestAPIError message) {
+        }
+
+        @Override
+        public void onSuccess(Response result) {
+            title = result.title;
+        }
+    }
+}
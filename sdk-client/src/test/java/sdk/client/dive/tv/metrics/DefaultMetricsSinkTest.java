@@ -0,0 +1,129 @@
+package sdk.client.dive.tv.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class DefaultMetricsSinkTest {
+
+    @Test
+    public void histogram_bucketsByPowerOfTwoMicros() {
+        assertEquals(0, LatencyHistogram.bucket(999));
+        assertEquals(1, LatencyHistogram.bucket(1000));
+        assertEquals(2, LatencyHistogram.bucket(3999));
+        assertEquals(11, LatencyHistogram.bucket(1500 * 1000L));
+        assertEquals(31, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void histogram_percentilesAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++)
+            histogram.record(1500 * 1000L); // 1.5 ms
+        histogram.record(90 * 1000 * 1000L); // 90 ms
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(90 * 1000 * 1000L, snapshot.getMaxNanos());
+        assertEquals(2048 * 1000L, snapshot.getPercentileNanos(50));
+        assertEquals(2048 * 1000L, snapshot.getPercentileNanos(99));
+        assertEquals(90 * 1000 * 1000L, snapshot.getPercentileNanos(100));
+    }
+
+    @Test
+    public void onRestCall_latencyAndErrorsByService() {
+        DefaultMetricsSink sink = new DefaultMetricsSink();
+        sink.onRestCall("card", 2000 * 1000L, 200, true);
+        sink.onRestCall("card", 4000 * 1000L, 404, false);
+        sink.onRestCall("channel-grid", 1000 * 1000L, 200, true);
+
+        MetricsSnapshot snapshot = sink.snapshot();
+        assertEquals(2, snapshot.getRest().get("card").getCount());
+        assertEquals(1, snapshot.getRest().get("card").getErrorCount());
+        assertEquals(3000 * 1000L, snapshot.getRest().get("card").getMeanNanos());
+        assertEquals(1, snapshot.getRest().get("channel-grid").getCount());
+        assertNull(snapshot.getRest().get("likes"));
+    }
+
+    @Test
+    public void onRestPayload_sizesByServiceAndProfile() {
+        DefaultMetricsSink sink = new DefaultMetricsSink();
+        sink.onRestPayload("card-version", "full-detail", 12000);
+        sink.onRestPayload("card-version", "full-detail", 8000);
+        sink.onRestPayload("card-version", "scene-strip", 1500);
+        sink.onRestPayload("channel-grid", null, 4000);
+
+        MetricsSnapshot snapshot = sink.snapshot();
+        PayloadSizeStats.Snapshot full = snapshot.getPayload().get("card-version").get("full-detail");
+        assertEquals(2, full.getCount());
+        assertEquals(10000, full.getMeanBytes());
+        assertEquals(12000, full.getMaxBytes());
+        assertEquals(1500, snapshot.getPayload().get("card-version").get("scene-strip").getTotalBytes());
+        assertEquals(1, snapshot.getPayload().get("channel-grid").get("").getCount());
+        assertTrue(snapshot.toString().contains("payload card-version scene-strip"));
+    }
+
+    @Test
+    public void snapshot_tokenAndStreamMetrics() {
+        DefaultMetricsSink sink = new DefaultMetricsSink();
+        sink.onTokenRequest(false, 1000, true);
+        sink.onTokenRequest(true, 1000, true);
+        sink.onTokenRequest(true, 1000, false);
+        sink.onSocketConnect(1000);
+        sink.onSocketAuthenticate(1000);
+        sink.onReconnect();
+        sink.onStreamEventParsed("scene_start", 1000);
+        sink.onStreamEventDispatched("scene_start", 1000);
+        sink.onStreamEventDispatched("scene_end", 1000);
+
+        MetricsSnapshot snapshot = sink.snapshot();
+        assertEquals(1, snapshot.getTokenFetch().getCount());
+        assertEquals(2, snapshot.getTokenRefresh().getCount());
+        assertEquals(1, snapshot.getTokenRefresh().getErrorCount());
+        assertEquals(1, snapshot.getSocketConnect().getCount());
+        assertEquals(1, snapshot.getSocketAuthenticate().getCount());
+        assertEquals(1, snapshot.getReconnectCount());
+        assertEquals(0, snapshot.getReconnectFailedCount());
+        assertEquals(1, snapshot.getParse().size());
+        assertEquals(2, snapshot.getDispatch().size());
+        assertTrue(snapshot.toString().contains("dispatch scene_end"));
+    }
+
+    @Test
+    public void record_concurrentCallsAreAllCounted() throws Exception {
+        final DefaultMetricsSink sink = new DefaultMetricsSink();
+        final int threads = 4;
+        final int calls = 10000;
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long duration = (t + 1) * 1000L;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < calls; i++)
+                        sink.onStreamEventDispatched("scene_update", duration);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+
+        LatencyHistogram.Snapshot snapshot = sink.snapshot().getDispatch().get("scene_update");
+        assertEquals(threads * calls, snapshot.getCount());
+        assertEquals(4000, snapshot.getMaxNanos());
+        long bucketTotal = 0;
+        for (long count : snapshot.getBuckets())
+            bucketTotal += count;
+        assertEquals(threads * calls, bucketTotal);
+    }
+}
@@ -0,0 +1,185 @@
+package sdk.client.dive.tv.rest;
+
+import com.squareup.okhttp.Call;
+import com.touchvie.sdk.ApiCallback;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.ApiException;
+import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.api.InterfaceApi;
+import com.touchvie.sdk.model.AccessToken;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.ChannelStatus;
+import com.touchvie.sdk.model.MovieStatus;
+import com.touchvie.sdk.model.TvGrid;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import sdk.client.dive.tv.rest.callbacks.ApiCallbackImpl;
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class DefaultApiWrapperTest {
+
+    @Test
+    public void createInvokers_coversInterfaceApi() {
+        Map<String, DefaultApiWrapper.ApiInvoker> invokers = DefaultApiWrapper.createInvokers();
+        for (Method method : InterfaceApi.class.getMethods())
+            assertNotNull("no invoker for " + method.getName(), invokers.get(method.getName()));
+    }
+
+    @Test
+    public void wrap_callsDelegateWithSameArguments() throws Exception {
+        RecordingApi api = new RecordingApi();
+        InterfaceApi wrapper = DefaultApiWrapper.wrap(api, null);
+        for (Method method : InterfaceApi.class.getMethods()) {
+            Object[] args = arguments(method);
+
+            method.invoke(wrapper, args);
+
+            assertEquals(method.getName(), api.methodName);
+            assertArrayEquals(method.getName(), args, api.args);
+        }
+    }
+
+    /**
+     * @return distinct arguments for the parameters of an API method, with an access token as authorization
+     */
+    private static Object[] arguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] args = new Object[types.length];
+        args[0] = Constants.TOKEN_PREFIX + "access-token";
+        for (int i = 1; i < types.length; i++) {
+            if (types[i] == String.class)
+                args[i] = method.getName() + "-" + i;
+            else if (types[i] == Boolean.class)
+                args[i] = i % 2 == 0;
+            else if (types[i] == Float.class)
+                args[i] = (float) i;
+            else if (types[i] == List.class)
+                args[i] = Collections.singletonList(method.getName() + "-" + i);
+            else if (types[i] == ApiCallback.class)
+                args[i] = new ApiCallbackImpl<>(Constants.GET_CARD_SERVICE_NAME, new ClientCallback<Object>() {
+                    @Override
+                    public void onFailure(RestAPIError message) {
+                    }
+
+                    @Override
+                    public void onSuccess(Object result) {
+                    }
+                });
+            else
+                fail("unexpected parameter type " + types[i] + " of " + method.getName());
+        }
+        return args;
+    }
+
+    /**
+     * DefaultApi that records the last call instead of sending it
+     */
+    private static class RecordingApi extends DefaultApi {
+        private String methodName;
+        private Object[] args;
+
+        private RecordingApi() {
+            super(new ApiClient(Constants.DEFAULT_ENVIRONMENT));
+        }
+
+        private Call record(String methodName, Object... args) {
+            this.methodName = methodName;
+            this.args = args;
+            return null;
+        }
+
+        @Override
+        public Call deleteLikesAsync(String authorization, String cardId, String acceptLanguage,
+                                     ApiCallback<Void> callback) throws ApiException {
+            return record("deleteLikesAsync", authorization, cardId, acceptLanguage, callback);
+        }
+
+        @Override
+        public Call getCardAsync(String authorization, String cardId, String acceptLanguage, Boolean products,
+                                 Boolean userData, String imageSize, ApiCallback<Card> callback) throws ApiException {
+            return record("getCardAsync", authorization, cardId, acceptLanguage, products, userData, imageSize, callback);
+        }
+
+        @Override
+        public Call getCardVersionAsync(String authorization, String cardId, String version, String acceptLanguage,
+                                        Boolean products, Boolean userData, Boolean relations, String imageSize,
+                                        ApiCallback<Card> callback) throws ApiException {
+            return record("getCardVersionAsync", authorization, cardId, version, acceptLanguage, products, userData,
+                    relations, imageSize, callback);
+        }
+
+        @Override
+        public Call getCatalogMovieAsync(String authorization, String clientMovieId, String acceptLanguage,
+                                         String imageSize, ApiCallback<Card> callback) throws ApiException {
+            return record("getCatalogMovieAsync", authorization, clientMovieId, acceptLanguage, imageSize, callback);
+        }
+
+        @Override
+        public Call getChannelGridAsync(String authorization, String channelId, String acceptLanguage, String imageSize,
+                                        ApiCallback<TvGrid> callback) throws ApiException {
+            return record("getChannelGridAsync", authorization, channelId, acceptLanguage, imageSize, callback);
+        }
+
+        @Override
+        public Call getChannelMovieAsync(String authorization, String channelId, String acceptLanguage, String imageSize,
+                                         ApiCallback<Card> callback) throws ApiException {
+            return record("getChannelMovieAsync", authorization, channelId, acceptLanguage, imageSize, callback);
+        }
+
+        @Override
+        public Call getLikesAsync(String authorization, String acceptLanguage, String imageSize, String pageKey,
+                                  String size, ApiCallback<List<Card>> callback) throws ApiException {
+            return record("getLikesAsync", authorization, acceptLanguage, imageSize, pageKey, size, callback);
+        }
+
+        @Override
+        public Call getReadyChannelsAsync(String authorization, List<String> channelIds, String acceptLanguage,
+                                          ApiCallback<List<ChannelStatus>> callback) throws ApiException {
+            return record("getReadyChannelsAsync", authorization, channelIds, acceptLanguage, callback);
+        }
+
+        @Override
+        public Call getReadyMoviesAsync(String authorization, List<String> clientMovieIds, String acceptLanguage,
+                                        ApiCallback<List<MovieStatus>> callback) throws ApiException {
+            return record("getReadyMoviesAsync", authorization, clientMovieIds, acceptLanguage, callback);
+        }
+
+        @Override
+        public Call getStaticChannelSceneAsync(String authorization, String channelId, String acceptLanguage,
+                                               Boolean relations, String imageSize,
+                                               ApiCallback<List<Card>> callback) throws ApiException {
+            return record("getStaticChannelSceneAsync", authorization, channelId, acceptLanguage, relations, imageSize,
+                    callback);
+        }
+
+        @Override
+        public Call getStaticMovieSceneAsync(String authorization, String clientMovieId, Float timestamp,
+                                             String acceptLanguage, Boolean relations, String imageSize,
+                                             ApiCallback<List<Card>> callback) throws ApiException {
+            return record("getStaticMovieSceneAsync", authorization, clientMovieId, timestamp, acceptLanguage, relations,
+                    imageSize, callback);
+        }
+
+        @Override
+        public Call postLikesAsync(String authorization, String cardId, String acceptLanguage,
+                                   ApiCallback<Void> callback) throws ApiException {
+            return record("postLikesAsync", authorization, cardId, acceptLanguage, callback);
+        }
+
+        @Override
+        public Call postTokenAsync(String authorization, String grantType, String acceptLanguage, String deviceId,
+                                   String refreshToken, ApiCallback<AccessToken> callback) throws ApiException {
+            return record("postTokenAsync", authorization, grantType, acceptLanguage, deviceId, refreshToken, callback);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package sdk.client.dive.tv.rest;
+
+import com.touchvie.sdk.ApiException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import sdk.client.dive.tv.rest.callbacks.ClientCallback;
+import sdk.client.dive.tv.rest.enums.RestAPIError;
+
+import static org.junit.Assert.*;
+
+public class ReadyStatusBatcherTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private ReadyStatusBatcher<String> batcher(final String failingId) {
+        return new ReadyStatusBatcher<>(scheduler, new ReadyStatusBatcher.BatchCall<String>() {
+            @Override
+            public void execute(List<String> ids, ClientCallback<List<String>> callback) throws ApiException {
+                calls.add(ids);
+                if (ids.contains(failingId))
+                    callback.onFailure(RestAPIError.SERVICE_TEMPORARY_UNAVAILABLE);
+                else
+                    callback.onSuccess(new ArrayList<>(ids)); // the status of an id is the id itself
+            }
+        }, new ReadyStatusBatcher.IdExtractor<String>() {
+            @Override
+            public String getId(String status) {
+                return status;
+            }
+        });
+    }
+
+    private static class Result implements ClientCallback<List<String>> {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private List<String> statuses;
+        private RestAPIError error;
+
+        @Override
+        public void onFailure(RestAPIError message) {
+            error = message;
+            latch.countDown();
+        }
+
+        @Override
+        public void onSuccess(List<String> result) {
+            statuses = result;
+            latch.countDown();
+        }
+
+        private Result await() throws InterruptedException {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    @Test
+    public void request_batchesAndDeduplicates() throws Exception {
+        ReadyStatusBatcher<String> batcher = batcher(null);
+        Result first = new Result();
+        Result second = new Result();
+        batcher.request(Arrays.asList("m1", "m2"), first);
+        batcher.request(Arrays.asList("m2", "m3"), second);
+        assertEquals(Arrays.asList("m1", "m2"), first.await().statuses);
+        assertEquals(Arrays.asList("m2", "m3"), second.await().statuses);
+        assertEquals(1, calls.size());
+        assertEquals(Arrays.asList("m1", "m2", "m3"), calls.get(0));
+        assertEquals(2, batcher.getRequestCount());
+        assertEquals(1, batcher.getCallCount());
+    }
+
+    @Test
+    public void request_failsOnlyCallersOfFailedChunk() throws Exception {
+        ReadyStatusBatcher<String> batcher = batcher("bad");
+        batcher.setMaxIdsLength(4);
+        Result good = new Result();
+        Result bad = new Result();
+        batcher.request(Arrays.asList("m1"), good);
+        batcher.request(Arrays.asList("bad"), bad);
+        assertEquals(Arrays.asList("m1"), good.await().statuses);
+        assertEquals(RestAPIError.SERVICE_TEMPORARY_UNAVAILABLE, bad.await().error);
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void chunk_keepsEncodedLengthUnderLimit() throws Exception {
+        List<List<String>> chunks = ReadyStatusBatcher.chunk(new LinkedHashSet<>(Arrays.asList("aaaa", "bbbb", "cccc", "dd dd")), 11);
+        assertEquals(Arrays.asList(Arrays.asList("aaaa", "bbbb"), Arrays.asList("cccc"), Arrays.asList("dd dd")), chunks);
+    }
+}
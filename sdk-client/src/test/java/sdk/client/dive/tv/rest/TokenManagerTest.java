@@ -0,0 +1,194 @@
+package sdk.client.dive.tv.rest;
+
+import com.google.gson.Gson;
+import com.squareup.okhttp.Call;
+import com.touchvie.sdk.ApiCallback;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.ApiException;
+import com.touchvie.sdk.api.DefaultApi;
+import com.touchvie.sdk.model.AccessToken;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import sdk.client.dive.tv.rest.callbacks.TokenCallback;
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InMemorySharedPreferences;
+import sdk.client.dive.tv.utils.SharedPreferencesHelper;
+import sdk.client.dive.tv.utils.TokenStore;
+
+import static org.junit.Assert.*;
+
+public class TokenManagerTest {
+
+    private final Gson gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+    private SharedPreferencesHelper helper;
+    private TokenStore store;
+    private RecordingApi api;
+    private TokenManager tokenManager;
+
+    @Before
+    public void setUp() {
+        helper = new SharedPreferencesHelper(new InMemorySharedPreferences().asContext());
+        helper.storeApiKey("api-key");
+        helper.storeDeviceId("device-id");
+        store = new TokenStore(helper);
+        api = new RecordingApi();
+        tokenManager = new TokenManager(api, store);
+    }
+
+    private AccessToken accessToken(String token) {
+        return gson.fromJson("{\"access_token\":\"" + token + "\",\"refresh_token\":\"refresh-" + token
+                + "\",\"token_type\":\"bearer\",\"expires_in\":3600}", AccessToken.class);
+    }
+
+    @Test
+    public void requestToken_concurrentRequestsShareOneCall() throws Exception {
+        final List<RecordingCallback> callbacks = Collections.synchronizedList(new ArrayList<RecordingCallback>());
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    RecordingCallback callback = new RecordingCallback();
+                    callbacks.add(callback);
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    tokenManager.requestToken(callback);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(1, api.calls.size());
+
+        api.calls.get(0).callback.onSuccess(accessToken("token-1"), 200, null);
+
+        assertEquals("token-1", store.getAccessToken());
+        assertEquals(4, callbacks.size());
+        for (RecordingCallback callback : callbacks) {
+            assertEquals(Collections.singletonList("token-1"), callback.tokens);
+            assertTrue(callback.failures.isEmpty());
+        }
+    }
+
+    @Test
+    public void requestToken_failureReachesEveryWaiter() throws Exception {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        tokenManager.requestToken(first);
+        tokenManager.requestToken(second);
+        assertEquals(1, api.calls.size());
+
+        api.calls.get(0).callback.onFailure(new ApiException("unauthorized"), 401, null);
+
+        assertEquals(Collections.singletonList(401), first.failures);
+        assertEquals(Collections.singletonList(401), second.failures);
+        assertTrue(first.tokens.isEmpty());
+        assertTrue(second.tokens.isEmpty());
+
+        // the next request is not a waiter of the failed one
+        tokenManager.requestToken(new RecordingCallback());
+        assertEquals(2, api.calls.size());
+    }
+
+    @Test
+    public void requestToken_validTokenIsAnsweredWithoutCall() throws Exception {
+        long expiration = System.currentTimeMillis() + 3600 * 1000L;
+        helper.storeToken("access-token", expiration, "refresh-token", expiration + Constants.MONTH_TO_MILLISECONDS);
+        tokenManager = new TokenManager(api, new TokenStore(helper));
+        RecordingCallback callback = new RecordingCallback();
+
+        tokenManager.requestToken(callback);
+
+        assertEquals(Collections.singletonList("access-token"), callback.tokens);
+        assertTrue(api.calls.isEmpty());
+    }
+
+    @Test
+    public void requestToken_withoutRefreshTokenUsesDeviceGrant() throws Exception {
+        tokenManager.requestToken(new RecordingCallback());
+
+        RecordedCall call = api.calls.get(0);
+        assertEquals(store.getBasicAuthToken(), call.authorization);
+        assertEquals(Constants.DEVICE_GRANT_TYPE, call.grantType);
+        assertEquals("device-id", call.deviceId);
+        assertNull(call.refreshToken);
+    }
+
+    @Test
+    public void requestToken_expiredTokenUsesRefreshGrant() throws Exception {
+        helper.storeToken("access-token", System.currentTimeMillis() + Constants.EXPIRATION_MARGIN / 2, "refresh-token",
+                System.currentTimeMillis() + Constants.MONTH_TO_MILLISECONDS);
+        tokenManager = new TokenManager(api, new TokenStore(helper));
+
+        tokenManager.requestToken(new RecordingCallback());
+
+        RecordedCall call = api.calls.get(0);
+        assertEquals(Constants.REFRESH_TOKEN_GRANT_TYPE, call.grantType);
+        assertEquals("refresh-token", call.refreshToken);
+        assertNull(call.deviceId);
+    }
+
+    private static class RecordedCall {
+        private final String authorization;
+        private final String grantType;
+        private final String deviceId;
+        private final String refreshToken;
+        private final ApiCallback<AccessToken> callback;
+
+        private RecordedCall(String authorization, String grantType, String deviceId, String refreshToken,
+                             ApiCallback<AccessToken> callback) {
+            this.authorization = authorization;
+            this.grantType = grantType;
+            this.deviceId = deviceId;
+            this.refreshToken = refreshToken;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * DefaultApi that records the token requests instead of sending them
+     */
+    private static class RecordingApi extends DefaultApi {
+        private final List<RecordedCall> calls = Collections.synchronizedList(new ArrayList<RecordedCall>());
+
+        private RecordingApi() {
+            super(new ApiClient(Constants.DEFAULT_ENVIRONMENT));
+        }
+
+        @Override
+        public Call postTokenAsync(String authorization, String grantType, String acceptLanguage, String deviceId,
+                                   String refreshToken, ApiCallback<AccessToken> callback) throws ApiException {
+            calls.add(new RecordedCall(authorization, grantType, deviceId, refreshToken, callback));
+            return null;
+        }
+    }
+
+    private static class RecordingCallback implements TokenCallback {
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Integer> failures = new ArrayList<>();
+
+        @Override
+        public void onSuccess(String accessToken) {
+            tokens.add(accessToken);
+        }
+
+        @Override
+        public void onFailure(int statusCode, ApiException e) {
+            failures.add(statusCode);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package sdk.client.dive.tv.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ListenerDispatcherTest {
+
+    private final List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private ListenerDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        dispatcher = new ListenerDispatcher(ListenerDispatcher.Mode.BACKGROUND, 5);
+        dispatcher.dispatch(ListenerDispatcher.EventType.OTHER, new Runnable() {
+            @Override
+            public void run() {
+                blocked.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        // the delivery thread is blocked and the queue is empty
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() {
+        gate.countDown();
+        dispatcher.shutdown();
+    }
+
+    private void dispatch(ListenerDispatcher.EventType type, final String name) {
+        dispatcher.dispatch(type, new Runnable() {
+            @Override
+            public void run() {
+                delivered.add(name);
+            }
+        });
+    }
+
+    private void awaitDelivery() throws InterruptedException {
+        gate.countDown();
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch(ListenerDispatcher.EventType.OTHER, new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dispatch_conflatesSceneUpdates() throws Exception {
+        dispatch(ListenerDispatcher.EventType.SCENE_START, "start");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update1");
+        dispatch(ListenerDispatcher.EventType.OTHER, "pause");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update2");
+        assertEquals(3, dispatcher.getMaxQueueDepth());
+        awaitDelivery();
+
+        assertEquals(Arrays.asList("start", "pause", "update2"), delivered);
+        assertEquals(1, dispatcher.getConflatedCount());
+    }
+
+    @Test
+    public void dispatch_keepsUpdatesOfPreviousScene() throws Exception {
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update1");
+        dispatch(ListenerDispatcher.EventType.SCENE_END, "end");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update2");
+        awaitDelivery();
+
+        assertEquals(Arrays.asList("update1", "end", "update2"), delivered);
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void dispatch_overflowDeliversLifecycleEvents() throws Exception {
+        dispatch(ListenerDispatcher.EventType.OTHER, "movie_start");
+        dispatch(ListenerDispatcher.EventType.SCENE_START, "start1");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update1");
+        dispatch(ListenerDispatcher.EventType.SCENE_END, "end1");
+        dispatch(ListenerDispatcher.EventType.OTHER, "error");
+        // the update of the ended scene makes room
+        dispatch(ListenerDispatcher.EventType.SCENE_START, "start2");
+        // no scene-update can be dropped, the queue grows
+        dispatch(ListenerDispatcher.EventType.SCENE_END, "end2");
+        dispatch(ListenerDispatcher.EventType.OTHER, "movie_end");
+        assertEquals(7, dispatcher.getMaxQueueDepth());
+        awaitDelivery();
+
+        assertEquals(Arrays.asList("movie_start", "start1", "end1", "error", "start2", "end2", "movie_end"), delivered);
+        assertEquals(1, dispatcher.getOverflowCount());
+    }
+
+    @Test
+    public void dispatch_overflowKeepsUpdateOfCurrentScene() throws Exception {
+        dispatch(ListenerDispatcher.EventType.SCENE_START, "start");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update");
+        dispatch(ListenerDispatcher.EventType.OTHER, "a");
+        dispatch(ListenerDispatcher.EventType.OTHER, "b");
+        dispatch(ListenerDispatcher.EventType.OTHER, "c");
+        dispatch(ListenerDispatcher.EventType.OTHER, "d");
+        awaitDelivery();
+
+        assertEquals(Arrays.asList("start", "update", "a", "b", "c", "d"), delivered);
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    public void dispatch_direct() {
+        dispatcher = new ListenerDispatcher();
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update1");
+        dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, "update2");
+
+        assertEquals(Arrays.asList("update1", "update2"), delivered);
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void setMode_directQueuesBehindPendingEvents() throws Exception {
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        Runnable recordThread = new Runnable() {
+            @Override
+            public void run() {
+                threads.add(Thread.currentThread());
+            }
+        };
+        dispatcher.dispatch(ListenerDispatcher.EventType.SCENE_START, recordThread);
+        dispatcher.setMode(ListenerDispatcher.Mode.DIRECT);
+        dispatcher.dispatch(ListenerDispatcher.EventType.SCENE_UPDATE, recordThread);
+        // not delivered on the calling thread, ahead of the pending event
+        assertTrue(threads.isEmpty());
+        assertEquals(2, dispatcher.getQueueDepth());
+        awaitDelivery();
+
+        assertEquals(2, threads.size());
+        assertSame(threads.get(0), threads.get(1));
+        assertNotSame(Thread.currentThread(), threads.get(1));
+    }
+
+    @Test
+    public void shutdown_nextEventStartsNewThread() throws Exception {
+        awaitDelivery();
+        dispatcher.shutdown();
+        final CountDownLatch done = new CountDownLatch(1);
+        dispatcher.dispatch(ListenerDispatcher.EventType.OTHER, new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,115 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+import com.touchvie.sdk.model.CardContainer;
+import com.touchvie.sdk.model.CardUser;
+import com.touchvie.sdk.model.Product;
+import com.touchvie.sdk.model.RelationModule;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class SceneCardTest {
+
+    private Gson gson;
+    private SocketManager socketManager;
+    private JSONObject payload;
+
+    @Before
+    public void setUp() throws Exception {
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        socketManager = new SocketManager(null, gson);
+        JSONObject card = new JSONObject()
+                .put("card_id", "p1001")
+                .put("version", "3")
+                .put("type", "person")
+                .put("locale", "en-US")
+                .put("title", "Harrison Ford")
+                .put("image", new JSONObject().put("thumb", "https://img.dive.tv/thumb/p1001.jpg"))
+                .put("products", new JSONArray());
+        payload = new JSONObject().put(Constants.JSON_KEY_CARDS, new JSONArray().put(card).put(JSONObject.NULL));
+    }
+
+    @Test
+    public void readCards_deliversSceneCards() throws Exception {
+        socketManager.setLazyCards(true);
+        List<Card> cards = socketManager.readCards(payload);
+        assertEquals(2, cards.size());
+        assertNull(cards.get(1));
+        SceneCard card = (SceneCard) cards.get(0);
+        assertEquals("p1001", card.getCardId());
+        assertEquals("3", card.getVersion());
+        assertEquals(Card.TypeEnum.PERSON, card.getType());
+        assertEquals("Harrison Ford", card.getTitle());
+        assertEquals("https://img.dive.tv/thumb/p1001.jpg", card.getImage().getThumb());
+        assertFalse(card.isRead());
+    }
+
+    @Test
+    public void getCard_readsWholeCardOnce() throws Exception {
+        Card full = socketManager.readCards(payload).get(0);
+        socketManager.setLazyCards(true);
+        SceneCard card = (SceneCard) socketManager.readCards(payload).get(0);
+        assertNotNull(card.getProducts());
+        assertTrue(card.isRead());
+        assertSame(card.getCard(), card.getCard());
+        assertEquals(gson.toJson(full), gson.toJson(card.getCard()));
+    }
+
+    @Test
+    public void mutators_writeThroughToWholeCard() throws Exception {
+        socketManager.setLazyCards(true);
+        SceneCard card = (SceneCard) socketManager.readCards(payload).get(0);
+        Product product = new Product();
+        CardUser user = new CardUser();
+
+        card.addProductsItem(product);
+        card.setInfo(new ArrayList<CardContainer>());
+        card.addInfoItem(new CardContainer());
+        assertSame(card, card.relations(new ArrayList<RelationModule>()));
+        card.user(user);
+
+        Card whole = card.getCard();
+        assertEquals(Collections.singletonList(product), whole.getProducts());
+        assertEquals(1, whole.getInfo().size());
+        assertTrue(whole.getRelations().isEmpty());
+        assertSame(user, whole.getUser());
+        assertSame(whole.getProducts(), card.getProducts());
+
+        card.setProducts(null);
+        card.setRelations(null);
+        card.setUser(null);
+        assertNull(whole.getProducts());
+        assertNull(whole.getRelations());
+        assertNull(whole.getUser());
+    }
+
+    @Test
+    public void equals_comparesWholeCards() throws Exception {
+        Card full = socketManager.readCards(payload).get(0);
+        socketManager.setLazyCards(true);
+        SceneCard card = (SceneCard) socketManager.readCards(payload).get(0);
+        SceneCard other = (SceneCard) socketManager.readCards(payload).get(0);
+
+        assertEquals(full, card.getCard());
+        assertEquals(card, full);
+        assertEquals(card, other);
+        assertEquals(full.hashCode(), card.hashCode());
+        assertEquals(full.toString(), card.toString());
+
+        other.addProductsItem(new Product());
+        assertNotEquals(card, other);
+    }
+}
@@ -0,0 +1,64 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import sdk.client.dive.tv.socket.model.SceneDelta;
+
+import static org.junit.Assert.*;
+
+public class SceneStateTest {
+
+    private final Gson gson = new Gson();
+
+    private Card card(String cardId, String version) {
+        return gson.fromJson("{\"card_id\":\"" + cardId + "\",\"version\":\"" + version + "\"}", Card.class);
+    }
+
+    private static List<String> ids(List<Card> cards) {
+        String[] ids = new String[cards.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = cards.get(i).getCardId();
+        return Arrays.asList(ids);
+    }
+
+    @Test
+    public void update_addedRemovedChanged() {
+        SceneState state = new SceneState();
+        state.start(Arrays.asList(card("a", "1"), card("b", "1"), card("c", "1")));
+
+        SceneDelta delta = state.update(Arrays.asList(card("b", "2"), card("c", "1"), card("d", "1")));
+
+        assertEquals(Collections.singletonList("d"), ids(delta.getAdded()));
+        assertEquals(Collections.singletonList("a"), ids(delta.getRemoved()));
+        assertEquals(Collections.singletonList("b"), ids(delta.getChanged()));
+        assertEquals(3, state.size());
+    }
+
+    @Test
+    public void update_unchangedSceneIsEmpty() {
+        SceneState state = new SceneState();
+        state.start(Arrays.asList(card("a", "1"), card("b", "1")));
+
+        assertTrue(state.update(Arrays.asList(card("b", "1"), card("a", "1"))).isEmpty());
+    }
+
+    @Test
+    public void update_afterClearAddsEverything() {
+        SceneState state = new SceneState();
+        state.start(Arrays.asList(card("a", "1")));
+        state.clear();
+
+        SceneDelta delta = state.update(Arrays.asList(card("a", "1"), card("b", "1")));
+
+        assertEquals(Arrays.asList("a", "b"), ids(delta.getAdded()));
+        assertTrue(delta.getRemoved().isEmpty());
+        assertTrue(delta.getChanged().isEmpty());
+    }
+}
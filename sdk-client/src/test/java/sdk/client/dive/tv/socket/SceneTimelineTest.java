@@ -0,0 +1,101 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SceneTimelineTest {
+
+    private final Gson gson = new Gson();
+
+    private List<Card> scene(String cardId) {
+        return Collections.singletonList(gson.fromJson("{\"card_id\":\"" + cardId + "\",\"version\":\"1\"}", Card.class));
+    }
+
+    private static String cardId(List<Card> cards) {
+        return cards == null ? null : cards.isEmpty() ? "" : cards.get(0).getCardId();
+    }
+
+    @Test
+    public void get_binarySearchOverIntervals() {
+        SceneTimeline timeline = new SceneTimeline(2);
+        timeline.put("m1", 20000, 30000, scene("b"));
+        timeline.put("m1", 0, 10000, scene("a"));
+        timeline.put("m1", 10000, 20000, Collections.<Card>emptyList());
+
+        assertEquals("a", cardId(timeline.get("m1", 0)));
+        assertEquals("a", cardId(timeline.get("m1", 9999)));
+        assertEquals("", cardId(timeline.get("m1", 10000)));
+        assertEquals("b", cardId(timeline.get("m1", 25000)));
+        assertNull(timeline.get("m1", 30000));
+        assertNull(timeline.get("m2", 0));
+        assertEquals(3, timeline.getIntervalCount("m1"));
+    }
+
+    @Test
+    public void put_replacesOverlappingIntervals() {
+        SceneTimeline timeline = new SceneTimeline(2);
+        timeline.put("m1", 0, 30000, scene("a"));
+        timeline.put("m1", 10000, 20000, scene("b"));
+
+        assertEquals("a", cardId(timeline.get("m1", 5000)));
+        assertEquals("b", cardId(timeline.get("m1", 15000)));
+        assertEquals("a", cardId(timeline.get("m1", 25000)));
+        assertEquals(3, timeline.getIntervalCount("m1"));
+
+        timeline.put("m1", 5000, 25000, scene("c"));
+
+        assertEquals("a", cardId(timeline.get("m1", 4000)));
+        assertEquals("c", cardId(timeline.get("m1", 15000)));
+        assertEquals("a", cardId(timeline.get("m1", 26000)));
+        assertEquals(3, timeline.getIntervalCount("m1"));
+    }
+
+    @Test
+    public void put_keepsMostRecentMovies() {
+        SceneTimeline timeline = new SceneTimeline(2);
+        timeline.put("m1", 0, 1000, scene("a"));
+        timeline.put("m2", 0, 1000, scene("a"));
+        timeline.get("m1", 0);
+        timeline.put("m3", 0, 1000, scene("a"));
+
+        assertNotNull(timeline.get("m1", 0));
+        assertNull(timeline.get("m2", 0));
+        assertEquals(2, timeline.getMovieCount());
+    }
+
+    @Test
+    public void recorder_recordsObservedScenes() {
+        SceneTimeline timeline = new SceneTimeline(2);
+        final long[] clock = new long[]{0};
+        StreamSession session = new StreamSession() {
+            @Override
+            long now() {
+                return clock[0];
+            }
+        };
+        VodTimelineRecorder recorder = new VodTimelineRecorder(timeline, session);
+        session.startVod("m1", 60000);
+        clock[0] = 2000;
+        recorder.onSceneCards(scene("a"));
+        clock[0] = 12000;
+        recorder.onSceneEnd();
+        clock[0] = 15000;
+        recorder.onSceneCards(scene("b"));
+        clock[0] = 17000;
+        recorder.beforeSeek();
+        session.seek(0);
+
+        assertEquals("a", cardId(timeline.get("m1", 62000)));
+        assertEquals("a", cardId(timeline.get("m1", 71999)));
+        assertEquals("", cardId(timeline.get("m1", 72000)));
+        assertEquals("b", cardId(timeline.get("m1", 76000)));
+        assertNull(timeline.get("m1", 77000));
+    }
+}
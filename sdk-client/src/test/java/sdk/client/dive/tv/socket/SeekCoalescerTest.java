@@ -0,0 +1,90 @@
+package sdk.client.dive.tv.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import sdk.client.dive.tv.socket.model.StreamMessage;
+
+import static org.junit.Assert.*;
+
+public class SeekCoalescerTest {
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+    private ScheduledExecutorService scheduler;
+    private SeekCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        coalescer = new SeekCoalescer(scheduler, new SeekCoalescer.Sender() {
+            @Override
+            public void send(StreamMessage message) {
+                sent.add(message.getType() + ":" + message.getTimestamp());
+            }
+        }, 100);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void send_onlyLastSeekAfterWindow() throws Exception {
+        for (int i = 1; i <= 10; i++)
+            coalescer.send(new StreamMessage(i, StreamMessage.Type.vod_set));
+        assertTrue(sent.isEmpty());
+
+        Thread.sleep(300);
+
+        assertEquals(Collections.singletonList("vod_set:10"), sent);
+        assertEquals(10, coalescer.getSeekCount());
+        assertEquals(1, coalescer.getSentCount());
+        assertEquals(9, coalescer.getSuppressedCount());
+    }
+
+    @Test
+    public void send_otherMessageFlushesPendingSeek() {
+        coalescer.send(new StreamMessage(5, StreamMessage.Type.vod_set));
+        coalescer.send(new StreamMessage(0, StreamMessage.Type.vod_pause));
+
+        assertEquals(2, sent.size());
+        assertEquals("vod_set:5", sent.get(0));
+        assertEquals("vod_pause:0", sent.get(1));
+    }
+
+    @Test
+    public void send_continueIsKeptWhenFollowedBySet() {
+        coalescer.send(new StreamMessage(5, StreamMessage.Type.vod_continue));
+        coalescer.send(new StreamMessage(8, StreamMessage.Type.vod_set));
+        coalescer.flush();
+
+        assertEquals(Collections.singletonList("vod_continue:8"), sent);
+    }
+
+    @Test
+    public void send_withoutWindow() {
+        coalescer.setWindow(0);
+        coalescer.send(new StreamMessage(1, StreamMessage.Type.vod_set));
+        coalescer.send(new StreamMessage(2, StreamMessage.Type.vod_set));
+
+        assertEquals(2, sent.size());
+        assertEquals(0, coalescer.getSuppressedCount());
+    }
+
+    @Test
+    public void cancel_discardsPendingSeek() throws Exception {
+        coalescer.send(new StreamMessage(1, StreamMessage.Type.vod_set));
+        coalescer.cancel();
+        Thread.sleep(200);
+
+        assertTrue(sent.isEmpty());
+    }
+}
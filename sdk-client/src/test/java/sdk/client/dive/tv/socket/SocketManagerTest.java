@@ -0,0 +1,81 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import sdk.client.dive.tv.utils.Constants;
+import sdk.client.dive.tv.utils.InternPool;
+
+import static org.junit.Assert.*;
+
+public class SocketManagerTest {
+
+    private Gson gson;
+    private SocketManager socketManager;
+    private JSONObject payload;
+
+    @Before
+    public void setUp() throws Exception {
+        gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+        socketManager = new SocketManager(null, gson);
+        payload = new JSONObject(readResource("/fixtures/scene_start.json"));
+    }
+
+    @Test
+    public void readCards_matchesStringPath() throws Exception {
+        List<Card> expected = parseFromString();
+        List<Card> actual = socketManager.readCards(payload);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(gson.toJson(expected.get(i)), gson.toJson(actual.get(i)));
+    }
+
+    @Test
+    public void readCards_sharesRepeatedCards() throws Exception {
+        socketManager.setInternPools(new InternPool<String>(1024), new InternPool<Card>(64));
+        List<Card> first = socketManager.readCards(payload);
+        List<Card> second = socketManager.readCards(new JSONObject(payload.toString()));
+        assertSame(first.get(0), second.get(0));
+        socketManager.setInternPools(new InternPool<String>(1024), null);
+        List<Card> third = socketManager.readCards(payload);
+        assertNotSame(first.get(0), third.get(0));
+        assertSame(third.get(0).getLocale(), socketManager.readCards(payload).get(0).getLocale());
+    }
+
+    @Test
+    public void readCards_withoutCards() throws Exception {
+        assertNull(socketManager.readCards(new JSONObject()));
+    }
+
+    private List<Card> parseFromString() throws Exception {
+        Type listCard = new TypeToken<List<Card>>() {
+        }.getType();
+        String jsonCards = payload.get(Constants.JSON_KEY_CARDS).toString();
+        return gson.fromJson(jsonCards, listCard);
+    }
+
+    private String readResource(String name) throws Exception {
+        InputStream in = getClass().getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
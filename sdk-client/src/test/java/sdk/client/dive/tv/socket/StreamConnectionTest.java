@@ -0,0 +1,79 @@
+package sdk.client.dive.tv.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.socket.client.Socket;
+
+import static org.junit.Assert.*;
+
+public class StreamConnectionTest {
+
+    private static final String HOST = "http://localhost:1";
+
+    private StreamConnection connection;
+
+    @Before
+    public void setUp() {
+        connection = new StreamConnection(null);
+        connection.setReconnectionAttempts(0);
+    }
+
+    @After
+    public void tearDown() {
+        connection.release();
+    }
+
+    @Test
+    public void open_differentNamespacesShareConnection() throws Exception {
+        Socket vod = connection.open(HOST + "/movies", "movie_id=m1");
+        Socket channel = connection.open(HOST + "/channels", "channel_id=c1");
+
+        assertEquals(1, connection.getConnectionCount());
+        assertSame(vod.io(), channel.io());
+
+        connection.close(vod);
+        assertEquals(1, connection.getConnectionCount());
+        connection.close(channel);
+        assertEquals(0, connection.getConnectionCount());
+    }
+
+    @Test
+    public void open_sameNamespaceOpensAnotherConnection() throws Exception {
+        Socket first = connection.open(HOST + "/channels", "channel_id=c1");
+        Socket second = connection.open(HOST + "/channels", "channel_id=c2");
+
+        assertEquals(2, connection.getConnectionCount());
+        assertNotSame(first.io(), second.io());
+        connection.close(first);
+        connection.close(second);
+    }
+
+    @Test
+    public void open_namespaceJoinedAgainWithNewSocket() throws Exception {
+        connection.prewarm(HOST);
+        Socket first = connection.open(HOST + "/channels", "channel_id=c1");
+        connection.close(first);
+        Socket second = connection.open(HOST + "/channels", "channel_id=c2");
+
+        assertNotSame(first, second);
+        assertSame(first.io(), second.io());
+        connection.close(second);
+    }
+
+    @Test
+    public void prewarm_keepsConnectionUntilRelease() throws Exception {
+        connection.prewarm(HOST);
+        assertTrue(connection.isPrewarmed());
+        assertEquals(1, connection.getConnectionCount());
+
+        Socket vod = connection.open(HOST + "/movies", "movie_id=m1");
+        connection.close(vod);
+        assertEquals(1, connection.getConnectionCount());
+
+        connection.release();
+        assertFalse(connection.isPrewarmed());
+        assertEquals(0, connection.getConnectionCount());
+    }
+}
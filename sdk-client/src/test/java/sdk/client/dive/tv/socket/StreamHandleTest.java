@@ -0,0 +1,99 @@
+package sdk.client.dive.tv.socket;
+
+import com.google.gson.Gson;
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.socket.model.StreamMessage;
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class StreamHandleTest {
+
+    private final Gson gson = new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson();
+    private final List<String> sceneStarts = new ArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private SocketManager socketManager;
+    private StreamHandle handle;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        socketManager = new SocketManager(null, gson);
+        handle = new StreamHandle("http://localhost", socketManager, scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private List<Card> scene(String cardId) {
+        return Collections.singletonList(gson.fromJson("{\"card_id\":\"" + cardId + "\",\"version\":\"1\"}", Card.class));
+    }
+
+    @Test
+    public void sendMessage_deliversLocalSceneWithinCoalesceWindow() {
+        SceneTimeline timeline = new SceneTimeline(2);
+        timeline.put("m1", 120000, 180000, scene("c1"));
+        socketManager.setSceneTimeline(timeline);
+        socketManager.startVodSession("m1", 0);
+        // attaches the listener, as the journal player does
+        socketManager.handleEvent(new RecordingListener(), Constants.EVENT_PAUSE_END);
+
+        handle.sendMessage(new StreamMessage(130, StreamMessage.Type.vod_set));
+
+        assertEquals(Collections.singletonList("c1"), sceneStarts);
+        // the vod_set itself is still waiting for the end of the window
+        assertEquals(1, handle.getSeekCoalescer().getSeekCount());
+        assertEquals(0, handle.getSeekCoalescer().getSentCount());
+    }
+
+    private class RecordingListener implements SocketListener {
+
+        @Override
+        public void onMovieStartEventReceived(String movieId) {
+        }
+
+        @Override
+        public void onMovieEndEventReceived() {
+        }
+
+        @Override
+        public void onSceneStartEventReceived(List<Card> cards) {
+            sceneStarts.add(cards.get(0).getCardId());
+        }
+
+        @Override
+        public void onSceneUpdateEventReceived(List<Card> cards) {
+        }
+
+        @Override
+        public void onSceneEndEventReceived() {
+        }
+
+        @Override
+        public void onPausedStartEventReceived() {
+        }
+
+        @Override
+        public void onPausedEndEventReceived() {
+        }
+
+        @Override
+        public void onErrorReceived(StreamError error) {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package sdk.client.dive.tv.socket;
+
+import com.touchvie.sdk.ApiClient;
+import com.touchvie.sdk.model.Card;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import sdk.client.dive.tv.socket.model.StreamError;
+import sdk.client.dive.tv.utils.Constants;
+
+import static org.junit.Assert.*;
+
+public class StreamJournalTest {
+
+    private String scene;
+
+    @Before
+    public void setUp() throws Exception {
+        InputStream in = getClass().getResourceAsStream("/fixtures/scene_start.json");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1)
+            out.write(buffer, 0, read);
+        in.close();
+        scene = out.toString("UTF-8");
+    }
+
+    @Test
+    public void record_readsBackEventsInOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamJournalWriter writer = new StreamJournalWriter(out);
+        writer.record(Constants.EVENT_MOVIE_START, new JSONObject().put(Constants.JSON_KEY_MOVIE_ID, "m1"));
+        writer.record(Constants.EVENT_SCENE_START, new JSONObject(scene));
+        writer.record("custom_event", "text");
+        writer.record(Constants.EVENT_SCENE_END);
+        assertEquals(4, writer.getRecordCount());
+        writer.close();
+        writer.record(Constants.EVENT_MOVIE_END);
+        assertEquals(4, writer.getRecordCount());
+
+        StreamJournalReader reader = new StreamJournalReader(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(reader.getStartTime() <= System.currentTimeMillis());
+        StreamJournalReader.Record movieStart = reader.next();
+        assertEquals(Constants.EVENT_MOVIE_START, movieStart.getEvent());
+        assertEquals("m1", ((JSONObject) movieStart.getArgs()[0]).getString(Constants.JSON_KEY_MOVIE_ID));
+        StreamJournalReader.Record sceneStart = reader.next();
+        assertEquals(Constants.EVENT_SCENE_START, sceneStart.getEvent());
+        assertEquals(new JSONObject(scene).toString(), sceneStart.getPayload());
+        assertTrue(sceneStart.getTimeMicros() >= movieStart.getTimeMicros());
+        StreamJournalReader.Record custom = reader.next();
+        assertEquals("custom_event", custom.getEvent());
+        assertArrayEquals(new Object[]{"text"}, custom.getArgs());
+        StreamJournalReader.Record sceneEnd = reader.next();
+        assertEquals(Constants.EVENT_SCENE_END, sceneEnd.getEvent());
+        assertNull(sceneEnd.getPayload());
+        assertEquals(0, sceneEnd.getArgs().length);
+        assertNull(reader.next());
+        // the scene payload is deflated
+        assertTrue(out.size() < scene.length() / 2);
+    }
+
+    @Test
+    public void next_truncatedJournalEndsAtLastFlushedRecord() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamJournalWriter writer = new StreamJournalWriter(out);
+        writer.record(Constants.EVENT_MOVIE_START, new JSONObject().put(Constants.JSON_KEY_MOVIE_ID, "m1"));
+        writer.record(Constants.EVENT_PAUSE_START);
+        writer.flush();
+        byte[] journal = out.toByteArray();
+
+        StreamJournalReader reader = new StreamJournalReader(new ByteArrayInputStream(journal));
+        assertEquals(Constants.EVENT_MOVIE_START, reader.next().getEvent());
+        assertEquals(Constants.EVENT_PAUSE_START, reader.next().getEvent());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void play_deliversRecordedEventsToListener() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamJournalWriter writer = new StreamJournalWriter(out);
+        writer.record(Constants.EVENT_MOVIE_START, new JSONObject().put(Constants.JSON_KEY_MOVIE_ID, "m1"));
+        writer.record(Constants.EVENT_SCENE_START, new JSONObject(scene));
+        writer.record("unknown_event");
+        writer.record(Constants.EVENT_SCENE_END);
+        writer.record(Constants.EVENT_MOVIE_END);
+        writer.close();
+
+        final List<String> events = new ArrayList<>();
+        StreamJournalPlayer player = new StreamJournalPlayer(new ApiClient(Constants.DEFAULT_ENVIRONMENT).getJSON().getGson());
+        int count = player.play(new StreamJournalReader(new ByteArrayInputStream(out.toByteArray())), new SocketListener() {
+            @Override
+            public void onMovieStartEventReceived(String movieId) {
+                events.add(Constants.EVENT_MOVIE_START + " " + movieId);
+            }
+
+            @Override
+            public void onMovieEndEventReceived() {
+                events.add(Constants.EVENT_MOVIE_END);
+            }
+
+            @Override
+            public void onSceneStartEventReceived(List<Card> cards) {
+                events.add(Constants.EVENT_SCENE_START + " " + cards.size());
+            }
+
+            @Override
+            public void onSceneUpdateEventReceived(List<Card> cards) {
+                events.add(Constants.EVENT_SCENE_UPDATE);
+            }
+
+            @Override
+            public void onSceneEndEventReceived() {
+                events.add(Constants.EVENT_SCENE_END);
+            }
+
+            @Override
+            public void onPausedStartEventReceived() {
+                events.add(Constants.EVENT_PAUSE_START);
+            }
+
+            @Override
+            public void onPausedEndEventReceived() {
+                events.add(Constants.EVENT_PAUSE_END);
+            }
+
+            @Override
+            public void onErrorReceived(StreamError error) {
+                events.add(Constants.EVENT_ERROR);
+            }
+        }, 1);
+
+        assertEquals(4, count);
+        int cards = new JSONObject(scene).getJSONArray(Constants.JSON_KEY_CARDS).length();
+        assertEquals(Arrays.asList(Constants.EVENT_MOVIE_START + " m1", Constants.EVENT_SCENE_START + " " + cards,
+                Constants.EVENT_SCENE_END, Constants.EVENT_MOVIE_END), events);
+    }
+}
@@ -0,0 +1,55 @@
+package sdk.client.dive.tv.socket;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StreamSessionTest {
+
+    @Test
+    public void session_tracksPlaybackPosition() {
+        final long[] clock = new long[]{0};
+        StreamSession session = new StreamSession() {
+            @Override
+            long now() {
+                return clock[0];
+            }
+        };
+        session.startVod("m1", 10000);
+        clock[0] = 5000;
+        assertEquals(15000, session.position());
+        session.pause();
+        clock[0] = 50000;
+        assertEquals(15000, session.position());
+        assertFalse(session.isPlaying());
+        session.seek(30000);
+        clock[0] = 51000;
+        assertEquals(31000, session.position());
+        session.stop();
+        assertNull(session.getMovieId());
+    }
+
+    @Test
+    public void reconnectStats_timeToFirstScene() {
+        final long[] clock = new long[]{0};
+        ReconnectStats stats = new ReconnectStats() {
+            @Override
+            long now() {
+                return clock[0];
+            }
+        };
+        stats.onScene();
+        stats.onDisconnect();
+        clock[0] = 3000;
+        stats.onReconnect();
+        clock[0] = 3400;
+        stats.onScene();
+        clock[0] = 9000;
+        stats.onScene();
+
+        assertEquals(3000, stats.getLastOutageDuration());
+        assertEquals(400, stats.getLastTimeToFirstScene());
+        assertEquals(400, stats.getAverageTimeToFirstScene());
+        assertEquals(1, stats.getReconnectCount());
+    }
+}
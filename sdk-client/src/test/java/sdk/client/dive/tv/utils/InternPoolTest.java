@@ -0,0 +1,59 @@
+package sdk.client.dive.tv.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InternPoolTest {
+
+    @Test
+    public void intern_sharesEqualValues() throws Exception {
+        InternPool<String> pool = new InternPool<>(16);
+        String first = new String("en-US");
+        String second = new String("en-US");
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame("movie", pool.intern("movie"));
+        assertNull(pool.intern(null));
+    }
+
+    @Test
+    public void intern_sharesValuesOfEqualKeys() throws Exception {
+        InternPool<StringBuilder> pool = new InternPool<>(16);
+        StringBuilder first = new StringBuilder("one");
+        assertSame(first, pool.intern("c1", first));
+        assertSame(first, pool.intern("c1", new StringBuilder("two")));
+        StringBuilder other = new StringBuilder("one");
+        assertSame(other, pool.intern("c2", other));
+    }
+
+    @Test
+    public void remove_dropsValuesOfMatchingKeys() throws Exception {
+        InternPool<StringBuilder> pool = new InternPool<>(16);
+        StringBuilder first = new StringBuilder("one");
+        StringBuilder other = new StringBuilder("other");
+        pool.intern("c1", first);
+        pool.intern("c2", other);
+        pool.remove(new InternPool.KeyFilter() {
+            @Override
+            public boolean matches(Object key) {
+                return "c1".equals(key);
+            }
+        });
+        StringBuilder replaced = new StringBuilder("two");
+        assertSame(replaced, pool.intern("c1", replaced));
+        assertSame(other, pool.intern("c2", new StringBuilder("other")));
+    }
+
+    @Test
+    public void intern_isBounded() throws Exception {
+        InternPool<String> pool = new InternPool<>(100);
+        assertEquals(128, pool.getCapacity());
+        String first = new String("value0");
+        pool.intern(first);
+        for (int i = 1; i < 10000; i++)
+            pool.intern("value" + i);
+        pool.clear();
+        assertNotSame(first, pool.intern(new String("value0")));
+    }
+}
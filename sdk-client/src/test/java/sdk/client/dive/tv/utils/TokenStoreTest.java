@@ -0,0 +1,34 @@
+package sdk.client.dive.tv.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenStoreTest {
+
+    @Test
+    public void get_matchesSharedPreferences() throws Exception {
+        SharedPreferencesHelper helper = new SharedPreferencesHelper(new InMemorySharedPreferences().asContext());
+        long expiration = System.currentTimeMillis() + 3600 * 1000L;
+        helper.storeToken("access-token", expiration, "refresh-token", expiration + Constants.MONTH_TO_MILLISECONDS);
+        helper.storeApiKey("api-key");
+        helper.storeDeviceId("device-id");
+        TokenStore store = new TokenStore(helper);
+
+        assertEquals(helper.getAccessTokenWithPrefix(), store.getAccessTokenWithPrefix());
+        assertEquals(helper.getRefreshToken(), store.getRefreshToken());
+        assertEquals(helper.getBasicAuthToken(), store.getBasicAuthToken());
+    }
+
+    @Test
+    public void storeToken_expiredTokenIsEmpty() throws Exception {
+        SharedPreferencesHelper helper = new SharedPreferencesHelper(new InMemorySharedPreferences().asContext());
+        TokenStore store = new TokenStore(helper);
+        assertNull(store.getAccessTokenWithPrefix());
+        helper.storeToken("access-token", System.currentTimeMillis() + Constants.EXPIRATION_MARGIN / 2, "refresh-token",
+                System.currentTimeMillis() + Constants.MONTH_TO_MILLISECONDS);
+        store = new TokenStore(helper);
+        assertEquals(Constants.EMPTY_STRING, store.getAccessTokenWithPrefix());
+        assertEquals("refresh-token", store.getRefreshToken());
+    }
+}